@@ -0,0 +1,103 @@
+/*
+ * Creates synthetic OBJs for the benchmarks. The meshes are similar to the
+ * exports of unions, with groups of boxes that have subdivided faces.
+ *
+ * @author: agent
+ * @date: 10/17/2026
+ */
+
+package benchmarks;
+
+import java.util.Locale;
+import java.util.Random;
+
+public class MeshGenerator {
+    public static int BOXES_PER_PART = 3;
+    private static int[][][] FACE_AXES = new int[][][] {
+        {{1,0,0},{0,1,0},{0,0,1}},
+        {{0,1,0},{1,0,0},{0,0,-1}},
+        {{0,1,0},{0,0,1},{1,0,0}},
+        {{0,0,1},{0,1,0},{-1,0,0}},
+        {{0,0,1},{1,0,0},{0,1,0}},
+        {{1,0,0},{0,0,1},{0,-1,0}},
+    };
+
+    private StringBuilder vertices = new StringBuilder();
+    private StringBuilder faces = new StringBuilder();
+    private int vertexCount = 0;
+    private int normalCount = 0;
+
+    /**
+     * Adds a box with each face split into a grid of quads. The quads are split into 2 triangles.
+     *
+     * @param center center of the box.
+     * @param size size of the box.
+     * @param subdivisions amount of quads on each side of a face.
+     */
+    private void addBox(double[] center,double[] size,int subdivisions) {
+        for (int[][] axes : FACE_AXES) {
+            int[] u = axes[0];
+            int[] v = axes[1];
+            int[] normal = axes[2];
+            this.vertices.append(String.format(Locale.ROOT,"vn %d %d %d\n",normal[0],normal[1],normal[2]));
+            this.normalCount++;
+
+            // Add the vertices of the face.
+            int firstVertex = this.vertexCount + 1;
+            for (int i = 0; i <= subdivisions; i++) {
+                for (int j = 0; j <= subdivisions; j++) {
+                    double[] point = new double[3];
+                    for (int k = 0; k < 3; k++) {
+                        double offset = (u[k] * (((double) i / subdivisions) - 0.5)) + (v[k] * (((double) j / subdivisions) - 0.5)) + (normal[k] * 0.5);
+                        point[k] = center[k] + (offset * size[k]);
+                    }
+                    this.vertices.append(String.format(Locale.ROOT,"v %.4f %.4f %.4f\n",point[0],point[1],point[2]));
+                    this.vertexCount++;
+                }
+            }
+
+            // Add the triangles of the face.
+            for (int i = 0; i < subdivisions; i++) {
+                for (int j = 0; j < subdivisions; j++) {
+                    int vertex1 = firstVertex + (i * (subdivisions + 1)) + j;
+                    int vertex2 = vertex1 + subdivisions + 1;
+                    int vertex3 = vertex2 + 1;
+                    int vertex4 = vertex1 + 1;
+                    this.faces.append(String.format(Locale.ROOT,"f %d//%d %d//%d %d//%d\n",vertex1,this.normalCount,vertex2,this.normalCount,vertex3,this.normalCount));
+                    this.faces.append(String.format(Locale.ROOT,"f %d//%d %d//%d %d//%d\n",vertex1,this.normalCount,vertex3,this.normalCount,vertex4,this.normalCount));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the source of a synthetic OBJ. The boxes are placed on a grid, so boxes in the same
+     * group often have coplanar faces that are optimized together. The same parameters always
+     * create the same source.
+     *
+     * @param parts amount of groups to create.
+     * @param subdivisions amount of quads on each side of the faces of the boxes.
+     * @param seed seed for the positions and sizes of the boxes.
+     */
+    public static String createOBJSource(int parts,int subdivisions,long seed) {
+        Random random = new Random(seed);
+        MeshGenerator generator = new MeshGenerator();
+        StringBuilder source = new StringBuilder("mtllib benchmark.mtl\n");
+        for (int part = 0; part < parts; part++) {
+            generator.vertices.setLength(0);
+            generator.faces.setLength(0);
+            for (int i = 0; i < BOXES_PER_PART; i++) {
+                double[] size = new double[] {1 + random.nextInt(8),1 + random.nextInt(4),1 + random.nextInt(8)};
+                double[] center = new double[] {random.nextInt(20) - 10,size[1] / 2,random.nextInt(20) - 10};
+                generator.addBox(center,size,subdivisions);
+            }
+
+            source.append("g Part").append(part).append("\n");
+            source.append(generator.vertices);
+            source.append("usemtl Material").append(part % 3).append("\n");
+            source.append(generator.faces);
+        }
+
+        return source.toString();
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Benchmarks reading OBJs and grouping the triangles into coplanar sets.
+ *
+ * @author: agent
+ * @date: 10/17/2026
+ */
+
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import wavefront.OBJReader;
+import wavefront.OBJTriangle;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput,Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3,time = 2)
+@Measurement(iterations = 5,time = 2)
+@Fork(1)
+public class ReaderBenchmark {
+    @Param({"10","100"})
+    public int parts;
+
+    @Param({"1","4"})
+    public int subdivisions;
+
+    private byte[] objSource;
+    private OBJReader objReader;
+
+    /**
+     * Creates the OBJ to read.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        this.objSource = MeshGenerator.createOBJSource(this.parts,this.subdivisions,1).getBytes(StandardCharsets.UTF_8);
+        this.objReader = new OBJReader(ByteBuffer.wrap(this.objSource));
+    }
+
+    /**
+     * Benchmarks parsing the OBJ.
+     */
+    @Benchmark
+    public OBJReader parse() {
+        return new OBJReader(ByteBuffer.wrap(this.objSource));
+    }
+
+    /**
+     * Benchmarks grouping the triangles of the OBJ into coplanar sets.
+     */
+    @Benchmark
+    public HashMap<String,ArrayList<ArrayList<OBJTriangle>>> getTriangles() {
+        return this.objReader.getTriangles();
+    }
+}
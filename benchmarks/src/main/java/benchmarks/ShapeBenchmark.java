@@ -0,0 +1,185 @@
+/*
+ * Benchmarks the stages that optimize the coplanar sets of triangles. Each
+ * benchmark runs the stage on every coplanar set of the mesh, like OBJOptimizer.
+ *
+ * @author: agent
+ * @date: 10/17/2026
+ */
+
+package benchmarks;
+
+import geometry.Line;
+import geometry.Shape;
+import geometry.Triangle;
+import geometry.Triangle3D;
+import modeloptimizer.PointLocalizer;
+import modeloptimizer.ShapeCreator;
+import modeloptimizer.ShapeFiller;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import wavefront.OBJReader;
+import wavefront.OBJTriangle;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput,Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3,time = 2)
+@Measurement(iterations = 5,time = 2)
+@Fork(1)
+public class ShapeBenchmark {
+    @Param({"10","100"})
+    public int parts;
+
+    @Param({"1","4"})
+    public int subdivisions;
+
+    @Param({"ANGLE_COVERAGE","EDGE_COUNT"})
+    public ShapeCreator.BoundaryMode boundaryMode;
+
+    private ArrayList<PointLocalizer> localizers;
+    private ArrayList<ArrayList<Triangle3D>> triangles3D;
+    private ArrayList<ArrayList<Triangle>> triangles2D;
+    private ArrayList<ArrayList<ArrayList<Line>>> shapeLines;
+    private ArrayList<ArrayList<Line>> drawLines;
+
+    /**
+     * Creates the inputs of each stage from the outputs of the previous stage.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        byte[] objSource = MeshGenerator.createOBJSource(this.parts,this.subdivisions,1).getBytes(StandardCharsets.UTF_8);
+        HashMap<String,ArrayList<ArrayList<OBJTriangle>>> faces = new OBJReader(ByteBuffer.wrap(objSource)).getTriangles();
+
+        this.localizers = new ArrayList<>();
+        this.triangles3D = new ArrayList<>();
+        this.triangles2D = new ArrayList<>();
+        this.shapeLines = new ArrayList<>();
+        this.drawLines = new ArrayList<>();
+        for (ArrayList<ArrayList<OBJTriangle>> group : faces.values()) {
+            for (ArrayList<OBJTriangle> triangleSet : group) {
+                // Remove zero width triangles like OBJOptimizer.
+                ArrayList<Triangle3D> baseTriangles = new ArrayList<>();
+                for (OBJTriangle triangle : triangleSet) {
+                    if (triangle.area != 0.00) {
+                        baseTriangles.add(triangle);
+                    }
+                }
+                if (baseTriangles.isEmpty()) {
+                    continue;
+                }
+
+                PointLocalizer localizer = new PointLocalizer(baseTriangles.get(0));
+                ArrayList<Triangle> localSpaceTriangles = localizer.convertTrianglesTo2D(baseTriangles);
+                ArrayList<Shape> shapes = new ShapeCreator(this.boundaryMode).getShapesFromTriangles(localSpaceTriangles);
+                ArrayList<ArrayList<Line>> lines = new ArrayList<>();
+                for (Shape shape : shapes) {
+                    lines.add(shape.lines);
+                }
+
+                this.localizers.add(localizer);
+                this.triangles3D.add(baseTriangles);
+                this.triangles2D.add(localSpaceTriangles);
+                this.shapeLines.add(lines);
+                this.drawLines.add(ShapeFiller.getDrawLinesFromShapes(shapes));
+            }
+        }
+    }
+
+    /**
+     * Creates new shapes from the lines of the shapes. Shapes store data for checking points
+     * the first time they are used, so new shapes are used for each invocation.
+     *
+     * @param lines lines of the shapes.
+     */
+    private static ArrayList<Shape> createShapes(ArrayList<ArrayList<Line>> lines) {
+        ArrayList<Shape> shapes = new ArrayList<>();
+        for (ArrayList<Line> shapeLines : lines) {
+            shapes.add(new Shape(shapeLines));
+        }
+
+        return shapes;
+    }
+
+    /**
+     * Benchmarks converting the triangles to 2D.
+     *
+     * @param blackhole blackhole to consume the results.
+     */
+    @Benchmark
+    public void convertTrianglesTo2D(Blackhole blackhole) {
+        for (int i = 0; i < this.localizers.size(); i++) {
+            blackhole.consume(this.localizers.get(i).convertTrianglesTo2D(this.triangles3D.get(i)));
+        }
+    }
+
+    /**
+     * Benchmarks creating the boundary shapes of the triangles.
+     *
+     * @param blackhole blackhole to consume the results.
+     */
+    @Benchmark
+    public void getShapesFromTriangles(Blackhole blackhole) {
+        for (ArrayList<Triangle> triangles : this.triangles2D) {
+            blackhole.consume(new ShapeCreator(this.boundaryMode).getShapesFromTriangles(triangles));
+        }
+    }
+
+    /**
+     * Benchmarks creating the lines that fill the shapes.
+     *
+     * @param blackhole blackhole to consume the results.
+     */
+    @Benchmark
+    public void getDrawLinesFromShapes(Blackhole blackhole) {
+        for (ArrayList<ArrayList<Line>> lines : this.shapeLines) {
+            blackhole.consume(ShapeFiller.getDrawLinesFromShapes(createShapes(lines)));
+        }
+    }
+
+    /**
+     * Benchmarks creating triangles from the lines that fill the shapes.
+     *
+     * @param blackhole blackhole to consume the results.
+     */
+    @Benchmark
+    public void getTrianglesFromLines(Blackhole blackhole) {
+        for (ArrayList<Line> lines : this.drawLines) {
+            blackhole.consume(ShapeFiller.getTrianglesFromLines(lines));
+        }
+    }
+
+    /**
+     * Benchmarks triangulating the shapes. Shapes that can't be triangulated, like overlapping
+     * boxes with crossing boundaries, are still attempted since OBJOptimizer also attempts them.
+     *
+     * @param blackhole blackhole to consume the results.
+     */
+    @Benchmark
+    public void getTrianglesFromShapes(Blackhole blackhole) {
+        for (ArrayList<ArrayList<Line>> lines : this.shapeLines) {
+            try {
+                blackhole.consume(ShapeFiller.getTrianglesFromShapes(createShapes(lines)));
+            } catch (IllegalStateException e) {
+                blackhole.consume(e);
+            }
+        }
+    }
+
+    /**
+     * Benchmarks converting the triangles back to 3D.
+     *
+     * @param blackhole blackhole to consume the results.
+     */
+    @Benchmark
+    public void convertTrianglesTo3D(Blackhole blackhole) {
+        for (int i = 0; i < this.localizers.size(); i++) {
+            blackhole.consume(this.localizers.get(i).convertTrianglesTo3D(this.triangles2D.get(i)));
+        }
+    }
+}
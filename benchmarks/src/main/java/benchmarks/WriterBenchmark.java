@@ -0,0 +1,91 @@
+/*
+ * Benchmarks merging the triangles and writing the OBJ.
+ *
+ * @author: agent
+ * @date: 10/17/2026
+ */
+
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import wavefront.MeshStore;
+import wavefront.OBJReader;
+import wavefront.OBJTokenizer;
+import wavefront.OBJTriangle;
+import wavefront.OBJWriter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput,Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3,time = 2)
+@Measurement(iterations = 5,time = 2)
+@Fork(1)
+public class WriterBenchmark {
+    @Param({"10","100"})
+    public int parts;
+
+    @Param({"1","4"})
+    public int subdivisions;
+
+    private MeshStore mesh;
+    private OBJWriter objWriter;
+    private HashMap<String,ArrayList<OBJTriangle>> mergedFaces;
+
+
+
+    /**
+     * Triangles to merge. New triangles are created for each invocation since merging changes the triangles.
+     */
+    @State(Scope.Thread)
+    public static class MergeInput {
+        private HashMap<String,ArrayList<ArrayList<OBJTriangle>>> faces;
+
+        /**
+         * Creates the triangles to merge.
+         *
+         * @param benchmark benchmark to get the mesh from.
+         */
+        @Setup(Level.Invocation)
+        public void setup(WriterBenchmark benchmark) {
+            this.faces = new OBJReader(benchmark.mesh).getTriangles();
+        }
+    }
+
+
+
+    /**
+     * Creates the OBJ and the merged faces to write.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        byte[] objSource = MeshGenerator.createOBJSource(this.parts,this.subdivisions,1).getBytes(StandardCharsets.UTF_8);
+        this.mesh = OBJReader.parse(new OBJTokenizer(ByteBuffer.wrap(objSource)));
+        OBJReader objReader = new OBJReader(this.mesh);
+        this.objWriter = new OBJWriter(objReader);
+        this.mergedFaces = this.objWriter.mergeTriangles(objReader.getTriangles());
+    }
+
+    /**
+     * Benchmarks merging the triangles.
+     *
+     * @param input triangles to merge.
+     */
+    @Benchmark
+    public HashMap<String,ArrayList<OBJTriangle>> mergeTriangles(MergeInput input) {
+        return this.objWriter.mergeTriangles(input.faces);
+    }
+
+    /**
+     * Benchmarks creating the source of the OBJ.
+     */
+    @Benchmark
+    public String getOBJSource() {
+        return this.objWriter.getOBJSource(this.mergedFaces);
+    }
+}
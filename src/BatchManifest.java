@@ -0,0 +1,232 @@
+/*
+ * Stores the OBJs optimized by previous batches so unchanged files can be
+ * skipped. Each source is stored with the SHA-256 hash and size of its
+ * contents and the version of the optimizer that created the output.
+ *
+ * @author: agent
+ * @date: 10/17/2026
+ */
+
+import wavefront.MeshCache;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class BatchManifest {
+    public static String HEADER = "# sha256\tsize\tversion\tpath";
+
+
+
+    /**
+     * Entry of an optimized source.
+     */
+    public static class ManifestEntry {
+        public String hash;
+        public long size;
+        public String version;
+
+        /**
+         * Creates a ManifestEntry.
+         *
+         * @param hash SHA-256 hash of the source.
+         * @param size size of the source in bytes.
+         * @param version version of the optimizer that created the output.
+         */
+        public ManifestEntry(String hash,long size,String version) {
+            this.hash = hash;
+            this.size = size;
+            this.version = version;
+        }
+    }
+
+
+
+    private File manifestFile;
+    private File directory;
+    private String version;
+    private TreeMap<String,ManifestEntry> entries;
+    private HashMap<File,ManifestEntry> pendingEntries;
+
+    /**
+     * Creates a BatchManifest. Use BatchManifest.load to read an existing manifest.
+     *
+     * @param manifestFile file the manifest is stored in.
+     * @param directory directory the paths of the sources are relative to.
+     * @param version version of the optimizer, including the settings that change the outputs.
+     */
+    public BatchManifest(File manifestFile,File directory,String version) {
+        this.manifestFile = manifestFile;
+        this.directory = directory;
+        this.version = version;
+        this.entries = new TreeMap<>();
+        this.pendingEntries = new HashMap<>();
+    }
+
+    /**
+     * Reads a manifest. Returns an empty manifest if the file doesn't exist.
+     * Lines that can't be read are ignored, which causes the sources to be optimized again.
+     *
+     * @param manifestFile file the manifest is stored in.
+     * @param directory directory the paths of the sources are relative to.
+     * @param version version of the optimizer, including the settings that change the outputs.
+     * @throws IOException if the manifest can't be read.
+     */
+    public static BatchManifest load(File manifestFile,File directory,String version) throws IOException {
+        BatchManifest manifest = new BatchManifest(manifestFile,directory,version);
+        if (!manifestFile.isFile()) {
+            return manifest;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(manifestFile.toPath(),StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                String[] fields = line.split("\t",4);
+                if (fields.length != 4) {
+                    continue;
+                }
+                try {
+                    manifest.entries.put(fields[3],new ManifestEntry(fields[0],Long.parseLong(fields[1]),fields[2]));
+                } catch (NumberFormatException e) {
+                    // Ignore the line.
+                }
+            }
+        }
+
+        return manifest;
+    }
+
+    /**
+     * Returns the SHA-256 hash of a file as hexadecimal.
+     *
+     * @param file file to hash.
+     * @throws IOException if the file can't be read.
+     */
+    public static String getHash(File file) throws IOException {
+        return MeshCache.getHex(MeshCache.getHash(file));
+    }
+
+    /**
+     * Returns the path of a source relative to the directory, with / as the separator.
+     *
+     * @param file source to get the path of.
+     */
+    public String getPath(File file) {
+        String path = this.directory.getAbsoluteFile().toPath().relativize(file.getAbsoluteFile().toPath()).toString();
+        return path.replace(File.separatorChar,'/');
+    }
+
+    /**
+     * Returns whether a source is unchanged since it was last optimized. A source is unchanged if the
+     * size, hash, and optimizer version match the manifest and the output still exists. The hash of
+     * a changed source is kept so it isn't read again when the source is marked as optimized.
+     *
+     * @param file source to check.
+     * @throws IOException if the source can't be read.
+     */
+    public boolean isUpToDate(File file) throws IOException {
+        long size = file.length();
+        ManifestEntry entry = this.entries.get(this.getPath(file));
+        if (entry != null && (entry.size != size || !entry.version.equals(this.version) || !BatchOptimizer.getOptimizedFile(file).isFile())) {
+            entry = null;
+        }
+
+        String hash = getHash(file);
+        if (entry != null && entry.hash.equals(hash)) {
+            return true;
+        }
+        this.pendingEntries.put(file,new ManifestEntry(hash,size,this.version));
+        return false;
+    }
+
+    /**
+     * Returns the sources that changed since they were last optimized. Sources that
+     * can't be read are returned so the failure is reported when optimizing them.
+     *
+     * @param files sources to check.
+     */
+    public List<File> getChangedFiles(List<File> files) {
+        ArrayList<File> changedFiles = new ArrayList<>();
+        for (File file : files) {
+            try {
+                if (!this.isUpToDate(file)) {
+                    changedFiles.add(file);
+                }
+            } catch (IOException e) {
+                changedFiles.add(file);
+            }
+        }
+
+        return changedFiles;
+    }
+
+    /**
+     * Stores that a source was optimized. The hash from when the source was checked is used,
+     * so a source changed while it was being optimized is optimized again in the next batch.
+     * Sources that no longer exist are removed instead.
+     *
+     * @param file source that was optimized.
+     * @throws IOException if the source can't be read.
+     */
+    public void markOptimized(File file) throws IOException {
+        ManifestEntry entry = this.pendingEntries.remove(file);
+        if (!file.isFile()) {
+            this.entries.remove(this.getPath(file));
+            return;
+        }
+        if (entry == null) {
+            entry = new ManifestEntry(getHash(file),file.length(),this.version);
+        }
+        this.entries.put(this.getPath(file),entry);
+    }
+
+    /**
+     * Removes a source so it is optimized in the next batch, like when it failed to optimize.
+     *
+     * @param file source to remove.
+     */
+    public void remove(File file) {
+        this.pendingEntries.remove(file);
+        this.entries.remove(this.getPath(file));
+    }
+
+    /**
+     * Removes the sources that no longer exist.
+     */
+    public void removeMissingFiles() {
+        this.entries.keySet().removeIf(path -> !new File(this.directory,path).isFile());
+    }
+
+    /**
+     * Writes the manifest. It is written to a temporary file first so an
+     * interrupted batch doesn't leave a partially written manifest.
+     *
+     * @throws IOException if the manifest can't be written.
+     */
+    public void save() throws IOException {
+        File temporaryFile = new File(this.manifestFile.getPath() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temporaryFile.toPath(),StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (Map.Entry<String,ManifestEntry> entry : this.entries.entrySet()) {
+                ManifestEntry manifestEntry = entry.getValue();
+                writer.write(manifestEntry.hash + "\t" + manifestEntry.size + "\t" + manifestEntry.version + "\t" + entry.getKey());
+                writer.newLine();
+            }
+        }
+        Files.move(temporaryFile.toPath(),this.manifestFile.toPath(),StandardCopyOption.REPLACE_EXISTING);
+    }
+}
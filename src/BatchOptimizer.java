@@ -5,44 +5,368 @@
  * @date: 6/10/2018
  */
 
+import modeloptimizer.ShapeCache;
+import modeloptimizer.ShapeCreator;
+import wavefront.MetricsReport;
 import wavefront.OBJOptimizer;
+import wavefront.OBJReader;
+import wavefront.OptimizerMetrics;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 public class BatchOptimizer {
     public static String DEFAULT_DIRECTROY = "Meshes";
     public static String EXTENSION = ".obj";
     public static String OPTIMIZED_FILE_ENDING = "_optimized.obj";
+    public static String OPTIMIZED_MESH_ENDING = "_optimized.mesh";
+    public static String MANIFEST_FILE_NAME = "optimizer-manifest.tsv";
+    public static String MESH_CACHE_DIRECTORY = ".meshcache";
+    public static String MESH_CACHE_ENDING = ".meshstore";
+    public static int shapeParallelism = 1;
+    public static ShapeCreator.BoundaryMode boundaryMode = ShapeCreator.BoundaryMode.ANGLE_COVERAGE;
+    public static File reportFile = null;
+    public static boolean incremental = false;
+    public static int shapeCacheSize = ShapeCache.DEFAULT_MAX_ENTRIES;
+    public static boolean meshCache = false;
+    public static OutputFormat outputFormat = OutputFormat.OBJ;
+    public static boolean quantizeMeshes = false;
+    private static ShapeCache shapeCache = null;
+    private static ForkJoinPool shapePool = null;
+
+
+
+    /**
+     * Formats of the optimized files.
+     * OBJ writes text OBJs next to the sources.
+     * MESH writes Roblox binary meshes (version 2.00) next to the sources.
+     */
+    public enum OutputFormat {
+        OBJ,
+        MESH,
+    }
+
+    /**
+     * Result of optimizing a file.
+     */
+    public static class BatchResult {
+        public File file;
+        public long fileSize;
+        public double elapsedSeconds;
+        public OptimizerMetrics metrics;
+        public Throwable failure;
+
+        /**
+         * Creates a BatchResult.
+         *
+         * @param file file that was optimized.
+         */
+        public BatchResult(File file) {
+            this.file = file;
+            this.fileSize = file.length();
+        }
+    }
+
+
+
+    /**
+     * Returns whether a file is an OBJ that can be optimized. Outputs of the optimizer are not optimized again.
+     *
+     * @param file file to check.
+     */
+    public static boolean isOBJFile(File file) {
+        if (!file.exists() || file.isDirectory()) {
+            return false;
+        }
+
+        String fileName = file.getName().toLowerCase();
+        return fileName.endsWith(EXTENSION) && !fileName.endsWith(OPTIMIZED_FILE_ENDING);
+    }
+
+    /**
+     * Returns the file the optimized OBJ or mesh of a file is written to.
+     *
+     * @param file file to optimize.
+     */
+    public static File getOptimizedFile(File file) {
+        String fileName = file.getName();
+        String baseName = fileName.substring(0,fileName.length() - EXTENSION.length());
+        return new File(file.getParentFile(),baseName + (outputFormat == OutputFormat.MESH ? OPTIMIZED_MESH_ENDING : OPTIMIZED_FILE_ENDING));
+    }
 
     /**
-     * Optimizes a given OBJ file and creates an output in the same directory.
+     * Returns the file the parsed mesh of a file is cached in. The cached meshes are
+     * stored in a directory next to the file.
      *
      * @param file file to optimize.
      */
-    public static void optimizeFile(File file) {
+    public static File getMeshCacheFile(File file) {
+        return new File(new File(file.getParentFile(),MESH_CACHE_DIRECTORY),file.getName() + MESH_CACHE_ENDING);
+    }
+
+    /**
+     * Returns the version stored in the manifest for the outputs. It includes the
+     * settings that change the outputs, so changing them optimizes the files again.
+     */
+    public static String getOptimizerVersion() {
+        return OBJOptimizer.VERSION + "-" + boundaryMode.name().toLowerCase() + (outputFormat == OutputFormat.MESH ? (quantizeMeshes ? "-mesh-quantized" : "-mesh") : "") + (OBJReader.WELD_EPSILON > 0 ? "-weld-" + OBJReader.WELD_EPSILON : "");
+    }
+
+    /**
+     * Returns the cache of filled shapes shared by the files of the batch, or null if it is disabled.
+     */
+    public static synchronized ShapeCache getShapeCache() {
+        if (shapeCache == null && shapeCacheSize > 0) {
+            shapeCache = new ShapeCache(shapeCacheSize);
+        }
+
+        return shapeCache;
+    }
+
+    /**
+     * Returns the pool the shapes of every file are optimized on, or null if shapeParallelism is 1.
+     * The pool is shared so optimizing files at once doesn't start shapeParallelism threads for
+     * each file, and is kept for later batches.
+     */
+    public static synchronized ForkJoinPool getShapePool() {
+        if (shapePool == null && shapeParallelism > 1) {
+            shapePool = new ForkJoinPool(shapeParallelism);
+        }
+
+        return shapePool;
+    }
+
+    /**
+     * Optimizes a given OBJ file and creates an OBJ or mesh in the same directory.
+     * Returns the metrics of optimizing the file, or null if it isn't an OBJ.
+     *
+     * @param file file to optimize.
+     */
+    public static OptimizerMetrics optimizeFile(File file) {
         // Determine if the file is an OBJ.
-        if (file.exists() && !file.isDirectory()) {
-            String fileName = file.getName();
-            String baseName = fileName.substring(0,fileName.length() - EXTENSION.length());
-            String extention = fileName.substring(fileName.length() - EXTENSION.length()).toLowerCase();
-
-            // Optimize the OBJ.
-            if (extention.equals(EXTENSION)) {
-                long startTime = System.currentTimeMillis();
-                File targetFile = new File(file.getParent() + "\\" + baseName + OPTIMIZED_FILE_ENDING);
-
-                OBJOptimizer parser = new OBJOptimizer(file);
-                parser.writeOBJToFile(targetFile);
-
-                // Get elapsed time.
-                long endTime = System.currentTimeMillis();
-                System.out.println("Mesh \"" + fileName + "\" parsed in " + ((endTime - startTime) / 1000.0) + " seconds");
+        if (!isOBJFile(file)) {
+            return null;
+        }
+
+        // Optimize the OBJ.
+        long startTime = System.currentTimeMillis();
+        File targetFile = getOptimizedFile(file);
+
+        OBJOptimizer parser = (meshCache ? new OBJOptimizer(file,getMeshCacheFile(file)) : new OBJOptimizer(file));
+        parser.setParallelism(shapeParallelism);
+        parser.setPool(getShapePool());
+        parser.setBoundaryMode(boundaryMode);
+        parser.setShapeCache(getShapeCache());
+        if (outputFormat == OutputFormat.MESH) {
+            parser.writeMeshToFile(targetFile,quantizeMeshes);
+        } else {
+            parser.writeOBJToFile(targetFile);
+        }
+
+        // Get elapsed time.
+        long endTime = System.currentTimeMillis();
+        OptimizerMetrics metrics = parser.getMetrics();
+        System.out.println("Mesh \"" + file.getName() + "\" parsed in " + ((endTime - startTime) / 1000.0) + " seconds" + (metrics.unprocessedLines > 0 ? " (" + metrics.unprocessedLines + " lines not processed)" : ""));
+        return metrics;
+    }
+
+    /**
+     * Optimizes a given OBJ file and returns the result. Failures are stored in the result instead of thrown.
+     *
+     * @param file file to optimize.
+     */
+    public static BatchResult optimizeFileWithResult(File file) {
+        BatchResult result = new BatchResult(file);
+        long startTime = System.nanoTime();
+        try {
+            result.metrics = optimizeFile(file);
+        } catch (Throwable e) {
+            result.failure = e;
+        }
+        result.elapsedSeconds = (System.nanoTime() - startTime) / 1000000000.0;
+
+        return result;
+    }
+
+    /**
+     * Adds the OBJs in the given directory and subdirectories to a list.
+     *
+     * @param directory directory to scan.
+     * @param files list to add the files to.
+     */
+    public static void collectFiles(File directory,List<File> files) {
+        if (directory.isDirectory()) {
+            File directoryFiles[] = directory.listFiles();
+            if (directoryFiles != null) {
+                for (File file : directoryFiles) {
+                    if (file.isDirectory()) {
+                        collectFiles(file,files);
+                    } else if (isOBJFile(file)) {
+                        files.add(file);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Optimizes a list of OBJs in parallel using a work stealing pool. Each file is optimized
+     * independently, so the outputs are the same as optimizing them one at a time.
+     *
+     * @param files files to optimize.
+     * @param parallelism maximum amount of files to optimize at once.
+     */
+    public static List<BatchResult> optimizeFilesInParallel(List<File> files,int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return optimizeFilesInParallel(files,pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Optimizes a list of OBJs in parallel using an existing pool. The pool isn't shut down,
+     * so it can be used for later batches.
+     *
+     * @param files files to optimize.
+     * @param pool pool to optimize the files in.
+     */
+    public static List<BatchResult> optimizeFilesInParallel(List<File> files,ForkJoinPool pool) {
+        ArrayList<Callable<BatchResult>> tasks = new ArrayList<>();
+        for (File file : files) {
+            tasks.add(() -> optimizeFileWithResult(file));
+        }
+
+        // Run the tasks and collect the results.
+        ArrayList<BatchResult> results = new ArrayList<>();
+        try {
+            for (Future<BatchResult> future : pool.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Batch optimization was interrupted.",e);
+        }
+
+        return results;
+    }
+
+    /**
+     * Prints the failures and throughput of a batch.
+     *
+     * @param results results of the optimized files.
+     * @param elapsedSeconds total time of the batch.
+     */
+    public static void printSummary(List<BatchResult> results,double elapsedSeconds) {
+        int failedFiles = 0;
+        long totalBytes = 0;
+        double totalFileSeconds = 0;
+        for (BatchResult result : results) {
+            totalBytes += result.fileSize;
+            totalFileSeconds += result.elapsedSeconds;
+            if (result.failure != null) {
+                failedFiles += 1;
+                System.out.println("Mesh \"" + result.file.getName() + "\" failed: " + result.failure);
             }
         }
+
+        double megabytes = totalBytes / (1024.0 * 1024.0);
+        System.out.println("Optimized " + (results.size() - failedFiles) + " of " + results.size() + " meshes (" + String.format("%.2f",megabytes) + " MB) in " + elapsedSeconds + " seconds");
+        if (elapsedSeconds > 0) {
+            System.out.println("Throughput: " + String.format("%.2f",results.size() / elapsedSeconds) + " meshes/second, " + String.format("%.2f",megabytes / elapsedSeconds) + " MB/second, " + String.format("%.2f",totalFileSeconds / elapsedSeconds) + "x speedup over the summed mesh times");
+        }
     }
 
     /**
-     * Scans the given directory and optimizes OBJs.
+     * Optimizes the OBJs that changed since the last incremental batch. The OBJs that were optimized
+     * are stored in a manifest in the directory, and OBJs that failed are optimized again in the next batch.
+     *
+     * @param directory directory the OBJs are in.
+     * @param files files to optimize if they changed.
+     * @param parallelism maximum amount of files to optimize at once.
+     */
+    public static List<BatchResult> optimizeChangedFiles(File directory,List<File> files,int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return optimizeChangedFiles(directory,files,pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Optimizes the OBJs that changed since the last incremental batch using an existing pool.
+     *
+     * @param directory directory the OBJs are in.
+     * @param files files to optimize if they changed.
+     * @param pool pool to optimize the files in. It isn't shut down.
+     */
+    public static List<BatchResult> optimizeChangedFiles(File directory,List<File> files,ForkJoinPool pool) {
+        try {
+            BatchManifest manifest = BatchManifest.load(new File(directory,MANIFEST_FILE_NAME),directory,getOptimizerVersion());
+            List<File> changedFiles = manifest.getChangedFiles(files);
+            System.out.println("Skipping " + (files.size() - changedFiles.size()) + " of " + files.size() + " meshes that are unchanged");
+
+            // Optimize the changed files and store them in the manifest. Files that
+            // can't be read after being optimized are optimized again in the next batch.
+            List<BatchResult> results = optimizeFilesInParallel(changedFiles,pool);
+            for (BatchResult result : results) {
+                if (result.failure == null) {
+                    try {
+                        manifest.markOptimized(result.file);
+                    } catch (IOException e) {
+                        manifest.remove(result.file);
+                    }
+                } else {
+                    manifest.remove(result.file);
+                }
+            }
+            manifest.removeMissingFiles();
+            manifest.save();
+
+            return results;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read or write the manifest.",e);
+        }
+    }
+
+    /**
+     * Writes the metrics of a batch as a JSON report.
+     *
+     * @param results results of the optimized files.
+     * @param elapsedSeconds total time of the batch.
+     * @param file file to write the report to.
+     */
+    public static void writeReport(List<BatchResult> results,double elapsedSeconds,File file) {
+        MetricsReport report = new MetricsReport();
+        report.elapsedSeconds = elapsedSeconds;
+        for (BatchResult result : results) {
+            if (result.failure != null) {
+                report.addFailure(result.file.getPath(),result.failure);
+            } else if (result.metrics != null) {
+                result.metrics.name = result.file.getPath();
+                report.addFile(result.metrics);
+            }
+        }
+
+        try {
+            report.writeToFile(file);
+            System.out.println("Wrote report to " + file.getPath());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Scans the given directory and optimizes OBJs. Files that can't be read or
+     * written are printed and skipped.
      *
      * @param directory directory to scan.
      */
@@ -54,17 +378,108 @@ public class BatchOptimizer {
                     if (file.isDirectory()) {
                         scanDirectory(file);
                     } else {
-                        optimizeFile(file);
+                        try {
+                            optimizeFile(file);
+                        } catch (UncheckedIOException e) {
+                            System.out.println("Mesh \"" + file.getName() + "\" failed: " + e.getCause());
+                        }
                     }
                 }
             }
         }
     }
 
+    /**
+     * Runs the batch optimizer and then watches the directory, optimizing OBJs as they are exported
+     * until the thread is interrupted. The pools, shape cache, and compiled code are kept between
+     * batches. The OBJs are stored in the incremental manifest, so unchanged OBJs are skipped.
+     *
+     * @param parallelism amount of files to optimize at once.
+     */
+    public static void runWatchMode(int parallelism) {
+        File directory = new File(DEFAULT_DIRECTROY);
+        if (!directory.exists()) {
+            directory.mkdir();
+        }
+        if (!directory.isDirectory()) {
+            throw new RuntimeException(DEFAULT_DIRECTROY + " already exists but isn't a directory.");
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try (BatchWatcher watcher = new BatchWatcher(directory.toPath())) {
+            // Optimize the files that changed while the directory wasn't watched.
+            runWatchBatch(directory,watcher.getAllFiles(),pool);
+            System.out.println("Watching " + directory.getPath() + " for changes");
+
+            while (!Thread.currentThread().isInterrupted()) {
+                List<File> changedFiles = watcher.takeChangedFiles();
+                runWatchBatch(directory,changedFiles,pool);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to watch " + DEFAULT_DIRECTROY + ".",e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Optimizes the files of a watch mode batch that changed and prints the summary. If the
+     * batch fails, like when the manifest can't be written, the failure is printed so the
+     * directory is still watched.
+     *
+     * @param directory directory the OBJs are in.
+     * @param files files to optimize if they changed.
+     * @param pool pool to optimize the files in.
+     */
+    private static void runWatchBatch(File directory,List<File> files,ForkJoinPool pool) {
+        long startTime = System.nanoTime();
+        List<BatchResult> results;
+        try {
+            results = optimizeChangedFiles(directory,files,pool);
+        } catch (RuntimeException e) {
+            System.out.println("Batch failed: " + e + (e.getCause() != null ? " (" + e.getCause() + ")" : ""));
+            return;
+        }
+        double elapsedSeconds = (System.nanoTime() - startTime) / 1000000000.0;
+        if (!results.isEmpty()) {
+            printSummary(results,elapsedSeconds);
+            if (reportFile != null) {
+                writeReport(results,elapsedSeconds,reportFile);
+            }
+        }
+    }
+
+    /**
+     * Runs a daemon that optimizes OBJs sent over a loopback socket until the process is stopped.
+     *
+     * @param port port to listen on.
+     * @param parallelism amount of OBJs to optimize at once.
+     */
+    public static void runDaemon(int port,int parallelism) {
+        try (OptimizerDaemon daemon = new OptimizerDaemon(port,parallelism,OptimizerDaemon.DEFAULT_CACHE_BYTES)) {
+            System.out.println("Listening on port " + daemon.getPort());
+            daemon.run();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to run the daemon on port " + port + ".",e);
+        }
+    }
+
     /**
      * Runs batch optimizer.
      */
     public static void runBatchOptimizer() {
+        runBatchOptimizer(1);
+    }
+
+    /**
+     * Runs batch optimizer.
+     *
+     * @param parallelism amount of files to optimize at once. If it is 1 and there is no report file and
+     *                    the batch isn't incremental, the files are optimized on the current thread.
+     */
+    public static void runBatchOptimizer(int parallelism) {
         // Find directory and create it if it doesn't exist.
         File file = new File(DEFAULT_DIRECTROY);
         if (!file.exists()) {
@@ -76,13 +491,209 @@ public class BatchOptimizer {
 
         // Run recursive scan and optimize OBJs.
         if (file.exists()) {
-            scanDirectory(file);
+            if (parallelism > 1 || reportFile != null || incremental) {
+                long startTime = System.nanoTime();
+                ArrayList<File> files = new ArrayList<>();
+                collectFiles(file,files);
+                List<BatchResult> results = (incremental ? optimizeChangedFiles(file,files,parallelism) : optimizeFilesInParallel(files,parallelism));
+                double elapsedSeconds = (System.nanoTime() - startTime) / 1000000000.0;
+                printSummary(results,elapsedSeconds);
+                if (reportFile != null) {
+                    writeReport(results,elapsedSeconds,reportFile);
+                }
+            } else {
+                scanDirectory(file);
+            }
         } else {
             throw new RuntimeException(DEFAULT_DIRECTROY + " doesn't exist and wasn't created.");
         }
     }
 
+    /**
+     * Prints the options of the batch optimizer.
+     */
+    private static void printUsage() {
+        System.out.println("Usage: java BatchOptimizer [options]");
+        System.out.println("  --threads <count>           optimize that many files at once (0 for every processor)");
+        System.out.println("  --shape-threads <count>     optimize that many shapes of a file at once (0 for every processor)");
+        System.out.println("  --boundaries <mode>         angle-coverage (default) or edge-count");
+        System.out.println("  --report <file>             write the metrics of each file to a JSON file");
+        System.out.println("  --incremental               only optimize the files that changed");
+        System.out.println("  --shape-cache <entries>     amount of filled shapes to reuse (0 to fill every shape)");
+        System.out.println("  --mesh-cache                store the parsed OBJs in .meshcache folders");
+        System.out.println("  --format <format>           obj (default) or mesh");
+        System.out.println("  --quantize                  round the normals and texture coordinates of meshes");
+        System.out.println("  --weld <distance>           weld positions closer than the distance");
+        System.out.println("  --watch                     keep optimizing the OBJs that change");
+        System.out.println("  --daemon                    optimize OBJs sent by OptimizerClient");
+        System.out.println("  --port <port>               port of the daemon (default " + OptimizerDaemon.DEFAULT_PORT + ")");
+    }
+
+    /**
+     * Returns the value after an option. Throws an IllegalArgumentException if there is none.
+     *
+     * @param args command line arguments.
+     * @param index index of the option.
+     */
+    private static String getOptionValue(String[] args,int index) {
+        if (index + 1 >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[index] + ".");
+        }
+
+        return args[index + 1];
+    }
+
+    /**
+     * Returns the value of an option as a whole number. Throws an IllegalArgumentException if it isn't one.
+     *
+     * @param option name of the option.
+     * @param value value of the option.
+     */
+    static int parseInteger(String option,String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value \"" + value + "\" for " + option + ", expected a whole number.");
+        }
+    }
+
+    /**
+     * Returns the value of an option as a port. Throws an IllegalArgumentException if it isn't one.
+     *
+     * @param option name of the option.
+     * @param value value of the option.
+     */
+    static int parsePort(String option,String value) {
+        int port = parseInteger(option,value);
+        if (port < 0 || port > 65535) {
+            throw new IllegalArgumentException("Invalid value \"" + value + "\" for " + option + ", expected a port from 0 to 65535.");
+        }
+
+        return port;
+    }
+
+    /**
+     * Returns the value of an option as a number. Throws an IllegalArgumentException if it isn't one.
+     *
+     * @param option name of the option.
+     * @param value value of the option.
+     */
+    private static double parseNumber(String option,String value) {
+        try {
+            double number = Double.parseDouble(value);
+            if (!Double.isNaN(number) && !Double.isInfinite(number)) {
+                return number;
+            }
+        } catch (NumberFormatException e) {
+            // Handled below.
+        }
+
+        throw new IllegalArgumentException("Invalid value \"" + value + "\" for " + option + ", expected a number.");
+    }
+
+    /**
+     * Returns the value of an option as a constant of an enum, ignoring the case and with
+     * dashes for underscores. Throws an IllegalArgumentException if there is no constant.
+     *
+     * @param type enum of the constants.
+     * @param option name of the option.
+     * @param value value of the option.
+     */
+    private static <T extends Enum<T>> T parseEnum(Class<T> type,String option,String value) {
+        String name = value.toUpperCase().replace('-','_');
+        ArrayList<String> validValues = new ArrayList<>();
+        for (T constant : type.getEnumConstants()) {
+            if (constant.name().equals(name)) {
+                return constant;
+            }
+            validValues.add(constant.name().toLowerCase().replace('_','-'));
+        }
+
+        throw new IllegalArgumentException("Invalid value \"" + value + "\" for " + option + ", expected one of " + String.join(", ",validValues) + ".");
+    }
+
+    /**
+     * Runs the batch optimizer. "--threads <count>" optimizes that many files at once and
+     * "--shape-threads <count>" optimizes that many shapes of a file at once, with 0 using
+     * every available processor. "--boundaries <mode>" sets how the boundaries of the shapes
+     * are found, either "angle-coverage" (default) or "edge-count". "--report <file>" writes the
+     * time and memory of each stage of each file to a JSON file. "--incremental" only optimizes
+     * the files that changed since the last incremental batch. "--shape-cache <entries>" sets how many
+     * filled shapes are kept to reuse for repeated shapes, with 0 filling every shape. "--mesh-cache"
+     * stores the parsed OBJs so unchanged OBJs are read without parsing them again. "--format <format>"
+     * sets the format of the outputs, either "obj" (default) or "mesh" for Roblox binary meshes, and
+     * "--quantize" rounds the normals and texture coordinates of the meshes so more vertices are combined.
+     * "--weld <distance>" welds positions closer than the distance when reading the OBJs.
+     * "--watch" keeps running and optimizes the OBJs that change, once they stop being written to.
+     * "--daemon" optimizes OBJs sent by OptimizerClient to the loopback port set by "--port <port>"
+     * instead of the OBJs in the directory, optimizing up to the "--threads" count at once.
+     * If an option is unknown or has an invalid value, the options are printed instead.
+     *
+     * @param args command line arguments.
+     */
     public static void main(String[] args) {
-        runBatchOptimizer();
+        int parallelism = 1;
+        boolean watch = false;
+        boolean daemon = false;
+        int port = OptimizerDaemon.DEFAULT_PORT;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("--threads")) {
+                    parallelism = parseInteger(args[i],getOptionValue(args,i));
+                    if (parallelism <= 0) {
+                        parallelism = Runtime.getRuntime().availableProcessors();
+                    }
+                    i++;
+                } else if (args[i].equals("--shape-threads")) {
+                    shapeParallelism = parseInteger(args[i],getOptionValue(args,i));
+                    if (shapeParallelism <= 0) {
+                        shapeParallelism = Runtime.getRuntime().availableProcessors();
+                    }
+                    i++;
+                } else if (args[i].equals("--boundaries")) {
+                    boundaryMode = parseEnum(ShapeCreator.BoundaryMode.class,args[i],getOptionValue(args,i));
+                    i++;
+                } else if (args[i].equals("--report")) {
+                    reportFile = new File(getOptionValue(args,i));
+                    i++;
+                } else if (args[i].equals("--shape-cache")) {
+                    shapeCacheSize = Math.max(0,parseInteger(args[i],getOptionValue(args,i)));
+                    i++;
+                } else if (args[i].equals("--format")) {
+                    outputFormat = parseEnum(OutputFormat.class,args[i],getOptionValue(args,i));
+                    i++;
+                } else if (args[i].equals("--quantize")) {
+                    quantizeMeshes = true;
+                } else if (args[i].equals("--mesh-cache")) {
+                    meshCache = true;
+                } else if (args[i].equals("--incremental")) {
+                    incremental = true;
+                } else if (args[i].equals("--weld")) {
+                    OBJReader.WELD_EPSILON = Math.max(0,parseNumber(args[i],getOptionValue(args,i)));
+                    i++;
+                } else if (args[i].equals("--watch")) {
+                    watch = true;
+                } else if (args[i].equals("--daemon")) {
+                    daemon = true;
+                } else if (args[i].equals("--port")) {
+                    port = parsePort(args[i],getOptionValue(args,i));
+                    i++;
+                } else {
+                    throw new IllegalArgumentException("Unknown option \"" + args[i] + "\".");
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            printUsage();
+            return;
+        }
+
+        if (daemon) {
+            runDaemon(port,parallelism);
+        } else if (watch) {
+            runWatchMode(parallelism);
+        } else {
+            runBatchOptimizer(parallelism);
+        }
     }
 }
@@ -0,0 +1,254 @@
+/*
+ * Watches a directory of OBJs and its subdirectories for OBJs that are
+ * created or changed. Changed OBJs are returned once they haven't changed
+ * for a short time, so OBJs that are still being exported aren't read.
+ *
+ * @author: agent
+ * @date: 10/17/2026
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class BatchWatcher implements AutoCloseable {
+    public static long DEBOUNCE_MILLIS = 1000;
+
+
+
+    /**
+     * File that changed and is waiting to stop changing.
+     */
+    private static class PendingFile {
+        public long changeTime;
+        public long size;
+        public long lastModified;
+
+        /**
+         * Creates a PendingFile.
+         *
+         * @param file file that changed.
+         */
+        public PendingFile(File file) {
+            this.update(file);
+        }
+
+        /**
+         * Stores the current size and modified time of the file, and restarts the wait.
+         *
+         * @param file file that changed.
+         */
+        public void update(File file) {
+            this.changeTime = System.nanoTime();
+            this.size = file.length();
+            this.lastModified = file.lastModified();
+        }
+
+        /**
+         * Returns whether the size or modified time of the file changed since it was stored.
+         *
+         * @param file file to check.
+         */
+        public boolean hasChanged(File file) {
+            return file.length() != this.size || file.lastModified() != this.lastModified;
+        }
+    }
+
+
+
+    private Path directory;
+    private WatchService watchService;
+    private HashMap<WatchKey,Path> watchedDirectories;
+    private LinkedHashMap<File,PendingFile> pendingFiles;
+
+    /**
+     * Creates a BatchWatcher and starts watching the directory.
+     *
+     * @param directory directory to watch.
+     * @throws IOException if the directory can't be watched.
+     */
+    public BatchWatcher(Path directory) throws IOException {
+        this.directory = directory;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.watchedDirectories = new HashMap<>();
+        this.pendingFiles = new LinkedHashMap<>();
+        this.watchDirectory(directory);
+    }
+
+    /**
+     * Starts watching a directory and its subdirectories. The directories of the mesh caches aren't watched.
+     *
+     * @param directory directory to watch.
+     * @throws IOException if the directory can't be watched.
+     */
+    private void watchDirectory(Path directory) throws IOException {
+        Files.walkFileTree(directory,new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path subdirectory,BasicFileAttributes attributes) throws IOException {
+                if (subdirectory.getFileName() != null && subdirectory.getFileName().toString().equals(BatchOptimizer.MESH_CACHE_DIRECTORY)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+
+                WatchKey key = subdirectory.register(watchService,StandardWatchEventKinds.ENTRY_CREATE,StandardWatchEventKinds.ENTRY_MODIFY,StandardWatchEventKinds.ENTRY_DELETE);
+                watchedDirectories.put(key,subdirectory);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Returns the OBJs in the directory and its subdirectories.
+     */
+    public List<File> getAllFiles() {
+        ArrayList<File> files = new ArrayList<>();
+        BatchOptimizer.collectFiles(this.directory.toFile(),files);
+        return files;
+    }
+
+    /**
+     * Adds a changed OBJ, or restarts the wait if it is already waiting.
+     *
+     * @param file file that changed.
+     */
+    private void addPendingFile(File file) {
+        PendingFile pendingFile = this.pendingFiles.get(file);
+        if (pendingFile == null) {
+            this.pendingFiles.put(file,new PendingFile(file));
+        } else {
+            pendingFile.update(file);
+        }
+    }
+
+    /**
+     * Handles the events of a watched directory.
+     *
+     * @param key key of the directory with the events.
+     * @throws IOException if a created directory can't be watched.
+     */
+    private void handleEvents(WatchKey key) throws IOException {
+        Path watchedDirectory = this.watchedDirectories.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            // Add every OBJ if events were lost.
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || watchedDirectory == null) {
+                for (File file : this.getAllFiles()) {
+                    this.addPendingFile(file);
+                }
+                continue;
+            }
+
+            Path path = watchedDirectory.resolve((Path) event.context());
+            File file = path.toFile();
+            if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                this.pendingFiles.remove(file);
+            } else if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                // Watch the new directory and add the OBJs that were created before it was watched.
+                this.watchDirectory(path);
+                ArrayList<File> files = new ArrayList<>();
+                BatchOptimizer.collectFiles(file,files);
+                for (File newFile : files) {
+                    this.addPendingFile(newFile);
+                }
+            } else if (BatchOptimizer.isOBJFile(file)) {
+                this.addPendingFile(file);
+            }
+        }
+
+        // Stop watching the directory if it was deleted.
+        if (!key.reset()) {
+            this.watchedDirectories.remove(key);
+        }
+    }
+
+    /**
+     * Removes and returns the OBJs that stopped changing. An OBJ stopped changing if there were no events for it
+     * and its size and modified time are the same as DEBOUNCE_MILLIS ago. OBJs that were deleted are removed.
+     */
+    private List<File> removeUnchangedFiles() {
+        ArrayList<File> unchangedFiles = new ArrayList<>();
+        long debounceNanos = TimeUnit.MILLISECONDS.toNanos(DEBOUNCE_MILLIS);
+        long currentTime = System.nanoTime();
+        Iterator<Map.Entry<File,PendingFile>> iterator = this.pendingFiles.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<File,PendingFile> entry = iterator.next();
+            File file = entry.getKey();
+            PendingFile pendingFile = entry.getValue();
+            if (currentTime - pendingFile.changeTime < debounceNanos) {
+                continue;
+            }
+
+            if (!file.isFile()) {
+                iterator.remove();
+            } else if (pendingFile.hasChanged(file)) {
+                pendingFile.update(file);
+            } else {
+                unchangedFiles.add(file);
+                iterator.remove();
+            }
+        }
+
+        return unchangedFiles;
+    }
+
+    /**
+     * Returns the time until the next pending OBJ can be checked, in milliseconds.
+     */
+    private long getWaitMillis() {
+        long debounceNanos = TimeUnit.MILLISECONDS.toNanos(DEBOUNCE_MILLIS);
+        long currentTime = System.nanoTime();
+        long waitNanos = debounceNanos;
+        for (PendingFile pendingFile : this.pendingFiles.values()) {
+            waitNanos = Math.min(waitNanos,pendingFile.changeTime + debounceNanos - currentTime);
+        }
+
+        return Math.max(1,TimeUnit.NANOSECONDS.toMillis(waitNanos));
+    }
+
+    /**
+     * Waits for OBJs to change and returns them once they stop changing.
+     *
+     * @throws IOException if a created directory can't be watched.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public List<File> takeChangedFiles() throws IOException, InterruptedException {
+        while (true) {
+            // Wait for an event, or until a pending OBJ can be checked.
+            WatchKey key = (this.pendingFiles.isEmpty() ? this.watchService.take() : this.watchService.poll(this.getWaitMillis(),TimeUnit.MILLISECONDS));
+            while (key != null) {
+                this.handleEvents(key);
+                key = this.watchService.poll();
+            }
+
+            // Return the OBJs that stopped changing.
+            List<File> unchangedFiles = this.removeUnchangedFiles();
+            if (!unchangedFiles.isEmpty()) {
+                return unchangedFiles;
+            }
+        }
+    }
+
+    /**
+     * Stops watching the directory.
+     *
+     * @throws IOException if the watch service can't be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        this.watchService.close();
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Sends OBJs to an OptimizerDaemon on the loopback address and returns
+ * the optimized OBJs. A client keeps its connection open, so it can send
+ * any amount of OBJs without connecting again.
+ *
+ * @author: agent
+ * @date: 10/17/2026
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class OptimizerClient implements AutoCloseable {
+    private Socket socket;
+    private DataInputStream inputStream;
+    private OutputStream outputStream;
+    private String lastStatus;
+
+    /**
+     * Creates an OptimizerClient and connects to the daemon.
+     *
+     * @param port port the daemon is listening on.
+     * @throws IOException if the daemon can't be connected to.
+     */
+    public OptimizerClient(int port) throws IOException {
+        this.socket = new Socket(InetAddress.getLoopbackAddress(),port);
+        this.inputStream = new DataInputStream(new BufferedInputStream(this.socket.getInputStream()));
+        this.outputStream = new BufferedOutputStream(this.socket.getOutputStream());
+    }
+
+    /**
+     * Returns the status of the last response, like "hit" if the result was cached or "miss" if it was optimized.
+     */
+    public String getLastStatus() {
+        return this.lastStatus;
+    }
+
+    /**
+     * Reads a response and returns the bytes.
+     *
+     * @throws IOException if the request failed or the response can't be read.
+     */
+    private byte[] readResponse() throws IOException {
+        String line = OptimizerDaemon.readLine(this.inputStream);
+        if (line == null) {
+            throw new IOException("Connection was closed by the daemon.");
+        } else if (line.startsWith("ERROR ")) {
+            throw new IOException(line.substring("ERROR ".length()));
+        }
+
+        String[] parts = line.split(" ",3);
+        if (parts.length != 3 || !parts[0].equals("OK")) {
+            throw new IOException("Invalid response \"" + line + "\".");
+        }
+        byte[] bytes;
+        try {
+            bytes = new byte[Integer.parseInt(parts[1])];
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid response \"" + line + "\".");
+        }
+        this.inputStream.readFully(bytes);
+        this.lastStatus = parts[2];
+
+        return bytes;
+    }
+
+    /**
+     * Sends the bytes of an OBJ and returns the optimized OBJ.
+     *
+     * @param objSource bytes of the OBJ.
+     * @throws IOException if the OBJ can't be optimized or the daemon can't be reached.
+     */
+    public byte[] optimize(byte[] objSource) throws IOException {
+        this.outputStream.write(("OBJ " + objSource.length + "\n").getBytes(StandardCharsets.UTF_8));
+        this.outputStream.write(objSource);
+        this.outputStream.flush();
+        return this.readResponse();
+    }
+
+    /**
+     * Sends the path of an OBJ and returns the optimized OBJ. The file is read by the daemon.
+     *
+     * @param file file of the OBJ.
+     * @throws IOException if the OBJ can't be optimized or the daemon can't be reached.
+     */
+    public byte[] optimizeFile(File file) throws IOException {
+        this.outputStream.write(("PATH " + file.getAbsolutePath() + "\n").getBytes(StandardCharsets.UTF_8));
+        this.outputStream.flush();
+        return this.readResponse();
+    }
+
+    /**
+     * Returns the cache and latency statistics of the daemon as JSON.
+     *
+     * @throws IOException if the daemon can't be reached.
+     */
+    public String getStats() throws IOException {
+        this.outputStream.write("STATS\n".getBytes(StandardCharsets.UTF_8));
+        this.outputStream.flush();
+        return new String(this.readResponse(),StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Closes the connection.
+     *
+     * @throws IOException if the connection can't be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        this.socket.close();
+    }
+
+    /**
+     * Optimizes OBJs using a running daemon. "--port <port>" sets the port of the daemon. Each OBJ is
+     * written next to it like the batch optimizer, and the statistics of the daemon are printed at the end.
+     * If the port is invalid, the usage is printed instead.
+     *
+     * @param args command line arguments.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = OptimizerDaemon.DEFAULT_PORT;
+        int firstFile = 0;
+        if (args.length >= 2 && args[0].equals("--port")) {
+            try {
+                port = BatchOptimizer.parsePort(args[0],args[1]);
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage());
+                System.out.println("Usage: java OptimizerClient [--port <port>] <files>");
+                return;
+            }
+            firstFile = 2;
+        }
+
+        try (OptimizerClient client = new OptimizerClient(port)) {
+            for (int i = firstFile; i < args.length; i++) {
+                File file = new File(args[i]);
+                long startTime = System.nanoTime();
+                byte[] result = client.optimize(Files.readAllBytes(file.toPath()));
+                Files.write(BatchOptimizer.getOptimizedFile(file).toPath(),result);
+                System.out.println("Mesh \"" + file.getName() + "\" optimized in " + ((System.nanoTime() - startTime) / 1000000000.0) + " seconds (" + client.getLastStatus() + ")");
+            }
+            System.out.println(client.getStats());
+        }
+    }
+}
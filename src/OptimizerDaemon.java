@@ -0,0 +1,416 @@
+/*
+ * Optimizes OBJs sent over a loopback socket so callers don't start a new
+ * JVM for each OBJ. Results are cached by the SHA-256 hash of the OBJ, and
+ * requests for an OBJ that is already being optimized wait for its result.
+ * The latencies of the requests are stored for the p50 and p99 latencies.
+ *
+ * Requests and responses start with a line of text. "OBJ <length>" is followed
+ * by the bytes of the OBJ, "PATH <path>" optimizes a file that the daemon can
+ * read, and "STATS" returns the cache and latency statistics as JSON. Responses
+ * are "OK <length> <status>" followed by the bytes, or "ERROR <message>".
+ * The lines are UTF-8. A connection can send any amount of requests.
+ *
+ * Up to MAX_CONNECTIONS connections are handled at once, and later connections wait
+ * until one is closed. An OBJ is only read into memory once a permit to optimize is
+ * taken, so the OBJs in memory are limited by the amount of optimizations at once.
+ *
+ * @author: agent
+ * @date: 10/17/2026
+ */
+
+import wavefront.MeshCache;
+import wavefront.MetricsReport;
+import wavefront.OBJOptimizer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+
+public class OptimizerDaemon implements AutoCloseable {
+    public static int DEFAULT_PORT = 7391;
+    public static long DEFAULT_CACHE_BYTES = 256L * 1024 * 1024;
+    public static int MAX_LINE_LENGTH = 8192;
+    public static int MAX_OBJ_LENGTH = 512 * 1024 * 1024;
+    public static int MAX_CONNECTIONS = 64;
+    public static int LATENCY_SAMPLES = 10000;
+
+    private ServerSocket serverSocket;
+    private ExecutorService connectionPool;
+    private Semaphore optimizations;
+    private LinkedHashMap<String,byte[]> results;
+    private long maxCacheBytes;
+    private long cachedBytes;
+    private HashMap<String,FutureTask<byte[]>> pendingResults;
+    private long[] latencies;
+    private int latencyCount;
+    private long requests;
+    private long hits;
+    private long misses;
+    private long failures;
+
+    /**
+     * Creates an OptimizerDaemon and starts listening on the loopback address.
+     *
+     * @param port port to listen on, or 0 to use any free port.
+     * @param maxOptimizations maximum amount of OBJs to read and optimize at once. Cached results are returned without optimizing.
+     * @param maxCacheBytes maximum total size of the cached results in bytes.
+     * @throws IOException if the port can't be used.
+     */
+    public OptimizerDaemon(int port,int maxOptimizations,long maxCacheBytes) throws IOException {
+        this.serverSocket = new ServerSocket(port,50,InetAddress.getLoopbackAddress());
+        this.connectionPool = Executors.newFixedThreadPool(MAX_CONNECTIONS);
+        this.optimizations = new Semaphore(maxOptimizations);
+        this.results = new LinkedHashMap<>(16,0.75f,true);
+        this.maxCacheBytes = maxCacheBytes;
+        this.pendingResults = new HashMap<>();
+        this.latencies = new long[LATENCY_SAMPLES];
+    }
+
+    /**
+     * Returns the port the daemon is listening on.
+     */
+    public int getPort() {
+        return this.serverSocket.getLocalPort();
+    }
+
+    /**
+     * Reads a line of UTF-8 text, or returns null if the stream ended before the line started.
+     *
+     * @param inputStream stream to read from.
+     * @throws IOException if the line is too long or the stream can't be read.
+     */
+    public static String readLine(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        while (true) {
+            int character = inputStream.read();
+            if (character == -1) {
+                return (line.size() == 0 ? null : new String(line.toByteArray(),StandardCharsets.UTF_8));
+            } else if (character == '\n') {
+                return new String(line.toByteArray(),StandardCharsets.UTF_8);
+            } else if (line.size() >= MAX_LINE_LENGTH) {
+                throw new IOException("Line is longer than " + MAX_LINE_LENGTH + " bytes.");
+            } else if (character != '\r') {
+                line.write(character);
+            }
+        }
+    }
+
+    /**
+     * Skips bytes of a stream.
+     *
+     * @param inputStream stream to skip the bytes of.
+     * @param length amount of bytes to skip.
+     * @throws IOException if the stream ends before the bytes are skipped.
+     */
+    private static void skipFully(DataInputStream inputStream,long length) throws IOException {
+        while (length > 0) {
+            int skipped = inputStream.skipBytes((int) Math.min(length,Integer.MAX_VALUE));
+            if (skipped <= 0) {
+                if (inputStream.read() == -1) {
+                    throw new EOFException();
+                }
+                skipped = 1;
+            }
+            length -= skipped;
+        }
+    }
+
+    /**
+     * Stores a result in the cache. The least recently used results are removed until the
+     * results fit in the maximum size. Results larger than the maximum size aren't stored.
+     *
+     * @param key key of the result.
+     * @param result bytes of the result.
+     */
+    private synchronized void cacheResult(String key,byte[] result) {
+        if (result.length > this.maxCacheBytes) {
+            return;
+        }
+
+        byte[] replacedResult = this.results.put(key,result);
+        this.cachedBytes += result.length - (replacedResult != null ? replacedResult.length : 0);
+        Iterator<byte[]> cachedResults = this.results.values().iterator();
+        while (this.cachedBytes > this.maxCacheBytes) {
+            this.cachedBytes -= cachedResults.next().length;
+            cachedResults.remove();
+        }
+    }
+
+    /**
+     * Writes a successful response.
+     *
+     * @param outputStream stream to write to.
+     * @param status status of the response.
+     * @param bytes bytes of the response.
+     */
+    private static void writeResponse(OutputStream outputStream,String status,byte[] bytes) throws IOException {
+        outputStream.write(("OK " + bytes.length + " " + status + "\n").getBytes(StandardCharsets.UTF_8));
+        outputStream.write(bytes);
+        outputStream.flush();
+    }
+
+    /**
+     * Writes a failed response.
+     *
+     * @param outputStream stream to write to.
+     * @param message message of the failure.
+     */
+    private static void writeError(OutputStream outputStream,String message) throws IOException {
+        outputStream.write(("ERROR " + String.valueOf(message).replace('\n',' ').replace('\r',' ') + "\n").getBytes(StandardCharsets.UTF_8));
+        outputStream.flush();
+    }
+
+    /**
+     * Stores the latency of a request. Only the latest LATENCY_SAMPLES latencies are kept.
+     *
+     * @param latencyNanos latency of the request.
+     * @param cached whether the result was cached.
+     * @param failed whether the request failed.
+     */
+    private synchronized void addRequest(long latencyNanos,boolean cached,boolean failed) {
+        this.latencies[this.latencyCount % this.latencies.length] = latencyNanos;
+        this.latencyCount += 1;
+        this.requests += 1;
+        if (failed) {
+            this.failures += 1;
+        } else if (cached) {
+            this.hits += 1;
+        } else {
+            this.misses += 1;
+        }
+    }
+
+    /**
+     * Returns the cache and latency statistics as JSON.
+     */
+    public synchronized String getStats() {
+        double[] sortedLatencies = new double[Math.min(this.latencyCount,this.latencies.length)];
+        for (int i = 0; i < sortedLatencies.length; i++) {
+            sortedLatencies[i] = this.latencies[i] / 1000000.0;
+        }
+        Arrays.sort(sortedLatencies);
+
+        return "{\"requests\": " + this.requests + ", \"hits\": " + this.hits + ", \"misses\": " + this.misses + ", \"failures\": " + this.failures
+                + ", \"cachedResults\": " + this.results.size() + ", \"cachedBytes\": " + this.cachedBytes + ", \"p50Millis\": " + MetricsReport.getPercentile(sortedLatencies,50)
+                + ", \"p99Millis\": " + MetricsReport.getPercentile(sortedLatencies,99) + "}";
+    }
+
+    /**
+     * Reads the bytes of an OBJ file.
+     *
+     * @param file file to read.
+     * @throws IOException if the file can't be read or is longer than MAX_OBJ_LENGTH.
+     */
+    private static byte[] readFile(File file) throws IOException {
+        if (Files.size(file.toPath()) > MAX_OBJ_LENGTH) {
+            throw new IOException("OBJ is longer than " + MAX_OBJ_LENGTH + " bytes.");
+        }
+        return Files.readAllBytes(file.toPath());
+    }
+
+    /**
+     * Optimizes an OBJ.
+     *
+     * @param source bytes of the OBJ.
+     */
+    private static byte[] optimize(byte[] source) {
+        OBJOptimizer optimizer = new OBJOptimizer(ByteBuffer.wrap(source));
+        optimizer.setParallelism(BatchOptimizer.shapeParallelism);
+        optimizer.setPool(BatchOptimizer.getShapePool());
+        optimizer.setBoundaryMode(BatchOptimizer.boundaryMode);
+        optimizer.setShapeCache(BatchOptimizer.getShapeCache());
+        return optimizer.getOptimizedOBJSource().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the optimized OBJ of a request, using the cached result if the OBJ was already optimized.
+     * The key of the cache includes the settings that change the output.
+     *
+     * @param source bytes of the OBJ.
+     * @param cached array to store whether the result was cached or optimized by another request in.
+     * @throws InterruptedException if the thread is interrupted while waiting for another request to optimize the OBJ.
+     * @throws ExecutionException if the OBJ can't be optimized.
+     */
+    private byte[] getResult(byte[] source,boolean[] cached) throws InterruptedException, ExecutionException {
+        String hash = MeshCache.getHex(MeshCache.getHash(ByteBuffer.wrap(source)));
+        String key = hash + "-" + BatchOptimizer.getOptimizerVersion();
+
+        // Get the cached result, or the optimization of the OBJ if it is already being optimized by another request.
+        FutureTask<byte[]> task;
+        boolean runTask = false;
+        synchronized (this) {
+            byte[] result = this.results.get(key);
+            if (result != null) {
+                cached[0] = true;
+                return result;
+            }
+            task = this.pendingResults.get(key);
+            if (task == null) {
+                task = new FutureTask<>(() -> optimize(source));
+                this.pendingResults.put(key,task);
+                runTask = true;
+            }
+        }
+        cached[0] = !runTask;
+
+        // Optimize the OBJ and cache the result.
+        if (runTask) {
+            task.run();
+            synchronized (this) {
+                this.pendingResults.remove(key);
+                if (!task.isCancelled()) {
+                    try {
+                        this.cacheResult(key,task.get());
+                    } catch (ExecutionException e) {
+                        // The failure is returned below.
+                    }
+                }
+            }
+        }
+        return task.get();
+    }
+
+    /**
+     * Handles a request and writes the response. OBJs longer than MAX_OBJ_LENGTH are
+     * skipped and return an error. The OBJ is read after taking a permit to optimize, and
+     * files are only read once so the result is cached for the bytes that were optimized.
+     *
+     * @param request line of the request.
+     * @param inputStream stream to read the OBJ from.
+     * @param outputStream stream to write the response to.
+     * @throws IOException if the request can't be read or the response can't be written, which ends the connection.
+     */
+    private void handleRequest(String request,DataInputStream inputStream,OutputStream outputStream) throws IOException {
+        long startTime = System.nanoTime();
+        String[] parts = request.split(" ",2);
+        if (parts[0].equals("STATS")) {
+            writeResponse(outputStream,"stats",this.getStats().getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+
+        // Read the request.
+        int length = 0;
+        File file = null;
+        if (parts[0].equals("OBJ") && parts.length == 2) {
+            try {
+                length = Integer.parseInt(parts[1].trim());
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid length \"" + parts[1] + "\".");
+            }
+            if (length < 0) {
+                throw new IOException("Length of the OBJ is negative.");
+            } else if (length > MAX_OBJ_LENGTH) {
+                skipFully(inputStream,length);
+                this.addRequest(System.nanoTime() - startTime,false,true);
+                writeError(outputStream,"OBJ is longer than " + MAX_OBJ_LENGTH + " bytes.");
+                return;
+            }
+        } else if (parts[0].equals("PATH") && parts.length == 2) {
+            file = new File(parts[1]);
+        } else {
+            this.addRequest(System.nanoTime() - startTime,false,true);
+            writeError(outputStream,"Unknown request \"" + request + "\".");
+            return;
+        }
+
+        // Read and optimize the OBJ while holding a permit. Failures to read the file or optimize
+        // are returned to the client, but failing to read the sent OBJ ends the connection.
+        try {
+            this.optimizations.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to read the OBJ.");
+        }
+        boolean[] cached = new boolean[1];
+        byte[] result;
+        try {
+            byte[] source = null;
+            if (file == null) {
+                source = new byte[length];
+                inputStream.readFully(source);
+            }
+            try {
+                result = this.getResult(file != null ? readFile(file) : source,cached);
+            } catch (Exception e) {
+                this.addRequest(System.nanoTime() - startTime,false,true);
+                writeError(outputStream,(e instanceof ExecutionException ? e.getCause() : e).toString());
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                return;
+            }
+        } finally {
+            this.optimizations.release();
+        }
+        writeResponse(outputStream,(cached[0] ? "hit" : "miss"),result);
+        this.addRequest(System.nanoTime() - startTime,cached[0],false);
+    }
+
+    /**
+     * Handles the requests of a connection until it is closed.
+     *
+     * @param socket socket of the connection.
+     */
+    private void handleConnection(Socket socket) {
+        try (Socket connection = socket) {
+            DataInputStream inputStream = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+            OutputStream outputStream = new BufferedOutputStream(connection.getOutputStream());
+            String request;
+            while (!Thread.currentThread().isInterrupted() && (request = readLine(inputStream)) != null) {
+                this.handleRequest(request,inputStream,outputStream);
+            }
+        } catch (IOException e) {
+            // The connection was closed or sent an invalid request.
+        }
+    }
+
+    /**
+     * Accepts connections until the daemon is closed. Each connection is handled on its own thread.
+     */
+    public void run() {
+        while (!this.serverSocket.isClosed()) {
+            try {
+                Socket socket = this.serverSocket.accept();
+                this.connectionPool.execute(() -> this.handleConnection(socket));
+            } catch (SocketException e) {
+                // The daemon was closed.
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Stops accepting connections. Open connections are handled until the clients close them.
+     *
+     * @throws IOException if the socket can't be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        this.serverSocket.close();
+        this.connectionPool.shutdown();
+    }
+}
@@ -41,7 +41,7 @@ public class Line {
      * Updates the length of the line.
      */
     public void updateLength() {
-        this.length = end.subtract(start).magnitude;
+        this.length = Vector2.distance(this.end,this.start);
     }
 
     /**
@@ -70,8 +70,8 @@ public class Line {
      * @param point the point to calculate for.
      */
     public double getPositionOnLine(Vector2 point) {
-        double distanceFromStart = (point.subtract(this.start)).magnitude / this.length;
-        double distanceFromEnd = (point.subtract(this.end)).magnitude / this.length;
+        double distanceFromStart = Vector2.distance(point,this.start) / this.length;
+        double distanceFromEnd = Vector2.distance(point,this.end) / this.length;
 
         if (distanceFromStart + distanceFromEnd > 1 && distanceFromStart < distanceFromEnd) {
             return -distanceFromStart;
@@ -102,22 +102,50 @@ public class Line {
     }
 
     /**
-     * Returns the point where the given line intersects, or null if there is none.
+     * Returns the position of the intersection with the given line on this line, from 0 at the
+     * start to 1 at the end, or NaN if the lines don't intersect.
      *
      * @param otherLine the line to check for an intersection.
      */
-    public Vector2 getIntersectionPoint(Line otherLine) {
-        Vector2 deltaOtherLine = this.end.subtract(this.start);
-        Vector2 deltaMainLine = otherLine.end.subtract(otherLine.start);
-
-        double mainCross = deltaMainLine.cross(deltaOtherLine);
-        double coefficient1 = this.start.subtract(otherLine.start).cross(deltaOtherLine)/mainCross;
-        double coefficient2 = this.start.subtract(otherLine.start).cross(deltaMainLine)/mainCross;
+    private double getIntersectionPosition(Line otherLine) {
+        double deltaOtherLineX = this.end.x - this.start.x;
+        double deltaOtherLineY = this.end.y - this.start.y;
+        double deltaMainLineX = otherLine.end.x - otherLine.start.x;
+        double deltaMainLineY = otherLine.end.y - otherLine.start.y;
+        double deltaStartX = this.start.x - otherLine.start.x;
+        double deltaStartY = this.start.y - otherLine.start.y;
+
+        double mainCross = (deltaMainLineX * deltaOtherLineY) - (deltaMainLineY * deltaOtherLineX);
+        double coefficient1 = ((deltaStartX * deltaOtherLineY) - (deltaStartY * deltaOtherLineX))/mainCross;
+        double coefficient2 = ((deltaStartX * deltaMainLineY) - (deltaStartY * deltaMainLineX))/mainCross;
 
         if (coefficient1 >= 0 && coefficient1 <= 1 && coefficient2 >= 0 && coefficient2 <= 1) {
-            return this.start.lerp(end,coefficient1);
+            return coefficient1;
         }
-        return null;
+        return Double.NaN;
+    }
+
+    /**
+     * Returns whether the given line intersects. The same as getIntersectionPoint not returning
+     * null, but without creating the point.
+     *
+     * @param otherLine the line to check for an intersection.
+     */
+    public boolean intersects(Line otherLine) {
+        return !Double.isNaN(this.getIntersectionPosition(otherLine));
+    }
+
+    /**
+     * Returns the point where the given line intersects, or null if there is none.
+     *
+     * @param otherLine the line to check for an intersection.
+     */
+    public Vector2 getIntersectionPoint(Line otherLine) {
+        double position = this.getIntersectionPosition(otherLine);
+        if (Double.isNaN(position)) {
+            return null;
+        }
+        return this.start.lerp(end,position);
     }
 
     /**
@@ -135,6 +163,14 @@ public class Line {
         return (this.start.equals(otherLine.start) && this.end.equals(otherLine.end)) || (this.start.equals(otherLine.end) && this.end.equals(otherLine.start));
     }
 
+    /**
+     * Returns the hash code of the Line. Lines are equal in either direction, so the hash code is as well.
+     */
+    @Override
+    public int hashCode() {
+        return this.start.hashCode() + this.end.hashCode();
+    }
+
     /**
      * Returns the Line as a string.
      */
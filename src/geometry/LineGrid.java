@@ -0,0 +1,228 @@
+/*
+ * Stores lines in a uniform grid to find the lines that may intersect a line
+ * without comparing every line. Each line is stored in every cell it passes
+ * through, with a small margin so lines touching at the edges of cells are
+ * always in a shared cell. Lines are stored as ids, and the lines found in
+ * multiple cells are only returned once by marking the ids.
+ *
+ * @author: agent
+ * @date: 10/17/2026
+ */
+
+package geometry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class LineGrid {
+    public static int MAX_CELLS_PER_SIDE = 256;
+    private static final double MARGIN_RATIO = 0.000001;
+    private static final int VISIT_STORE = 0;
+    private static final int VISIT_INTERSECT = 1;
+
+    private double minX;
+    private double minY;
+    private double cellWidth;
+    private double cellHeight;
+    private double margin;
+    private int columns;
+    private int rows;
+    private int[][] cells;
+    private int[] cellSizes;
+    private ArrayList<Line> lines;
+    private int[] lineMarks;
+    private int currentMark;
+
+    /**
+     * Creates a LineGrid. Lines outside of the bounds are stored in the closest cells.
+     *
+     * @param minX minimum x coordinate of the lines.
+     * @param minY minimum y coordinate of the lines.
+     * @param maxX maximum x coordinate of the lines.
+     * @param maxY maximum y coordinate of the lines.
+     * @param expectedLines amount of lines expected to be stored, used to determine the amount of cells.
+     */
+    public LineGrid(double minX,double minY,double maxX,double maxY,int expectedLines) {
+        int cellsPerSide = Math.max(1,Math.min(MAX_CELLS_PER_SIDE,(int) Math.ceil(Math.sqrt(expectedLines))));
+        double width = Math.max(maxX - minX,0);
+        double height = Math.max(maxY - minY,0);
+        this.minX = minX;
+        this.minY = minY;
+        this.columns = (width > 0 ? cellsPerSide : 1);
+        this.rows = (height > 0 ? cellsPerSide : 1);
+        this.cellWidth = (width > 0 ? width / this.columns : 1);
+        this.cellHeight = (height > 0 ? height / this.rows : 1);
+        this.margin = Math.max(width,height) * MARGIN_RATIO;
+        this.cells = new int[this.columns * this.rows][];
+        this.cellSizes = new int[this.columns * this.rows];
+        this.lines = new ArrayList<>();
+        this.lineMarks = new int[16];
+    }
+
+    /**
+     * Creates a LineGrid for the bounds of the given lines and stores them.
+     *
+     * @param lines lines to store.
+     * @param expectedLines amount of lines expected to be stored, used to determine the amount of cells.
+     */
+    public static LineGrid fromLines(ArrayList<Line> lines,int expectedLines) {
+        double minX = Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        for (Line line : lines) {
+            minX = Math.min(minX,Math.min(line.start.x,line.end.x));
+            minY = Math.min(minY,Math.min(line.start.y,line.end.y));
+            maxX = Math.max(maxX,Math.max(line.start.x,line.end.x));
+            maxY = Math.max(maxY,Math.max(line.start.y,line.end.y));
+        }
+        if (lines.isEmpty()) {
+            minX = 0;
+            minY = 0;
+            maxX = 0;
+            maxY = 0;
+        }
+
+        LineGrid lineGrid = new LineGrid(minX,minY,maxX,maxY,expectedLines);
+        for (Line line : lines) {
+            lineGrid.add(line);
+        }
+        return lineGrid;
+    }
+
+    /**
+     * Returns the column of an x coordinate, clamped to the grid.
+     *
+     * @param x the x coordinate.
+     */
+    private int getColumn(double x) {
+        return Math.max(0,Math.min(this.columns - 1,(int) Math.floor((x - this.minX) / this.cellWidth)));
+    }
+
+    /**
+     * Returns the row of a y coordinate, clamped to the grid.
+     *
+     * @param y the y coordinate.
+     */
+    private int getRow(double y) {
+        return Math.max(0,Math.min(this.rows - 1,(int) Math.floor((y - this.minY) / this.cellHeight)));
+    }
+
+    /**
+     * Returns the x coordinate of a line at a y coordinate, clamped to the ends of the line.
+     *
+     * @param line line to get the x coordinate of. Must not be horizontal.
+     * @param y the y coordinate.
+     */
+    private static double getXAtY(Line line,double y) {
+        double ratio = Math.max(0,Math.min(1,(y - line.start.y) / (line.end.y - line.start.y)));
+        return line.start.x + ((line.end.x - line.start.x) * ratio);
+    }
+
+    /**
+     * Visits the cells a line passes through. For each row, the columns between the x coordinates
+     * of the line at the top and bottom of the row are visited. Depending on the mode, the line is
+     * stored in the cells (VISIT_STORE) or the lines in the cells are checked for intersections
+     * (VISIT_INTERSECT). Returns true if an intersection was found, which stops visiting the cells.
+     *
+     * @param line line to get the cells of.
+     * @param mode what to do with the cells.
+     * @param lineId id of the line to store.
+     */
+    private boolean visitCells(Line line,int mode,int lineId) {
+        double lineMinX = Math.min(line.start.x,line.end.x);
+        double lineMaxX = Math.max(line.start.x,line.end.x);
+        double lineMinY = Math.min(line.start.y,line.end.y);
+        double lineMaxY = Math.max(line.start.y,line.end.y);
+        int startRow = this.getRow(lineMinY - this.margin);
+        int endRow = this.getRow(lineMaxY + this.margin);
+
+        for (int row = startRow; row <= endRow; row++) {
+            // Get the columns the line passes through in the row. The rows at the edges
+            // also contain the parts of the line outside of the grid.
+            double x1 = lineMinX;
+            double x2 = lineMaxX;
+            if (lineMinY != lineMaxY) {
+                double rowMinY = (row == 0 ? lineMinY : Math.max(lineMinY,this.minY + (row * this.cellHeight) - this.margin));
+                double rowMaxY = (row == this.rows - 1 ? lineMaxY : Math.min(lineMaxY,this.minY + ((row + 1) * this.cellHeight) + this.margin));
+                x1 = getXAtY(line,rowMinY);
+                x2 = getXAtY(line,rowMaxY);
+            }
+            int startColumn = this.getColumn(Math.min(x1,x2) - this.margin);
+            int endColumn = this.getColumn(Math.max(x1,x2) + this.margin);
+
+            for (int column = startColumn; column <= endColumn; column++) {
+                int cellIndex = (row * this.columns) + column;
+                if (mode == VISIT_STORE) {
+                    if (this.cells[cellIndex] == null) {
+                        this.cells[cellIndex] = new int[2];
+                    } else if (this.cellSizes[cellIndex] == this.cells[cellIndex].length) {
+                        this.cells[cellIndex] = Arrays.copyOf(this.cells[cellIndex],this.cells[cellIndex].length * 2);
+                    }
+                    this.cells[cellIndex][this.cellSizes[cellIndex]++] = lineId;
+                    continue;
+                }
+
+                // Check the lines in the cell that weren't already checked.
+                int[] cell = this.cells[cellIndex];
+                for (int i = 0; i < this.cellSizes[cellIndex]; i++) {
+                    int cellLineId = cell[i];
+                    if (this.lineMarks[cellLineId] == this.currentMark) {
+                        continue;
+                    }
+                    this.lineMarks[cellLineId] = this.currentMark;
+
+                    Line cellLine = this.lines.get(cellLineId);
+                    if (!cellLine.canConnect(line) && cellLine.intersects(line)) {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Starts marking the lines for a new query.
+     */
+    private void nextMark() {
+        this.currentMark++;
+        if (this.currentMark == Integer.MAX_VALUE) {
+            Arrays.fill(this.lineMarks,0);
+            this.currentMark = 1;
+        }
+    }
+
+    /**
+     * Adds a line to the grid.
+     *
+     * @param line line to add.
+     */
+    public void add(Line line) {
+        int lineId = this.lines.size();
+        this.lines.add(line);
+        if (lineId >= this.lineMarks.length) {
+            this.lineMarks = Arrays.copyOf(this.lineMarks,this.lineMarks.length * 2);
+        }
+        this.visitCells(line,VISIT_STORE,lineId);
+    }
+
+    /**
+     * Returns whether a stored line intersects the given line, ignoring lines that share an end
+     * with it (Line.canConnect). Stops at the first intersection and doesn't create any objects.
+     *
+     * @param line line to check.
+     */
+    public boolean intersectsLine(Line line) {
+        this.nextMark();
+        return this.visitCells(line,VISIT_INTERSECT,-1);
+    }
+
+    /**
+     * Returns the amount of lines stored.
+     */
+    public int size() {
+        return this.lines.size();
+    }
+}
@@ -9,12 +9,27 @@ package geometry;
 
 import vectors.*;
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.Collections;
+import java.util.Arrays;
 
 public class Shape {
     public ArrayList<Line> lines;
 
+    private boolean prepared;
+    private double minX;
+    private double minY;
+    private double maxY;
+    private double[] lineMinYs;
+    private double[] lineMaxYs;
+    private double[] nodeCenters;
+    private int[] nodeLeft;
+    private int[] nodeRight;
+    private int[] nodeStart;
+    private int[] nodeCount;
+    private int nodeTotal;
+    private int[] linesByMinY;
+    private int[] linesByMaxY;
+    private double[] scratchXs;
+
     /**
      * Creates a shape with a given set of boundary lines.
      *
@@ -25,40 +40,187 @@ public class Shape {
     }
 
     /**
-     * Returns a list of X coordinates that align with the given Y coordinate.
+     * Creates the structures used for checking points. The lines are stored in an interval tree
+     * of their y ranges so only the lines crossing a y coordinate are checked. Called the first time
+     * a point is checked, so the lines must not be changed after checking points.
+     */
+    private void prepare() {
+        int lineCount = this.lines.size();
+        this.lineMinYs = new double[lineCount];
+        this.lineMaxYs = new double[lineCount];
+        this.scratchXs = new double[lineCount];
+        this.minX = Double.MAX_VALUE;
+        this.minY = Double.MAX_VALUE;
+        this.maxY = -Double.MAX_VALUE;
+        for (int i = 0; i < lineCount; i++) {
+            Line line = this.lines.get(i);
+            this.lineMinYs[i] = Math.min(line.start.y,line.end.y);
+            this.lineMaxYs[i] = Math.max(line.start.y,line.end.y);
+            this.minX = Math.min(this.minX,Math.min(line.start.x,line.end.x));
+            this.minY = Math.min(this.minY,this.lineMinYs[i]);
+            this.maxY = Math.max(this.maxY,this.lineMaxYs[i]);
+        }
+
+        // Build the interval tree. Each node has at most half of the lines of the parent,
+        // so there are less nodes than lines.
+        this.nodeCenters = new double[Math.max(1,lineCount)];
+        this.nodeLeft = new int[Math.max(1,lineCount)];
+        this.nodeRight = new int[Math.max(1,lineCount)];
+        this.nodeStart = new int[Math.max(1,lineCount)];
+        this.nodeCount = new int[Math.max(1,lineCount)];
+        this.linesByMinY = new int[lineCount];
+        this.linesByMaxY = new int[lineCount];
+        this.nodeTotal = 0;
+        int[] lineIndexes = new int[lineCount];
+        for (int i = 0; i < lineCount; i++) {
+            lineIndexes[i] = i;
+        }
+        this.buildNode(lineIndexes,new int[1]);
+        this.prepared = true;
+    }
+
+    /**
+     * Builds a node of the interval tree and returns the index of it, or -1 if there are no lines.
      *
-     * @param y the y coordinate to compare.
+     * @param lineIndexes indexes of the lines in the node and its children.
+     * @param storedLines amount of lines stored in the sorted arrays, which is increased by the lines of the node.
      */
-    private ArrayList<Double> getXPointsForY(double y) {
-        HashSet<Double> listOfXs = new HashSet<>();
-
-        // Go through lines and find x coordinates that align with the y.
-        for (Line line : this.lines) {
-            if ((line.start.y <= y && line.end.y >= y) || (line.end.y <= y && line.start.y >= y)) {
-                // Determine x
-                double ratioY = (y - line.start.y) / (line.end.y - line.start.y);
-                double newX = line.start.x + ((line.end.x - line.start.x) * ratioY);
-                listOfXs.add(newX);
+    private int buildNode(int[] lineIndexes,int[] storedLines) {
+        if (lineIndexes.length == 0) {
+            return -1;
+        }
+
+        // Use the median of the ends of the lines as the center.
+        double[] ends = new double[lineIndexes.length * 2];
+        for (int i = 0; i < lineIndexes.length; i++) {
+            ends[i * 2] = this.lineMinYs[lineIndexes[i]];
+            ends[(i * 2) + 1] = this.lineMaxYs[lineIndexes[i]];
+        }
+        Arrays.sort(ends);
+        double center = ends[lineIndexes.length];
+
+        // Split the lines into the lines below, crossing, and above the center.
+        int belowCount = 0;
+        int aboveCount = 0;
+        for (int lineIndex : lineIndexes) {
+            if (this.lineMaxYs[lineIndex] < center) {
+                belowCount++;
+            } else if (this.lineMinYs[lineIndex] > center) {
+                aboveCount++;
+            }
+        }
+        int[] belowLines = new int[belowCount];
+        int[] aboveLines = new int[aboveCount];
+        Integer[] centerLines = new Integer[lineIndexes.length - belowCount - aboveCount];
+        belowCount = 0;
+        aboveCount = 0;
+        int centerCount = 0;
+        for (int lineIndex : lineIndexes) {
+            if (this.lineMaxYs[lineIndex] < center) {
+                belowLines[belowCount++] = lineIndex;
+            } else if (this.lineMinYs[lineIndex] > center) {
+                aboveLines[aboveCount++] = lineIndex;
+            } else {
+                centerLines[centerCount++] = lineIndex;
             }
         }
 
-        // Assemble final list.
-        ArrayList<Double> finalListOfXs = new ArrayList<>(listOfXs);
-        Collections.sort(finalListOfXs);
+        // Store the lines crossing the center sorted by the bottom and by the top.
+        int node = this.nodeTotal++;
+        this.nodeCenters[node] = center;
+        this.nodeStart[node] = storedLines[0];
+        this.nodeCount[node] = centerCount;
+        Arrays.sort(centerLines,(line1,line2) -> Double.compare(this.lineMinYs[line1],this.lineMinYs[line2]));
+        for (int i = 0; i < centerCount; i++) {
+            this.linesByMinY[storedLines[0] + i] = centerLines[i];
+        }
+        Arrays.sort(centerLines,(line1,line2) -> Double.compare(this.lineMaxYs[line2],this.lineMaxYs[line1]));
+        for (int i = 0; i < centerCount; i++) {
+            this.linesByMaxY[storedLines[0] + i] = centerLines[i];
+        }
+        storedLines[0] += centerCount;
 
-        return finalListOfXs;
+        this.nodeLeft[node] = this.buildNode(belowLines,storedLines);
+        this.nodeRight[node] = this.buildNode(aboveLines,storedLines);
+        return node;
+    }
+
+    /**
+     * Stores the x coordinate where a line crosses a y coordinate in the scratch buffer.
+     *
+     * @param lineIndex index of the line.
+     * @param y the y coordinate.
+     * @param xCount amount of x coordinates stored.
+     */
+    private int addXPoint(int lineIndex,double y,int xCount) {
+        Line line = this.lines.get(lineIndex);
+        double ratioY = (y - line.start.y) / (line.end.y - line.start.y);
+        this.scratchXs[xCount] = line.start.x + ((line.end.x - line.start.x) * ratioY);
+        return xCount + 1;
     }
 
     /**
-     * Returns whether the given Vector2 is in the shape.
+     * Stores the x coordinates of the lines that cross the given y coordinate
+     * in the scratch buffer and returns the amount of them.
+     *
+     * @param y the y coordinate to compare.
+     */
+    private int getXPointsForY(double y) {
+        int xCount = 0;
+        int node = (this.nodeTotal > 0 ? 0 : -1);
+        while (node != -1) {
+            int start = this.nodeStart[node];
+            int end = start + this.nodeCount[node];
+            double center = this.nodeCenters[node];
+            if (y < center) {
+                // Lines crossing the center reach y if they start below it.
+                for (int i = start; i < end && this.lineMinYs[this.linesByMinY[i]] <= y; i++) {
+                    xCount = this.addXPoint(this.linesByMinY[i],y,xCount);
+                }
+                node = this.nodeLeft[node];
+            } else if (y > center) {
+                // Lines crossing the center reach y if they end above it.
+                for (int i = start; i < end && this.lineMaxYs[this.linesByMaxY[i]] >= y; i++) {
+                    xCount = this.addXPoint(this.linesByMaxY[i],y,xCount);
+                }
+                node = this.nodeRight[node];
+            } else {
+                for (int i = start; i < end; i++) {
+                    xCount = this.addXPoint(this.linesByMinY[i],y,xCount);
+                }
+                node = -1;
+            }
+        }
+
+        return xCount;
+    }
+
+    /**
+     * Returns whether the given Vector2 is in the shape. X coordinates where multiple lines
+     * cross the y coordinate of the point (like at the corners) are only counted once.
      *
      * @param point Vector2 to check if it is the bounds.
      */
-    public boolean pointInShape(Vector2 point){
-        ArrayList<Double> listOfXs = getXPointsForY(point.y);
+    public synchronized boolean pointInShape(Vector2 point){
+        if (!this.prepared) {
+            this.prepare();
+        }
+
+        // Return false if the point is outside the bounding box.
+        if (!(point.y >= this.minY && point.y <= this.maxY) || point.x <= this.minX) {
+            return false;
+        }
+
+        // Sort the x coordinates and toggle for each distinct one left of the point.
+        int xCount = this.getXPointsForY(point.y);
+        Arrays.sort(this.scratchXs,0,xCount);
         boolean inRegion = false;
+        for (int i = 0; i < xCount; i++) {
+            double x = this.scratchXs[i];
+            if (i > 0 && Double.doubleToLongBits(x) == Double.doubleToLongBits(this.scratchXs[i - 1])) {
+                continue;
+            }
 
-        for (Double x : listOfXs) {
             if (x < point.x) {
                 inRegion = !inRegion;
             }
@@ -66,4 +228,18 @@ public class Shape {
 
         return inRegion;
     }
+
+    /**
+     * Returns whether each of the given points are in the shape.
+     *
+     * @param points points to check.
+     */
+    public synchronized boolean[] pointsInShape(ArrayList<Vector2> points) {
+        boolean[] inShape = new boolean[points.size()];
+        for (int i = 0; i < points.size(); i++) {
+            inShape[i] = this.pointInShape(points.get(i));
+        }
+
+        return inShape;
+    }
 }
@@ -28,9 +28,9 @@ public class Triangle {
         this.point3 = point3;
 
         // Calculate area.
-        double distance1 = point1.subtract(point2).magnitude;
-        double distance2 = point1.subtract(point3).magnitude;
-        double distance3 = point2.subtract(point3).magnitude;
+        double distance1 = Vector2.distance(point1,point2);
+        double distance2 = Vector2.distance(point1,point3);
+        double distance3 = Vector2.distance(point2,point3);
         double semiPerimeter = (distance1 + distance2 + distance3) / 2.00;
         this.area = Math.pow(semiPerimeter * (semiPerimeter - distance1) * (semiPerimeter - distance2) * (semiPerimeter - distance3),0.5);
     }
@@ -58,6 +58,14 @@ public class Triangle {
         return false;
     }
 
+    /**
+     * Returns the hash code of the Triangle. Triangles are equal with the points in any order, so the hash code is as well.
+     */
+    @Override
+    public int hashCode() {
+        return this.point1.hashCode() + this.point2.hashCode() + this.point3.hashCode();
+    }
+
     /**
      * Returns the Triangle as a string.
      */
@@ -35,9 +35,9 @@ public class Triangle3D {
      * Updates the area of the triangle.
      */
     public void updateArea() {
-        double distance1 = point1.subtract(point2).magnitude;
-        double distance2 = point1.subtract(point3).magnitude;
-        double distance3 = point2.subtract(point3).magnitude;
+        double distance1 = Vector3.distance(point1,point2);
+        double distance2 = Vector3.distance(point1,point3);
+        double distance3 = Vector3.distance(point2,point3);
         double semiPerimeter = (distance1 + distance2 + distance3) / 2.00;
         this.area = Math.pow(semiPerimeter * (semiPerimeter - distance1) * (semiPerimeter - distance2) * (semiPerimeter - distance3),0.5);
     }
@@ -0,0 +1,788 @@
+/*
+ * Triangulates shapes with a constrained Delaunay triangulation.
+ *
+ * The points of the shapes are inserted one at a time into a triangle that contains
+ * all of them, flipping edges to keep the triangulation Delaunay. The lines of the
+ * shapes are then forced into the triangulation by flipping the edges they cross.
+ * Triangles are kept if they are inside an odd amount of boundaries, so holes are
+ * removed the same way as Shape.pointInShape. No points are added, so the triangles
+ * only use the points of the shapes.
+ *
+ * @author: agent
+ * @date: 10/17/2026
+ */
+
+package modeloptimizer;
+
+import geometry.Line;
+import geometry.Shape;
+import geometry.Triangle;
+import vectors.Vector2;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+
+public class DelaunayTriangulator {
+    public static double COLLINEAR_EPSILON = 0.0000001;
+    private static int NO_TRIANGLE = -1;
+    private static double SUPER_TRIANGLE_SCALE = 20;
+
+    private ArrayList<Vector2> points;
+    private double[] pointX;
+    private double[] pointY;
+    private int pointCount;
+
+    private int[] triangleVertices;
+    private int[] triangleNeighbors;
+    private int triangleCount;
+    private int[] vertexTriangles;
+    private int lastTriangle;
+    private HashSet<Long> constrainedEdges;
+
+    /**
+     * Creates a DelaunayTriangulator.
+     */
+    public DelaunayTriangulator() {
+        this.points = new ArrayList<>();
+        this.triangleVertices = new int[0];
+        this.triangleNeighbors = new int[0];
+        this.constrainedEdges = new HashSet<>();
+    }
+
+    /**
+     * Returns the orientation of 3 points. Positive if they are counter clockwise,
+     * negative if they are clockwise, and 0 if they are collinear.
+     *
+     * @param point1 first point.
+     * @param point2 second point.
+     * @param point3 third point.
+     */
+    private double orient(int point1,int point2,int point3) {
+        return ((this.pointX[point2] - this.pointX[point1]) * (this.pointY[point3] - this.pointY[point1])) - ((this.pointY[point2] - this.pointY[point1]) * (this.pointX[point3] - this.pointX[point1]));
+    }
+
+    /**
+     * Returns whether a point is inside the circumcircle of a counter clockwise triangle.
+     *
+     * @param point1 first point of the triangle.
+     * @param point2 second point of the triangle.
+     * @param point3 third point of the triangle.
+     * @param point point to check.
+     */
+    private boolean inCircumcircle(int point1,int point2,int point3,int point) {
+        double x = this.pointX[point];
+        double y = this.pointY[point];
+        double deltaX1 = this.pointX[point1] - x;
+        double deltaY1 = this.pointY[point1] - y;
+        double deltaX2 = this.pointX[point2] - x;
+        double deltaY2 = this.pointY[point2] - y;
+        double deltaX3 = this.pointX[point3] - x;
+        double deltaY3 = this.pointY[point3] - y;
+        double length1 = (deltaX1 * deltaX1) + (deltaY1 * deltaY1);
+        double length2 = (deltaX2 * deltaX2) + (deltaY2 * deltaY2);
+        double length3 = (deltaX3 * deltaX3) + (deltaY3 * deltaY3);
+
+        return ((deltaX1 * ((deltaY2 * length3) - (length2 * deltaY3))) - (deltaY1 * ((deltaX2 * length3) - (length2 * deltaX3))) + (length1 * ((deltaX2 * deltaY3) - (deltaY2 * deltaX3)))) > 0;
+    }
+
+    /**
+     * Returns the key of an edge, which is the same for both directions.
+     *
+     * @param point1 first point of the edge.
+     * @param point2 second point of the edge.
+     */
+    private static long getEdgeKey(int point1,int point2) {
+        return ((long) Math.min(point1,point2) << 32) | Math.max(point1,point2);
+    }
+
+    /**
+     * Returns a vertex of a triangle. The index wraps around.
+     *
+     * @param triangle triangle to get the vertex of.
+     * @param index index of the vertex.
+     */
+    private int getVertex(int triangle,int index) {
+        return this.triangleVertices[(triangle * 3) + (index % 3)];
+    }
+
+    /**
+     * Returns the neighbor of a triangle across the edge opposite a vertex. The index wraps around.
+     *
+     * @param triangle triangle to get the neighbor of.
+     * @param index index of the vertex opposite the edge.
+     */
+    private int getNeighbor(int triangle,int index) {
+        return this.triangleNeighbors[(triangle * 3) + (index % 3)];
+    }
+
+    /**
+     * Returns the index of a vertex in a triangle, or -1 if it isn't in the triangle.
+     *
+     * @param triangle triangle to search.
+     * @param vertex vertex to find.
+     */
+    private int getVertexIndex(int triangle,int vertex) {
+        for (int i = 0; i < 3; i++) {
+            if (this.triangleVertices[(triangle * 3) + i] == vertex) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns the index of the edge of a triangle that is shared with a neighbor.
+     *
+     * @param triangle triangle to search.
+     * @param neighbor neighbor to find.
+     */
+    private int getNeighborIndex(int triangle,int neighbor) {
+        for (int i = 0; i < 3; i++) {
+            if (this.triangleNeighbors[(triangle * 3) + i] == neighbor) {
+                return i;
+            }
+        }
+
+        throw new IllegalStateException("Triangle " + neighbor + " is not a neighbor of triangle " + triangle + ".");
+    }
+
+    /**
+     * Sets the vertices and neighbors of a triangle. Vertices must be counter clockwise,
+     * and each neighbor is across the edge opposite the vertex with the same index.
+     *
+     * @param triangle triangle to set.
+     * @param vertex1 first vertex.
+     * @param vertex2 second vertex.
+     * @param vertex3 third vertex.
+     * @param neighbor1 neighbor opposite the first vertex.
+     * @param neighbor2 neighbor opposite the second vertex.
+     * @param neighbor3 neighbor opposite the third vertex.
+     */
+    private void setTriangle(int triangle,int vertex1,int vertex2,int vertex3,int neighbor1,int neighbor2,int neighbor3) {
+        int start = triangle * 3;
+        this.triangleVertices[start] = vertex1;
+        this.triangleVertices[start + 1] = vertex2;
+        this.triangleVertices[start + 2] = vertex3;
+        this.triangleNeighbors[start] = neighbor1;
+        this.triangleNeighbors[start + 1] = neighbor2;
+        this.triangleNeighbors[start + 2] = neighbor3;
+        this.vertexTriangles[vertex1] = triangle;
+        this.vertexTriangles[vertex2] = triangle;
+        this.vertexTriangles[vertex3] = triangle;
+    }
+
+    /**
+     * Adds an empty triangle and returns the index of it.
+     */
+    private int addTriangle() {
+        if ((this.triangleCount + 1) * 3 > this.triangleVertices.length) {
+            this.triangleVertices = Arrays.copyOf(this.triangleVertices,Math.max(this.triangleVertices.length * 2,48));
+            this.triangleNeighbors = Arrays.copyOf(this.triangleNeighbors,Math.max(this.triangleNeighbors.length * 2,48));
+        }
+
+        return this.triangleCount++;
+    }
+
+    /**
+     * Changes the neighbor of a triangle from one triangle to another.
+     *
+     * @param triangle triangle to change. Ignored if it is NO_TRIANGLE.
+     * @param oldNeighbor neighbor to replace.
+     * @param newNeighbor new neighbor.
+     */
+    private void replaceNeighbor(int triangle,int oldNeighbor,int newNeighbor) {
+        if (triangle != NO_TRIANGLE) {
+            this.triangleNeighbors[(triangle * 3) + this.getNeighborIndex(triangle,oldNeighbor)] = newNeighbor;
+        }
+    }
+
+    /**
+     * Flips the edge of a triangle opposite a vertex. The triangle becomes (a,b,d) and
+     * the neighbor becomes (d,c,a), where a is the vertex, (b,c) is the flipped edge, and
+     * d is the vertex of the neighbor opposite the edge.
+     *
+     * @param triangle triangle to flip.
+     * @param index index of the vertex opposite the edge to flip.
+     */
+    private void flip(int triangle,int index) {
+        int neighbor = this.getNeighbor(triangle,index);
+        int neighborIndex = this.getNeighborIndex(neighbor,triangle);
+        int a = this.getVertex(triangle,index);
+        int b = this.getVertex(triangle,index + 1);
+        int c = this.getVertex(triangle,index + 2);
+        int d = this.getVertex(neighbor,neighborIndex);
+        int neighborCA = this.getNeighbor(triangle,index + 1);
+        int neighborAB = this.getNeighbor(triangle,index + 2);
+        int neighborBD = this.getNeighbor(neighbor,neighborIndex + 1);
+        int neighborDC = this.getNeighbor(neighbor,neighborIndex + 2);
+
+        this.setTriangle(triangle,a,b,d,neighborBD,neighbor,neighborAB);
+        this.setTriangle(neighbor,d,c,a,neighborCA,triangle,neighborDC);
+        this.replaceNeighbor(neighborBD,neighbor,triangle);
+        this.replaceNeighbor(neighborCA,triangle,neighbor);
+    }
+
+    /**
+     * Flips edges until the triangles around the edges are Delaunay.
+     *
+     * @param edgesToCheck triangles and vertex indexes opposite the edges to check.
+     */
+    private void legalize(ArrayDeque<int[]> edgesToCheck) {
+        while (!edgesToCheck.isEmpty()) {
+            int[] edge = edgesToCheck.pop();
+            int triangle = edge[0];
+            int index = edge[1];
+            int neighbor = this.getNeighbor(triangle,index);
+            if (neighbor == NO_TRIANGLE || this.constrainedEdges.contains(getEdgeKey(this.getVertex(triangle,index + 1),this.getVertex(triangle,index + 2)))) {
+                continue;
+            }
+
+            int opposite = this.getVertex(neighbor,this.getNeighborIndex(neighbor,triangle));
+            if (this.inCircumcircle(this.getVertex(triangle,0),this.getVertex(triangle,1),this.getVertex(triangle,2),opposite)) {
+                this.flip(triangle,index);
+                edgesToCheck.push(new int[] {triangle,0});
+                edgesToCheck.push(new int[] {neighbor,2});
+            }
+        }
+    }
+
+    /**
+     * Returns the triangle that contains a point by walking from the last triangle.
+     *
+     * @param point point to find.
+     */
+    private int findTriangle(int point) {
+        int triangle = this.lastTriangle;
+        int maxSteps = this.triangleCount * 3;
+        for (int step = 0; step < maxSteps; step++) {
+            // Move to the neighbor if the point is on the other side of an edge. The edge
+            // checked first is rotated so the walk can't circle around the point.
+            int nextTriangle = NO_TRIANGLE;
+            for (int i = 0; i < 3; i++) {
+                int index = i + step;
+                if (this.orient(this.getVertex(triangle,index + 1),this.getVertex(triangle,index + 2),point) < 0) {
+                    nextTriangle = this.getNeighbor(triangle,index);
+                    break;
+                }
+            }
+
+            if (nextTriangle == NO_TRIANGLE) {
+                return triangle;
+            }
+            triangle = nextTriangle;
+        }
+
+        // Search every triangle if the walk didn't finish.
+        for (triangle = 0; triangle < this.triangleCount; triangle++) {
+            if (this.orient(this.getVertex(triangle,0),this.getVertex(triangle,1),point) >= 0 && this.orient(this.getVertex(triangle,1),this.getVertex(triangle,2),point) >= 0 && this.orient(this.getVertex(triangle,2),this.getVertex(triangle,0),point) >= 0) {
+                return triangle;
+            }
+        }
+        throw new IllegalStateException("Point " + this.points.get(point) + " is outside of the triangulation.");
+    }
+
+    /**
+     * Inserts a point into the triangulation.
+     *
+     * @param point point to insert.
+     */
+    private void insertPoint(int point) {
+        int triangle = this.findTriangle(point);
+        this.lastTriangle = triangle;
+
+        // Find if the point is on an edge.
+        int edgeIndex = -1;
+        for (int i = 0; i < 3; i++) {
+            if (this.orient(this.getVertex(triangle,i + 1),this.getVertex(triangle,i + 2),point) == 0) {
+                edgeIndex = i;
+                break;
+            }
+        }
+
+        ArrayDeque<int[]> edgesToCheck = new ArrayDeque<>();
+        if (edgeIndex == -1) {
+            // Split the triangle into 3 triangles.
+            int a = this.getVertex(triangle,0);
+            int b = this.getVertex(triangle,1);
+            int c = this.getVertex(triangle,2);
+            int neighborA = this.getNeighbor(triangle,0);
+            int neighborB = this.getNeighbor(triangle,1);
+            int neighborC = this.getNeighbor(triangle,2);
+            int triangle1 = this.addTriangle();
+            int triangle2 = this.addTriangle();
+
+            this.setTriangle(triangle,point,b,c,neighborA,triangle1,triangle2);
+            this.setTriangle(triangle1,a,point,c,triangle,neighborB,triangle2);
+            this.setTriangle(triangle2,a,b,point,triangle,triangle1,neighborC);
+            this.replaceNeighbor(neighborB,triangle,triangle1);
+            this.replaceNeighbor(neighborC,triangle,triangle2);
+            edgesToCheck.push(new int[] {triangle,0});
+            edgesToCheck.push(new int[] {triangle1,1});
+            edgesToCheck.push(new int[] {triangle2,2});
+        } else {
+            // Split the triangle and the neighbor sharing the edge into 4 triangles.
+            int neighbor = this.getNeighbor(triangle,edgeIndex);
+            int neighborIndex = this.getNeighborIndex(neighbor,triangle);
+            int a = this.getVertex(triangle,edgeIndex);
+            int b = this.getVertex(triangle,edgeIndex + 1);
+            int c = this.getVertex(triangle,edgeIndex + 2);
+            int d = this.getVertex(neighbor,neighborIndex);
+            int neighborCA = this.getNeighbor(triangle,edgeIndex + 1);
+            int neighborAB = this.getNeighbor(triangle,edgeIndex + 2);
+            int neighborBD = this.getNeighbor(neighbor,neighborIndex + 1);
+            int neighborDC = this.getNeighbor(neighbor,neighborIndex + 2);
+            int triangle1 = this.addTriangle();
+            int neighbor1 = this.addTriangle();
+
+            this.setTriangle(triangle,a,b,point,neighbor1,triangle1,neighborAB);
+            this.setTriangle(triangle1,a,point,c,neighbor,neighborCA,triangle);
+            this.setTriangle(neighbor,d,c,point,triangle1,neighbor1,neighborDC);
+            this.setTriangle(neighbor1,d,point,b,triangle,neighborBD,neighbor);
+            this.replaceNeighbor(neighborCA,triangle,triangle1);
+            this.replaceNeighbor(neighborBD,neighbor,neighbor1);
+            edgesToCheck.push(new int[] {triangle,2});
+            edgesToCheck.push(new int[] {triangle1,1});
+            edgesToCheck.push(new int[] {neighbor,2});
+            edgesToCheck.push(new int[] {neighbor1,1});
+        }
+
+        this.legalize(edgesToCheck);
+    }
+
+    /**
+     * Returns the triangle and the index of the first vertex of a directed edge, or null if the edge doesn't exist.
+     *
+     * @param start start vertex of the edge.
+     * @param end end vertex of the edge.
+     */
+    private int[] findEdge(int start,int end) {
+        int firstTriangle = this.vertexTriangles[start];
+        int triangle = firstTriangle;
+        do {
+            int index = this.getVertexIndex(triangle,start);
+            if (this.getVertex(triangle,index + 1) == end) {
+                return new int[] {triangle,index};
+            }
+
+            // Rotate around the vertex.
+            triangle = this.getNeighbor(triangle,index + 1);
+        } while (triangle != firstTriangle && triangle != NO_TRIANGLE);
+
+        return null;
+    }
+
+    /**
+     * Returns whether 2 segments cross at a point that isn't the end of either segment.
+     *
+     * @param start1 start of the first segment.
+     * @param end1 end of the first segment.
+     * @param start2 start of the second segment.
+     * @param end2 end of the second segment.
+     */
+    private boolean segmentsCross(int start1,int end1,int start2,int end2) {
+        return (this.orient(start1,end1,start2) * this.orient(start1,end1,end2) < 0) && (this.orient(start2,end2,start1) * this.orient(start2,end2,end1) < 0);
+    }
+
+    /**
+     * Returns whether a point is on a segment between the ends, assuming it is collinear.
+     *
+     * @param start start of the segment.
+     * @param end end of the segment.
+     * @param point point to check.
+     */
+    private boolean isBetween(int start,int end,int point) {
+        double deltaX = this.pointX[end] - this.pointX[start];
+        double deltaY = this.pointY[end] - this.pointY[start];
+        double position = ((this.pointX[point] - this.pointX[start]) * deltaX) + ((this.pointY[point] - this.pointY[start]) * deltaY);
+        return position > 0 && position < (deltaX * deltaX) + (deltaY * deltaY);
+    }
+
+    /**
+     * Inserts a constraint edge into the triangulation. If the edge passes through another
+     * point, the edge is split at the point.
+     *
+     * @param start start point of the edge.
+     * @param end end point of the edge.
+     */
+    private void insertConstraint(int start,int end) {
+        ArrayDeque<int[]> segments = new ArrayDeque<>();
+        segments.push(new int[] {start,end});
+        while (!segments.isEmpty()) {
+            int[] segment = segments.pop();
+            int segmentStart = segment[0];
+            int segmentEnd = segment[1];
+            if (segmentStart == segmentEnd) {
+                continue;
+            }
+
+            int splitPoint = this.insertConstraintSegment(segmentStart,segmentEnd);
+            if (splitPoint != -1) {
+                segments.push(new int[] {splitPoint,segmentEnd});
+                segments.push(new int[] {segmentStart,splitPoint});
+            }
+        }
+    }
+
+    /**
+     * Inserts a constraint edge that doesn't pass through any points. Returns -1 if the edge
+     * was inserted, or a point on the edge that the edge must be split at.
+     *
+     * @param start start point of the edge.
+     * @param end end point of the edge.
+     */
+    private int insertConstraintSegment(int start,int end) {
+        if (this.findEdge(start,end) != null || this.findEdge(end,start) != null) {
+            this.constrainedEdges.add(getEdgeKey(start,end));
+            return -1;
+        }
+
+        // Find the triangle around the start where the edge begins.
+        ArrayDeque<long[]> crossedEdges = new ArrayDeque<>();
+        int firstTriangle = this.vertexTriangles[start];
+        int triangle = firstTriangle;
+        int exitIndex = -1;
+        do {
+            int index = this.getVertexIndex(triangle,start);
+            int b = this.getVertex(triangle,index + 1);
+            int c = this.getVertex(triangle,index + 2);
+            double orientB = this.orient(start,end,b);
+            double orientC = this.orient(start,end,c);
+            if (orientB == 0 && this.isBetween(start,end,b)) {
+                return b;
+            } else if (orientC == 0 && this.isBetween(start,end,c)) {
+                return c;
+            } else if (orientB < 0 && orientC > 0) {
+                exitIndex = index;
+                break;
+            }
+
+            triangle = this.getNeighbor(triangle,index + 1);
+        } while (triangle != firstTriangle && triangle != NO_TRIANGLE);
+        if (exitIndex == -1) {
+            throw new IllegalStateException("Constraint " + this.points.get(start) + " <-> " + this.points.get(end) + " starts outside of the triangulation.");
+        }
+
+        // Walk along the edge and store the edges that are crossed.
+        while (true) {
+            int edgeStart = this.getVertex(triangle,exitIndex + 1);
+            int edgeEnd = this.getVertex(triangle,exitIndex + 2);
+            if (this.constrainedEdges.contains(getEdgeKey(edgeStart,edgeEnd))) {
+                throw new IllegalStateException("Constraint " + this.points.get(start) + " <-> " + this.points.get(end) + " crosses another constraint.");
+            }
+            crossedEdges.add(new long[] {edgeStart,edgeEnd});
+
+            int neighbor = this.getNeighbor(triangle,exitIndex);
+            int neighborIndex = this.getNeighborIndex(neighbor,triangle);
+            int opposite = this.getVertex(neighbor,neighborIndex);
+            if (opposite == end) {
+                break;
+            }
+
+            double orientOpposite = this.orient(start,end,opposite);
+            if (orientOpposite == 0) {
+                return opposite;
+            }
+
+            // Exit through the edge on the side of the opposite vertex that the edge is on.
+            triangle = neighbor;
+            exitIndex = (orientOpposite > 0 ? neighborIndex + 1 : neighborIndex + 2) % 3;
+        }
+
+        // Flip the crossed edges until none cross the constraint.
+        ArrayList<long[]> newEdges = new ArrayList<>();
+        int maxFlips = (crossedEdges.size() + 1) * (crossedEdges.size() + 1) * 4;
+        int flips = 0;
+        while (!crossedEdges.isEmpty()) {
+            long[] edge = crossedEdges.poll();
+            int[] edgeTriangle = this.findEdge((int) edge[0],(int) edge[1]);
+            int index = (edgeTriangle[1] + 2) % 3;
+            int a = this.getVertex(edgeTriangle[0],index);
+            int b = (int) edge[0];
+            int c = (int) edge[1];
+            int neighbor = this.getNeighbor(edgeTriangle[0],index);
+            int d = this.getVertex(neighbor,this.getNeighborIndex(neighbor,edgeTriangle[0]));
+
+            // Flip the edge if the triangles form a convex shape. Otherwise, try again later.
+            if (this.orient(a,b,d) > 0 && this.orient(a,d,c) > 0) {
+                this.flip(edgeTriangle[0],index);
+                if (this.segmentsCross(start,end,a,d)) {
+                    crossedEdges.add(new long[] {a,d});
+                } else {
+                    newEdges.add(new long[] {a,d});
+                }
+            } else {
+                crossedEdges.add(edge);
+            }
+
+            flips++;
+            if (flips > maxFlips) {
+                throw new IllegalStateException("Constraint " + this.points.get(start) + " <-> " + this.points.get(end) + " could not be inserted.");
+            }
+        }
+        this.constrainedEdges.add(getEdgeKey(start,end));
+
+        // Restore the Delaunay condition for the new edges.
+        boolean edgeFlipped = true;
+        int passes = 0;
+        while (edgeFlipped) {
+            edgeFlipped = false;
+            passes++;
+            if (passes > maxFlips) {
+                throw new IllegalStateException("Constraint " + this.points.get(start) + " <-> " + this.points.get(end) + " could not be made Delaunay.");
+            }
+
+            for (long[] edge : newEdges) {
+                if (this.constrainedEdges.contains(getEdgeKey((int) edge[0],(int) edge[1]))) {
+                    continue;
+                }
+
+                int[] edgeTriangle = this.findEdge((int) edge[0],(int) edge[1]);
+                int index = (edgeTriangle[1] + 2) % 3;
+                int a = this.getVertex(edgeTriangle[0],index);
+                int neighbor = this.getNeighbor(edgeTriangle[0],index);
+                int d = this.getVertex(neighbor,this.getNeighborIndex(neighbor,edgeTriangle[0]));
+                if (this.inCircumcircle(this.getVertex(edgeTriangle[0],0),this.getVertex(edgeTriangle[0],1),this.getVertex(edgeTriangle[0],2),d)) {
+                    this.flip(edgeTriangle[0],index);
+                    edge[0] = a;
+                    edge[1] = d;
+                    edgeFlipped = true;
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns the order to insert the points in. The points are sorted into columns that
+     * alternate directions so each point is close to the previous point, which keeps
+     * the walks to find the triangles short.
+     *
+     * @param minX minimum x coordinate of the points.
+     * @param width width of the points.
+     */
+    private ArrayList<Integer> getInsertOrder(double minX,double width) {
+        int columns = Math.max(1,(int) Math.sqrt(this.pointCount / 2.0));
+        ArrayList<Integer> order = new ArrayList<>();
+        int[] pointColumns = new int[this.pointCount];
+        for (int i = 0; i < this.pointCount; i++) {
+            order.add(i);
+            pointColumns[i] = (width == 0 ? 0 : Math.min(columns - 1,(int) (((this.pointX[i] - minX) / width) * columns)));
+        }
+
+        order.sort((point1,point2) -> {
+            int column1 = pointColumns[point1];
+            int column2 = pointColumns[point2];
+            if (column1 != column2) {
+                return Integer.compare(column1,column2);
+            }
+
+            int compare = Double.compare(this.pointY[point1],this.pointY[point2]);
+            if (compare == 0) {
+                compare = Double.compare(this.pointX[point1],this.pointX[point2]);
+            }
+            return (column1 % 2 == 0 ? compare : -compare);
+        });
+        return order;
+    }
+
+    /**
+     * Returns the triangles that are inside an odd amount of boundaries. Triangles touching the
+     * outer triangle are outside, and crossing a constraint goes in or out of a boundary.
+     */
+    private boolean[] getInsideTriangles() {
+        int[] crossings = new int[this.triangleCount];
+        Arrays.fill(crossings,Integer.MAX_VALUE);
+        ArrayDeque<Integer> trianglesToVisit = new ArrayDeque<>();
+        for (int triangle = 0; triangle < this.triangleCount; triangle++) {
+            if (this.getVertex(triangle,0) >= this.pointCount || this.getVertex(triangle,1) >= this.pointCount || this.getVertex(triangle,2) >= this.pointCount) {
+                crossings[triangle] = 0;
+                trianglesToVisit.add(triangle);
+            }
+        }
+
+        // Visit the triangles with the least crossings first.
+        while (!trianglesToVisit.isEmpty()) {
+            int triangle = trianglesToVisit.poll();
+            for (int i = 0; i < 3; i++) {
+                int neighbor = this.getNeighbor(triangle,i);
+                if (neighbor == NO_TRIANGLE) {
+                    continue;
+                }
+
+                boolean constrained = this.constrainedEdges.contains(getEdgeKey(this.getVertex(triangle,i + 1),this.getVertex(triangle,i + 2)));
+                int neighborCrossings = crossings[triangle] + (constrained ? 1 : 0);
+                if (neighborCrossings < crossings[neighbor]) {
+                    crossings[neighbor] = neighborCrossings;
+                    if (constrained) {
+                        trianglesToVisit.addLast(neighbor);
+                    } else {
+                        trianglesToVisit.addFirst(neighbor);
+                    }
+                }
+            }
+        }
+
+        boolean[] inside = new boolean[this.triangleCount];
+        for (int triangle = 0; triangle < this.triangleCount; triangle++) {
+            inside[triangle] = (crossings[triangle] % 2 == 1);
+        }
+        return inside;
+    }
+
+    /**
+     * Returns whether a point is on the line between 2 other points, using a tolerance
+     * for the angle between the directions to the other points.
+     *
+     * @param point point to check.
+     * @param point1 first point of the line.
+     * @param point2 second point of the line.
+     */
+    private static boolean isPointBetween(Vector2 point,Vector2 point1,Vector2 point2) {
+        double deltaX1 = point1.x - point.x;
+        double deltaY1 = point1.y - point.y;
+        double deltaX2 = point2.x - point.x;
+        double deltaY2 = point2.y - point.y;
+        double cross = (deltaX1 * deltaY2) - (deltaY1 * deltaX2);
+        double dot = (deltaX1 * deltaX2) + (deltaY1 * deltaY2);
+        return dot < 0 && Math.abs(cross) <= -dot * COLLINEAR_EPSILON;
+    }
+
+    /**
+     * Stores the points of the boundaries and returns the boundary lines as pairs of point ids.
+     * Points in the middle of straight boundaries are left out since they only add triangles,
+     * which is the same as the collinear lines and triangles being merged.
+     *
+     * @param shapePoints points of the boundaries.
+     * @param connectedPoints ids of the points connected to each point by a boundary line. Changed when points are left out.
+     */
+    private ArrayList<int[]> storeBoundaryPoints(ArrayList<Vector2> shapePoints,ArrayList<ArrayList<Integer>> connectedPoints) {
+        // Remove points between 2 collinear lines and connect the other points.
+        boolean[] removedPoints = new boolean[shapePoints.size()];
+        for (int point = 0; point < shapePoints.size(); point++) {
+            ArrayList<Integer> connections = connectedPoints.get(point);
+            if (connections.size() != 2) {
+                continue;
+            }
+
+            int point1 = connections.get(0);
+            int point2 = connections.get(1);
+            if (!connectedPoints.get(point1).contains(point2) && isPointBetween(shapePoints.get(point),shapePoints.get(point1),shapePoints.get(point2))) {
+                removedPoints[point] = true;
+                connectedPoints.get(point1).set(connectedPoints.get(point1).indexOf(point),point2);
+                connectedPoints.get(point2).set(connectedPoints.get(point2).indexOf(point),point1);
+                connections.clear();
+            }
+        }
+
+        // Store the remaining points and lines.
+        int[] newIds = new int[shapePoints.size()];
+        for (int point = 0; point < shapePoints.size(); point++) {
+            if (!removedPoints[point]) {
+                newIds[point] = this.points.size();
+                this.points.add(shapePoints.get(point));
+            }
+        }
+
+        ArrayList<int[]> constraints = new ArrayList<>();
+        for (int point = 0; point < shapePoints.size(); point++) {
+            for (int otherPoint : connectedPoints.get(point)) {
+                if (point < otherPoint) {
+                    constraints.add(new int[] {newIds[point],newIds[otherPoint]});
+                }
+            }
+        }
+        return constraints;
+    }
+
+    /**
+     * Creates the triangles for the given shapes. Shapes inside other shapes are holes.
+     * Throws an IllegalStateException if the boundaries of the shapes cross.
+     *
+     * @param shapes shapes to fill.
+     */
+    public ArrayList<Triangle> getTrianglesFromShapes(ArrayList<Shape> shapes) {
+        // Store the points and the lines.
+        LinkedHashMap<Vector2,Integer> pointIds = new LinkedHashMap<>();
+        ArrayList<Vector2> shapePoints = new ArrayList<>();
+        ArrayList<ArrayList<Integer>> connectedPoints = new ArrayList<>();
+        for (Shape shape : shapes) {
+            for (Line line : shape.lines) {
+                for (Vector2 point : new Vector2[] {line.start,line.end}) {
+                    if (!pointIds.containsKey(point)) {
+                        pointIds.put(point,pointIds.size());
+                        shapePoints.add(point);
+                        connectedPoints.add(new ArrayList<>(2));
+                    }
+                }
+
+                int start = pointIds.get(line.start);
+                int end = pointIds.get(line.end);
+                if (start != end && !connectedPoints.get(start).contains(end)) {
+                    connectedPoints.get(start).add(end);
+                    connectedPoints.get(end).add(start);
+                }
+            }
+        }
+        ArrayList<int[]> constraints = this.storeBoundaryPoints(shapePoints,connectedPoints);
+
+        ArrayList<Triangle> triangles = new ArrayList<>();
+        this.pointCount = this.points.size();
+        if (this.pointCount < 3) {
+            return triangles;
+        }
+
+        // Store the coordinates and the outer triangle that contains all the points.
+        this.pointX = new double[this.pointCount + 3];
+        this.pointY = new double[this.pointCount + 3];
+        double minX = Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        for (int i = 0; i < this.pointCount; i++) {
+            Vector2 point = this.points.get(i);
+            this.pointX[i] = point.x;
+            this.pointY[i] = point.y;
+            minX = Math.min(minX,point.x);
+            minY = Math.min(minY,point.y);
+            maxX = Math.max(maxX,point.x);
+            maxY = Math.max(maxY,point.y);
+        }
+
+        double size = Math.max(Math.max(maxX - minX,maxY - minY),1) * SUPER_TRIANGLE_SCALE;
+        double centerX = (minX + maxX) / 2;
+        double centerY = (minY + maxY) / 2;
+        this.pointX[this.pointCount] = centerX - size;
+        this.pointY[this.pointCount] = centerY - size;
+        this.pointX[this.pointCount + 1] = centerX + size;
+        this.pointY[this.pointCount + 1] = centerY - size;
+        this.pointX[this.pointCount + 2] = centerX;
+        this.pointY[this.pointCount + 2] = centerY + size;
+
+        this.vertexTriangles = new int[this.pointCount + 3];
+        this.triangleVertices = new int[(this.pointCount * 2 + 1) * 3];
+        this.triangleNeighbors = new int[(this.pointCount * 2 + 1) * 3];
+        this.setTriangle(this.addTriangle(),this.pointCount,this.pointCount + 1,this.pointCount + 2,NO_TRIANGLE,NO_TRIANGLE,NO_TRIANGLE);
+
+        // Insert the points and the constraints.
+        for (int point : this.getInsertOrder(minX,maxX - minX)) {
+            this.insertPoint(point);
+        }
+        for (int[] constraint : constraints) {
+            this.insertConstraint(constraint[0],constraint[1]);
+        }
+
+        // Create the triangles that are inside the shapes.
+        boolean[] inside = this.getInsideTriangles();
+        for (int triangle = 0; triangle < this.triangleCount; triangle++) {
+            if (inside[triangle]) {
+                triangles.add(new Triangle(this.points.get(this.getVertex(triangle,0)),this.points.get(this.getVertex(triangle,1)),this.points.get(this.getVertex(triangle,2))));
+            }
+        }
+        return triangles;
+    }
+}
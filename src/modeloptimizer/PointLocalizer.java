@@ -14,11 +14,14 @@ import java.util.ArrayList;
 import java.util.HashMap;
 
 public class PointLocalizer {
+    public static double POINT_EPSILON = 0.001;
     private Vector3 originPoint;
     private Vector3 rightVector;
     private Vector3 backVector;
     private Vector3 upVector;
     private HashMap<Vector2,Vector3> vectorLookupMap;
+    private SpatialHash<Vector2> globalPointIndex;
+    private SpatialHash<Vector2> localPointIndex;
 
     /**
      * Creates a point localizer.
@@ -29,6 +32,8 @@ public class PointLocalizer {
      */
     public PointLocalizer(Vector3 point1,Vector3 point2,Vector3 point3) {
         this.vectorLookupMap = new HashMap<>();
+        this.globalPointIndex = new SpatialHash<>(POINT_EPSILON);
+        this.localPointIndex = new SpatialHash<>(POINT_EPSILON);
         this.originPoint = point1;
 
         // Get vectors from origin.
@@ -53,24 +58,25 @@ public class PointLocalizer {
      */
     public Vector2 getLocalSpacePoint(Vector3 point) {
         // Get already transformed point if it exists.
-        for (Vector2 returnPoint : this.vectorLookupMap.keySet()) {
-            if (this.vectorLookupMap.get(returnPoint).isClose(point,0.001)) {
-                return returnPoint;
-            }
+        Vector2 existingPoint = this.globalPointIndex.getClose(point.x,point.y,point.z,POINT_EPSILON);
+        if (existingPoint != null) {
+            return existingPoint;
         }
 
         // Transform to local space.
-        double newX = (point.subtract(this.originPoint)).dot(this.rightVector);
-        double newY = (point.subtract(this.originPoint)).dot(this.upVector);
+        double newX = Vector3.subtractDot(point,this.originPoint,this.rightVector);
+        double newY = Vector3.subtractDot(point,this.originPoint,this.upVector);
 
         Vector2 localVector = new Vector2(newX,newY);
         this.vectorLookupMap.put(localVector,point);
+        this.globalPointIndex.put(point.x,point.y,point.z,localVector);
+        this.localPointIndex.put(newX,newY,0,localVector);
         return localVector;
     }
 
     /**
      * Returns an unlocalized point (Vector3) from a Vector2.
-     * Currently requires a Vector2 to be converted from the Vector3.
+     * Points close to a converted Vector2 return the Vector3 it was converted from.
      *
      * @param point point to convert back.
      */
@@ -80,6 +86,10 @@ public class PointLocalizer {
         if (globalPoint != null) {
             return globalPoint;
         }
+        Vector2 closePoint = this.localPointIndex.getClose(point.x,point.y,0,POINT_EPSILON);
+        if (closePoint != null) {
+            return this.vectorLookupMap.get(closePoint);
+        }
 
         // If it hasn't been calculated, extrapolate the point.
         return this.originPoint.add(this.rightVector.multiply(point.x)).add(this.upVector.multiply(point.y));
@@ -0,0 +1,211 @@
+/*
+ * Stores the filled triangles of coplanar shapes so repeated shapes are only
+ * filled once. Shapes are compared by the exact coordinates of their triangles
+ * in order, so a stored shape is only reused for triangles that would be filled
+ * the same way. The points of the shapes are relative to the first point of the
+ * shape, so copies of a part in different positions often have the same coordinates.
+ * The least recently used entries are removed when the cache is full.
+ *
+ * @author: agent
+ * @date: 10/17/2026
+ */
+
+package modeloptimizer;
+
+import geometry.Triangle;
+import vectors.Vector2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+public class ShapeCache {
+    public static int DEFAULT_MAX_ENTRIES = 4096;
+    public static int MAX_SHAPE_TRIANGLES = 1024;
+
+
+
+    /**
+     * Key of a shape. The coordinates are the x and y coordinates of the points of the triangles in order.
+     */
+    private static class ShapeKey {
+        private double[] coordinates;
+        private int hashCode;
+
+        /**
+         * Creates a ShapeKey.
+         *
+         * @param coordinates x and y coordinates of the points of the triangles.
+         */
+        private ShapeKey(double[] coordinates) {
+            this.coordinates = coordinates;
+            this.hashCode = Arrays.hashCode(coordinates);
+        }
+
+        /**
+         * Returns whether another object is equal.
+         *
+         * @param object the other object to compare.
+         */
+        @Override
+        public boolean equals(Object object) {
+            if (!(object instanceof ShapeKey)) {
+                return false;
+            }
+
+            ShapeKey otherKey = (ShapeKey) object;
+            return this.hashCode == otherKey.hashCode && Arrays.equals(this.coordinates,otherKey.coordinates);
+        }
+
+        /**
+         * Returns the hash code of the ShapeKey.
+         */
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+    }
+
+
+
+    private LinkedHashMap<ShapeKey,int[]> entries;
+    private long hits;
+    private long misses;
+
+    /**
+     * Creates a ShapeCache.
+     *
+     * @param maxEntries maximum amount of shapes to store.
+     */
+    public ShapeCache(int maxEntries) {
+        this.entries = new LinkedHashMap<ShapeKey,int[]>(16,0.75f,true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ShapeKey,int[]> eldest) {
+                return this.size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Creates a ShapeCache with the default maximum amount of shapes.
+     */
+    public ShapeCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Returns whether the triangles of a shape can be stored. Large shapes are
+     * rarely repeated, so they aren't stored to keep the size of the keys small.
+     *
+     * @param triangles triangles of the shape.
+     */
+    public boolean canStore(ArrayList<Triangle> triangles) {
+        return !triangles.isEmpty() && triangles.size() <= MAX_SHAPE_TRIANGLES;
+    }
+
+    /**
+     * Returns the point of a triangle of a shape.
+     *
+     * @param triangles triangles of the shape.
+     * @param index index of the point, with 3 points for each triangle.
+     */
+    private static Vector2 getPoint(ArrayList<Triangle> triangles,int index) {
+        Triangle triangle = triangles.get(index / 3);
+        return (index % 3 == 0 ? triangle.point1 : (index % 3 == 1 ? triangle.point2 : triangle.point3));
+    }
+
+    /**
+     * Returns the filled triangles of a shape. If the shape isn't stored, the triangles are filled and stored.
+     * Stored shapes have the same coordinates in the same order, so the filled triangles are the same as
+     * filling the triangles again. The filled triangles use the points of the given triangles.
+     *
+     * @param triangles triangles of the shape.
+     * @param fillTriangles function that fills the triangles of a shape. The filled triangles must only use points of the shape.
+     */
+    public ArrayList<Triangle> getTriangles(ArrayList<Triangle> triangles,Function<ArrayList<Triangle>,ArrayList<Triangle>> fillTriangles) {
+        double[] coordinates = new double[triangles.size() * 6];
+        for (int i = 0; i < triangles.size() * 3; i++) {
+            Vector2 point = getPoint(triangles,i);
+            coordinates[i * 2] = point.x;
+            coordinates[(i * 2) + 1] = point.y;
+        }
+        ShapeKey key = new ShapeKey(coordinates);
+
+        // Return the stored triangles with the points of the shape.
+        int[] filledIndexes;
+        synchronized (this) {
+            filledIndexes = this.entries.get(key);
+            if (filledIndexes != null) {
+                this.hits += 1;
+            } else {
+                this.misses += 1;
+            }
+        }
+        if (filledIndexes != null) {
+            ArrayList<Triangle> filledTriangles = new ArrayList<>();
+            for (int i = 0; i < filledIndexes.length; i += 3) {
+                filledTriangles.add(new Triangle(getPoint(triangles,filledIndexes[i]),getPoint(triangles,filledIndexes[i + 1]),getPoint(triangles,filledIndexes[i + 2])));
+            }
+            return filledTriangles;
+        }
+
+        // Fill the shape and store the points of the filled triangles as the first index of the point in the shape.
+        ArrayList<Triangle> filledTriangles = fillTriangles.apply(triangles);
+        HashMap<Vector2,Integer> pointIndexes = new HashMap<>();
+        for (int i = 0; i < triangles.size() * 3; i++) {
+            pointIndexes.putIfAbsent(getPoint(triangles,i),i);
+        }
+        filledIndexes = new int[filledTriangles.size() * 3];
+        for (int i = 0; i < filledTriangles.size(); i++) {
+            Triangle triangle = filledTriangles.get(i);
+            filledIndexes[i * 3] = getFilledPointIndex(pointIndexes,triangle.point1);
+            filledIndexes[(i * 3) + 1] = getFilledPointIndex(pointIndexes,triangle.point2);
+            filledIndexes[(i * 3) + 2] = getFilledPointIndex(pointIndexes,triangle.point3);
+        }
+        synchronized (this) {
+            this.entries.put(key,filledIndexes);
+        }
+
+        return filledTriangles;
+    }
+
+    /**
+     * Returns the index of a point of a filled triangle.
+     *
+     * @param pointIndexes indexes of the points of the shape.
+     * @param point point to get the index of.
+     * @throws IllegalStateException if the point isn't a point of the shape.
+     */
+    private static int getFilledPointIndex(HashMap<Vector2,Integer> pointIndexes,Vector2 point) {
+        Integer index = pointIndexes.get(point);
+        if (index == null) {
+            throw new IllegalStateException("Filled triangle uses " + point + ", which isn't a point of the shape.");
+        }
+
+        return index;
+    }
+
+    /**
+     * Returns the amount of shapes stored.
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Returns the amount of shapes that were already stored.
+     */
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * Returns the amount of shapes that weren't already stored.
+     */
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+}
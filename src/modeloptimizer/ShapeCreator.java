@@ -10,21 +10,48 @@ package modeloptimizer;
 import geometry.*;
 import vectors.*;
 
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.function.Predicate;
 
 public class ShapeCreator {
-    private HashMap<Vector2,ArrayList<Double[]>> anglesCovered;
+    private BoundaryMode boundaryMode;
+    private LinkedHashMap<Vector2,ArrayList<Double[]>> anglesCovered;
     private HashMap<Vector2,HashMap<Double,ArrayList<Vector2>>> anglesToPoints;
 
+
+
+    /**
+     * Methods for finding the boundary lines of the triangles.
+     * ANGLE_COVERAGE finds the points where the angles around the point aren't fully covered by triangles.
+     * EDGE_COUNT uses the edges that are only used by 1 triangle, which requires the triangles to share
+     * full edges (no points in the middle of the edges of other triangles).
+     */
+    public enum BoundaryMode {
+        ANGLE_COVERAGE,
+        EDGE_COUNT,
+    }
+
+
+
     /**
      * Creates a ShapeCreator.
      */
     public ShapeCreator() {
-        this.anglesCovered = new HashMap<>();
+        this(BoundaryMode.ANGLE_COVERAGE);
+    }
+
+    /**
+     * Creates a ShapeCreator.
+     *
+     * @param boundaryMode method for finding the boundary lines.
+     */
+    public ShapeCreator(BoundaryMode boundaryMode) {
+        this.boundaryMode = boundaryMode;
+        this.anglesCovered = new LinkedHashMap<>();
         this.anglesToPoints = new HashMap<>();
     }
 
@@ -145,7 +172,7 @@ public class ShapeCreator {
      * Returns a hash map containing the angles of the lines for the points.
      */
     private HashMap<Vector2,ArrayList<Double>> getPointAngles() {
-        HashMap<Vector2,ArrayList<Double>> anglePoints = new HashMap<>();
+        LinkedHashMap<Vector2,ArrayList<Double>> anglePoints = new LinkedHashMap<>();
 
         // Get angles of all the points.
         for (Vector2 point : this.anglesCovered.keySet()) {
@@ -227,11 +254,63 @@ public class ShapeCreator {
     }
 
     /**
-     * Merges lines that are collinear.
+     * Returns the lines of the edges that are only used by 1 triangle.
+     *
+     * @param triangles triangles to get the edges of.
+     */
+    private static ArrayList<Line> getLinesFromEdgeCounts(ArrayList<Triangle> triangles) {
+        // Count the triangles using each edge. The first line of each edge is kept.
+        LinkedHashMap<Line,Integer> edgeCounts = new LinkedHashMap<>();
+        for (Triangle triangle : triangles) {
+            Vector2 point1 = triangle.point1;
+            Vector2 point2 = triangle.point2;
+            Vector2 point3 = triangle.point3;
+            if (point1.equals(point2) || point1.equals(point3) || point2.equals(point3)) {
+                continue;
+            }
+
+            for (Line edge : new Line[] {new Line(point1,point2),new Line(point2,point3),new Line(point3,point1)}) {
+                edgeCounts.merge(edge,1,Integer::sum);
+            }
+        }
+
+        // Return the edges used once.
+        ArrayList<Line> boundaryLines = new ArrayList<>();
+        for (Line edge : edgeCounts.keySet()) {
+            if (edgeCounts.get(edge) == 1) {
+                boundaryLines.add(edge);
+            }
+        }
+
+        return boundaryLines;
+    }
+
+    /**
+     * Returns the indexes of the lines that use each point, in the order of the lines.
+     *
+     * @param lines lines to index.
+     */
+    private static HashMap<Vector2,ArrayList<Integer>> getLinesAtPoints(ArrayList<Line> lines) {
+        HashMap<Vector2,ArrayList<Integer>> linesAtPoints = new HashMap<>();
+        for (int i = 0; i < lines.size(); i++) {
+            Line line = lines.get(i);
+            linesAtPoints.computeIfAbsent(line.start,point -> new ArrayList<>(2)).add(i);
+            if (!line.end.equals(line.start)) {
+                linesAtPoints.computeIfAbsent(line.end,point -> new ArrayList<>(2)).add(i);
+            }
+        }
+
+        return linesAtPoints;
+    }
+
+    /**
+     * Merges lines that are collinear. Lines are only merged at points used by 2 lines,
+     * which prevents merging lines where the merged point is needed for another
+     * triangle (Ex: Bowtie type shape).
      *
      * @param lines lines to merge.
      */
-    private static ArrayList<Line> mergeLines(ArrayList<Line> lines) {
+    static ArrayList<Line> mergeLines(ArrayList<Line> lines) {
 
         // Remove lines that a length of 0 (start = end).
         for (int i = lines.size() - 1; i >= 0; i--) {
@@ -241,120 +320,118 @@ public class ShapeCreator {
             }
         }
 
-        // Get the amount of times a point is visited.
-        HashMap<Vector2,Integer> pointsPassed = new HashMap<>();
-        for (Line line : lines) {
-            if (!pointsPassed.containsKey(line.start)) {
-                pointsPassed.put(line.start,1);
-            } else {
-                pointsPassed.put(line.start,pointsPassed.get(line.start) + 1);
-            }
-
-            if (!pointsPassed.containsKey(line.end)) {
-                pointsPassed.put(line.end,1);
-            } else {
-                pointsPassed.put(line.end,pointsPassed.get(line.end) + 1);
-            }
-        }
-
-        // Combine lines if possible.
-        HashSet<Line> mergedLines = new HashSet<>();
+        // Combine each line with the collinear lines connected to the ends until the ends can't be extended.
+        HashMap<Vector2,ArrayList<Integer>> linesAtPoints = getLinesAtPoints(lines);
+        boolean[] usedLines = new boolean[lines.size()];
         ArrayList<Line> finalLines = new ArrayList<>();
         for (int i = 0; i < lines.size(); i++) {
+            if (usedLines[i]) {
+                continue;
+            }
+
             Line line1 = lines.get(i);
+            Line newLine = new Line(line1.start,line1.end);
+            usedLines[i] = true;
+            boolean lineExtended = true;
+            while (lineExtended) {
+                lineExtended = false;
+                for (Vector2 endPoint : new Vector2[] {newLine.start,newLine.end}) {
+                    ArrayList<Integer> connectedLines = linesAtPoints.get(endPoint);
+                    if (connectedLines == null || connectedLines.size() != 2) {
+                        continue;
+                    }
 
-            if (!mergedLines.contains(line1)) {
-                Line newLine = new Line(line1.start,line1.end);
-                for (int j = i + 1; j < lines.size(); j++) {
-                    Line line2 = lines.get(j);
-
-                    // Prevents merging lines where merged point is needed for another triangle. (Ex: Bowtie type shape)
-                    if (pointsPassed.get(line1.start) <= 2 && pointsPassed.get(line1.end) <= 2 && pointsPassed.get(line2.start) <= 2 && pointsPassed.get(line2.end) <= 2) {
-                        if (newLine.canMerge(line2) && !mergedLines.contains(line2)) {
-                            // Change line to max length.
-                            double line2StartOnLine1 = newLine.getPositionOnLine(line2.start);
-                            double line2EndOnLine1 = newLine.getPositionOnLine(line2.end);
-
-                            if (line2StartOnLine1 < 0) {
-                                newLine.setStartPoint(line2.start);
-                                mergedLines.add(line2);
-                            } else if (line2StartOnLine1 > 1) {
-                                newLine.setEndPoint(line2.start);
-                                mergedLines.add(line2);
-                            }
-
-                            if (line2EndOnLine1 < 0) {
-                                newLine.setStartPoint(line2.end);
-                                mergedLines.add(line2);
-                            } else if (line2EndOnLine1 > 1) {
-                                newLine.setEndPoint(line2.end);
-                                mergedLines.add(line2);
-                            }
-                        }
+                    int otherLineIndex = (usedLines[connectedLines.get(0)] ? connectedLines.get(1) : connectedLines.get(0));
+                    Line line2 = lines.get(otherLineIndex);
+                    if (usedLines[otherLineIndex] || !newLine.canMerge(line2)) {
+                        continue;
                     }
-                }
 
-                // Add the line.
-                finalLines.add(newLine);
+                    // Change line to max length.
+                    Vector2 otherPoint = (line2.start.equals(endPoint) ? line2.end : line2.start);
+                    double otherPointOnLine = newLine.getPositionOnLine(otherPoint);
+                    if (otherPointOnLine < 0) {
+                        newLine.setStartPoint(otherPoint);
+                    } else if (otherPointOnLine > 1) {
+                        newLine.setEndPoint(otherPoint);
+                    } else {
+                        continue;
+                    }
+                    usedLines[otherLineIndex] = true;
+                    lineExtended = true;
+                }
             }
+
+            // Add the line.
+            finalLines.add(newLine);
         }
 
         return finalLines;
     }
 
     /**
-     * Creates the bounding shapes.
+     * Returns the first unused line at a point, or -1 if there is none. The indexes of the lines
+     * are in reverse order, so lines that are used are removed from the end of the list and
+     * aren't checked again.
+     *
+     * @param linesAtPoint indexes of the lines at the point, in reverse order.
+     * @param usedLines lines that were used.
+     */
+    private static int getUnusedLine(ArrayList<Integer> linesAtPoint,boolean[] usedLines) {
+        if (linesAtPoint == null) {
+            return -1;
+        }
+
+        while (!linesAtPoint.isEmpty()) {
+            int lineIndex = linesAtPoint.get(linesAtPoint.size() - 1);
+            if (!usedLines[lineIndex]) {
+                return lineIndex;
+            }
+            linesAtPoint.remove(linesAtPoint.size() - 1);
+        }
+
+        return -1;
+    }
+
+    /**
+     * Creates the bounding shapes. Each shape is created by connecting the next unused line
+     * at the end of the last line, using an index of the lines at each point.
      *
      * @param boundingLines the lines to bound the shapes.
      */
-    private ArrayList<Shape> createShapes(ArrayList<Line> boundingLines) {
+    static ArrayList<Shape> createShapes(ArrayList<Line> boundingLines) {
         boundingLines = mergeLines(boundingLines);
+        HashMap<Vector2,ArrayList<Integer>> linesAtPoints = getLinesAtPoints(boundingLines);
+        for (ArrayList<Integer> linesAtPoint : linesAtPoints.values()) {
+            Collections.reverse(linesAtPoint);
+        }
+        boolean[] usedLines = new boolean[boundingLines.size()];
         ArrayList<Shape> shapes = new ArrayList<>();
-        Vector2 lastPoint = null;
-        ArrayList<Line> currentShape = null;
 
         // Create shapes until no more lines to connect.
-        while (boundingLines.size() > 0) {
-            if (lastPoint == null) {
-                // If there is no shape, start a new one.
-                Line newLine = boundingLines.get(0);
-                lastPoint = newLine.end;
-                boundingLines.remove(0);
-                currentShape = new ArrayList<>();
-                currentShape.add(newLine);
-            } else {
-                // If the shape exists, add the next line if any.
-                Line nextLine = null;
-
-                for (int i = 0; i < boundingLines.size(); i++) {
-                    Line line = boundingLines.get(i);
-                    if (line.start.equals(lastPoint)) {
-                        lastPoint = line.end;
-                        nextLine = line;
-                        currentShape.add(line);
-                        boundingLines.remove(i);
-                        break;
-                    } else if (line.end.equals(lastPoint)) {
-                        lastPoint = line.start;
-                        nextLine = line;
-                        currentShape.add(line);
-                        boundingLines.remove(i);
-                        break;
-                    }
-                }
-
-                // If the next line doesn't exist, reset the state for the shape.
-                if (nextLine == null) {
-                    lastPoint = null;
-                    shapes.add(new Shape(currentShape));
-                    currentShape = null;
-                }
+        int firstUnusedLine = 0;
+        while (firstUnusedLine < boundingLines.size()) {
+            // Start a new shape with the first unused line.
+            Line newLine = boundingLines.get(firstUnusedLine);
+            usedLines[firstUnusedLine] = true;
+            Vector2 lastPoint = newLine.end;
+            ArrayList<Line> currentShape = new ArrayList<>();
+            currentShape.add(newLine);
+
+            // Add the next line until there are none.
+            int nextLineIndex = getUnusedLine(linesAtPoints.get(lastPoint),usedLines);
+            while (nextLineIndex != -1) {
+                Line nextLine = boundingLines.get(nextLineIndex);
+                usedLines[nextLineIndex] = true;
+                lastPoint = (nextLine.start.equals(lastPoint) ? nextLine.end : nextLine.start);
+                currentShape.add(nextLine);
+                nextLineIndex = getUnusedLine(linesAtPoints.get(lastPoint),usedLines);
             }
-        }
-
-        // If there is another shape to add, create it.
-        if (currentShape != null) {
             shapes.add(new Shape(currentShape));
+
+            while (firstUnusedLine < boundingLines.size() && usedLines[firstUnusedLine]) {
+                firstUnusedLine++;
+            }
         }
 
         return shapes;
@@ -366,6 +443,10 @@ public class ShapeCreator {
      * @param triangles set if input triangles.
      */
     public ArrayList<Shape> getShapesFromTriangles(ArrayList<Triangle> triangles) {
+        if (this.boundaryMode == BoundaryMode.EDGE_COUNT) {
+            return createShapes(getLinesFromEdgeCounts(triangles));
+        }
+
         // Get covered angles.
         for (Triangle triangle : triangles) {
             this.addAnglesOfCoverage(triangle.point1,triangle.point2,triangle.point3);
@@ -10,13 +10,17 @@ package modeloptimizer;
 import geometry.*;
 import vectors.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 
 public class ShapeFiller {
     public static ArrayList<Line> getDrawLinesFromShapes(ArrayList<Shape> shapes) {
-        // Add the lines.
-        HashSet<Line> lines = new HashSet<>();
-        HashSet<Vector2> points = new HashSet <>();
+        // Add the lines. The sets keep the order the lines were added so the
+        // inner lines don't depend on the hash codes of the points.
+        LinkedHashSet<Line> lines = new LinkedHashSet<>();
+        LinkedHashSet<Vector2> points = new LinkedHashSet<>();
         for (Shape shape : shapes) {
             lines.addAll(shape.lines);
 
@@ -26,8 +30,10 @@ public class ShapeFiller {
             }
         }
 
-        // Add the inner lines
+        // Add the inner lines. The lines are stored in a grid so that only
+        // the lines near the new line are checked for intersections.
         Shape completeShape = new Shape(new ArrayList<>(lines));
+        LineGrid lineGrid = LineGrid.fromLines(new ArrayList<>(lines),points.size() * 3);
         for (Vector2 point1 : points) {
             for (Vector2 point2 : points) {
                 if (!point1.equals(point2)) {
@@ -36,17 +42,11 @@ public class ShapeFiller {
                     // If the midpoint is in the shape and the line doesn't intersect any other lines, add the line.
                     if (completeShape.pointInShape(midPoint)) {
                         Line newLine = new Line(point1,point2);
-                        boolean intersects = false;
-
-                        for (Line line : lines) {
-                            if (!line.canConnect(newLine) && line.getIntersectionPoint(newLine) != null) {
-                                intersects = true;
-                                break;
-                            }
-                        }
+                        boolean intersects = lineGrid.intersectsLine(newLine);
 
                         if (!intersects && !lines.contains(newLine)) {
                             lines.add(newLine);
+                            lineGrid.add(newLine);
                         }
                     }
                 }
@@ -74,48 +74,97 @@ public class ShapeFiller {
     }
 
     /**
-     * Creates triangles from the given set of lines.
+     * Creates triangles that fill the given shapes with a constrained Delaunay triangulation.
+     * Shapes inside other shapes are holes. Throws an IllegalStateException if the
+     * boundaries of the shapes cross.
+     *
+     * @param shapes shapes to fill.
+     */
+    public static ArrayList<Triangle> getTrianglesFromShapes(ArrayList<Shape> shapes) {
+        return new DelaunayTriangulator().getTrianglesFromShapes(shapes);
+    }
+
+    /**
+     * Returns the ids of the points connected to each point by the lines, sorted by id.
+     * The ids are in the order the points are first used by the lines.
+     *
+     * @param lines lines connecting the points.
+     * @param pointIds map to store the ids of the points in.
+     * @param points list to store the points of the ids in.
+     */
+    private static int[][] getConnectedPoints(ArrayList<Line> lines,HashMap<Vector2,Integer> pointIds,ArrayList<Vector2> points) {
+        // Create the ids and store the connections.
+        ArrayList<ArrayList<Integer>> connectedPoints = new ArrayList<>();
+        for (Line line : lines) {
+            for (Vector2 point : new Vector2[] {line.start,line.end}) {
+                if (!pointIds.containsKey(point)) {
+                    pointIds.put(point,points.size());
+                    points.add(point);
+                    connectedPoints.add(new ArrayList<>());
+                }
+            }
+
+            int start = pointIds.get(line.start);
+            int end = pointIds.get(line.end);
+            if (start != end) {
+                connectedPoints.get(start).add(end);
+                connectedPoints.get(end).add(start);
+            }
+        }
+
+        // Sort the connections and remove duplicates.
+        int[][] sortedConnectedPoints = new int[points.size()][];
+        for (int i = 0; i < points.size(); i++) {
+            ArrayList<Integer> connections = connectedPoints.get(i);
+            int[] sortedConnections = new int[connections.size()];
+            for (int j = 0; j < connections.size(); j++) {
+                sortedConnections[j] = connections.get(j);
+            }
+            Arrays.sort(sortedConnections);
+
+            int connectionCount = 0;
+            for (int connection : sortedConnections) {
+                if (connectionCount == 0 || sortedConnections[connectionCount - 1] != connection) {
+                    sortedConnections[connectionCount++] = connection;
+                }
+            }
+            sortedConnectedPoints[i] = Arrays.copyOf(sortedConnections,connectionCount);
+        }
+        return sortedConnectedPoints;
+    }
+
+    /**
+     * Creates triangles from the given set of lines. A triangle is created for every
+     * 3 points that are all connected by lines.
      *
      * @param lines lines to use.
      */
     public static ArrayList<Triangle> getTrianglesFromLines(ArrayList<Line> lines) {
-        ArrayList<Triangle> triangles = new ArrayList<>();
+        HashMap<Vector2,Integer> pointIds = new HashMap<>();
+        ArrayList<Vector2> points = new ArrayList<>();
+        int[][] connectedPoints = getConnectedPoints(lines,pointIds,points);
 
-        // Find triangles.
-        for (Line line1 : lines) {
-            Vector2 point1 = line1.start;
-            Vector2 point2 = line1.end;
-
-            for (Line line2 : lines) {
-                if (!line1.equals(line2)) {
-                    Vector2 point3 = line2.start;
-                    Vector2 point4 = line2.end;
-
-                    if (point1.equals(point3)) {
-                        Line line3 = getConnectingLine(point2,point4,lines);
-                        Triangle newTriangle = new Triangle(point1,point2,point4);
-                        if (line3 != null && !triangles.contains(newTriangle)) {
-                            triangles.add(newTriangle);
-                        }
-                    } else if (point1.equals(point4)) {
-                        Line line3 = getConnectingLine(point2,point3,lines);
-                        Triangle newTriangle = new Triangle(point1,point2,point3);
-                        if (line3 != null && !triangles.contains(newTriangle)) {
-                            triangles.add(newTriangle);
-                        }
-                    } else if (point2.equals(point3)) {
-                        Line line3 = getConnectingLine(point1,point4,lines);
-                        Triangle newTriangle = new Triangle(point1,point2,point4);
-                        if (line3 != null && !triangles.contains(newTriangle)) {
-                            triangles.add(newTriangle);
-                        }
-                    } else if (point2.equals(point4)) {
-                        Line line3 = getConnectingLine(point1,point3,lines);
-                        Triangle newTriangle = new Triangle(point1,point2,point3);
-                        if (line3 != null && !triangles.contains(newTriangle)) {
-                            triangles.add(newTriangle);
-                        }
+        // Find triangles by finding the points connected to both ends of each line.
+        ArrayList<Triangle> triangles = new ArrayList<>();
+        HashSet<Triangle> existingTriangles = new HashSet<>();
+        for (Line line : lines) {
+            int[] startConnections = connectedPoints[pointIds.get(line.start)];
+            int[] endConnections = connectedPoints[pointIds.get(line.end)];
+
+            int startIndex = 0;
+            int endIndex = 0;
+            while (startIndex < startConnections.length && endIndex < endConnections.length) {
+                if (startConnections[startIndex] < endConnections[endIndex]) {
+                    startIndex++;
+                } else if (startConnections[startIndex] > endConnections[endIndex]) {
+                    endIndex++;
+                } else {
+                    Triangle newTriangle = new Triangle(line.start,line.end,points.get(startConnections[startIndex]));
+                    if (existingTriangles.add(newTriangle)) {
+                        triangles.add(newTriangle);
                     }
+                    startIndex++;
+                    endIndex++;
                 }
             }
         }
@@ -0,0 +1,137 @@
+/*
+ * Stores values by position in a uniform grid to find values close to a position
+ * without comparing every value. The cells are the size of the search distance, so
+ * only the cell of a position and the neighboring cells need to be checked.
+ *
+ * @author: agent
+ * @date: 10/17/2026
+ */
+
+package modeloptimizer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+public class SpatialHash<T> {
+    private double cellSize;
+    private HashMap<Long,ArrayList<Entry<T>>> cells;
+    private int size;
+
+
+
+    /**
+     * Value stored at a position.
+     */
+    private static class Entry<T> {
+        public double x;
+        public double y;
+        public double z;
+        public int order;
+        public T value;
+    }
+
+
+
+    /**
+     * Creates a SpatialHash.
+     *
+     * @param cellSize size of the cells. Should be the distance used to find values.
+     */
+    public SpatialHash(double cellSize) {
+        this.cellSize = cellSize;
+        this.cells = new HashMap<>();
+    }
+
+    /**
+     * Returns the key of a cell. Different cells can have the same key, which only
+     * causes extra values to be checked.
+     *
+     * @param cellX x index of the cell.
+     * @param cellY y index of the cell.
+     * @param cellZ z index of the cell.
+     */
+    private static long getCellKey(long cellX,long cellY,long cellZ) {
+        return (cellX * 73856093L) ^ (cellY * 19349663L) ^ (cellZ * 83492791L);
+    }
+
+    /**
+     * Returns the index of the cell for a coordinate.
+     *
+     * @param coordinate coordinate to get the cell of.
+     */
+    private long getCellIndex(double coordinate) {
+        return (long) Math.floor(coordinate / this.cellSize);
+    }
+
+    /**
+     * Adds a value at a position.
+     *
+     * @param x the x coordinate.
+     * @param y the y coordinate.
+     * @param z the z coordinate.
+     * @param value value to store.
+     */
+    public void put(double x,double y,double z,T value) {
+        Entry<T> entry = new Entry<>();
+        entry.x = x;
+        entry.y = y;
+        entry.z = z;
+        entry.order = this.size;
+        entry.value = value;
+        this.size++;
+
+        long key = getCellKey(this.getCellIndex(x),this.getCellIndex(y),this.getCellIndex(z));
+        ArrayList<Entry<T>> cell = this.cells.get(key);
+        if (cell == null) {
+            cell = new ArrayList<>(1);
+            this.cells.put(key,cell);
+        }
+        cell.add(entry);
+    }
+
+    /**
+     * Returns the first added value that is closer than the given distance to a position, or null if there is none.
+     *
+     * @param x the x coordinate.
+     * @param y the y coordinate.
+     * @param z the z coordinate.
+     * @param distance distance to search. Must not be larger than the cell size.
+     */
+    public T getClose(double x,double y,double z,double distance) {
+        long cellX = this.getCellIndex(x);
+        long cellY = this.getCellIndex(y);
+        long cellZ = this.getCellIndex(z);
+        double distanceSquared = distance * distance;
+
+        // Check the cell and the neighboring cells.
+        Entry<T> closeEntry = null;
+        for (long offsetX = -1; offsetX <= 1; offsetX++) {
+            for (long offsetY = -1; offsetY <= 1; offsetY++) {
+                for (long offsetZ = -1; offsetZ <= 1; offsetZ++) {
+                    ArrayList<Entry<T>> cell = this.cells.get(getCellKey(cellX + offsetX,cellY + offsetY,cellZ + offsetZ));
+                    if (cell == null) {
+                        continue;
+                    }
+
+                    for (Entry<T> entry : cell) {
+                        double deltaX = entry.x - x;
+                        double deltaY = entry.y - y;
+                        double deltaZ = entry.z - z;
+                        if ((deltaX * deltaX) + (deltaY * deltaY) + (deltaZ * deltaZ) < distanceSquared && (closeEntry == null || entry.order < closeEntry.order)) {
+                            closeEntry = entry;
+                        }
+                    }
+                }
+            }
+        }
+
+        return (closeEntry == null ? null : closeEntry.value);
+    }
+
+    /**
+     * Returns the amount of values stored.
+     */
+    public int size() {
+        return this.size;
+    }
+}
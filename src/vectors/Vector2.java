@@ -11,7 +11,7 @@ package vectors;
 public class Vector2 {
     public double x;
     public double y;
-    public double magnitude;
+    private double magnitude = Double.NaN;
 
     /**
      * Creates a new Vector2 with the given X and Y coordinates.
@@ -22,7 +22,6 @@ public class Vector2 {
     public Vector2(double x, double y) {
         this.x = x;
         this.y = y;
-        this.magnitude = Math.pow(Math.pow(x,2) + Math.pow(y,2),0.5);
     }
 
     /**
@@ -32,11 +31,22 @@ public class Vector2 {
         this(0,0);
     }
 
+    /**
+     * Returns the magnitude of the Vector2. The magnitude is calculated the first time
+     * it is needed.
+     */
+    public double getMagnitude() {
+        if (Double.isNaN(this.magnitude)) {
+            this.magnitude = Math.sqrt((this.x * this.x) + (this.y * this.y));
+        }
+        return this.magnitude;
+    }
+
     /**
      * Returns the unit vector of the Vector2.
      */
     public Vector2 getUnitVector() {
-        return this.divide(this.magnitude);
+        return this.divide(this.getMagnitude());
     }
 
     /**
@@ -72,7 +82,7 @@ public class Vector2 {
      * Returns if the Vector2 is within the specified epsilon.
      */
     public boolean isClose(Vector2 otherVector,double epsilon) {
-        return (this.subtract(otherVector).magnitude < epsilon);
+        return (distance(this,otherVector) < epsilon);
     }
 
     /**
@@ -136,6 +146,40 @@ public class Vector2 {
         return new Vector2(this.x / scalar,this.y / scalar);
     }
 
+    /**
+     * Returns the distance between 2 Vector2s without creating a Vector2.
+     *
+     * @param vector1 the first Vector2.
+     * @param vector2 the second Vector2.
+     */
+    public static double distance(Vector2 vector1,Vector2 vector2) {
+        return Math.sqrt(distanceSquared(vector1,vector2));
+    }
+
+    /**
+     * Returns the squared distance between 2 Vector2s without creating a Vector2.
+     *
+     * @param vector1 the first Vector2.
+     * @param vector2 the second Vector2.
+     */
+    public static double distanceSquared(Vector2 vector1,Vector2 vector2) {
+        double deltaX = vector1.x - vector2.x;
+        double deltaY = vector1.y - vector2.y;
+        return (deltaX * deltaX) + (deltaY * deltaY);
+    }
+
+    /**
+     * Returns the cross product of (point2 - point1) and (point3 - point1) without creating a Vector2.
+     * Positive if the points are counter-clockwise, negative if clockwise, and 0 if collinear.
+     *
+     * @param point1 the point both sides are relative to.
+     * @param point2 the end of the first side.
+     * @param point3 the end of the second side.
+     */
+    public static double crossOfSides(Vector2 point1,Vector2 point2,Vector2 point3) {
+        return ((point2.x - point1.x) * (point3.y - point1.y)) - ((point2.y - point1.y) * (point3.x - point1.x));
+    }
+
     /**
      * Returns whether another object is equal.
      *
@@ -164,6 +208,6 @@ public class Vector2 {
      */
     @Override
     public int hashCode() {
-        return (Double.toString(this.x) + Double.toString(this.y)).hashCode();
+        return Vector3.mixHash((Vector3.getCoordinateBits(this.x) * 31) + Vector3.getCoordinateBits(this.y));
     }
 }
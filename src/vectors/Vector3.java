@@ -13,7 +13,7 @@ public class Vector3 {
     public double x;
     public double y;
     public double z;
-    public double magnitude;
+    private double magnitude = Double.NaN;
 
     /**
      * Creates a new Vector3 with the given X, Y, and Z coordinates.
@@ -26,7 +26,6 @@ public class Vector3 {
         this.x = x;
         this.y = y;
         this.z = z;
-        this.magnitude = Math.pow(Math.pow(x,2) + Math.pow(y,2) + Math.pow(z,2),0.5);
     }
 
     /**
@@ -36,11 +35,39 @@ public class Vector3 {
         this(0,0,0);
     }
 
+    /**
+     * Sets the coordinates of the Vector3. Only call this on a Vector3 the caller created
+     * for an intermediate result. Never call it on a Vector3 that is a key in a hash map or
+     * set, or that has been passed to other code, since its hash code and equality change.
+     *
+     * @param x the x coordinate.
+     * @param y the y coordinate.
+     * @param z the z coordinate.
+     */
+    public Vector3 set(double x,double y,double z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.magnitude = Double.NaN;
+        return this;
+    }
+
+    /**
+     * Returns the magnitude of the Vector3. The magnitude is calculated the first time
+     * it is needed.
+     */
+    public double getMagnitude() {
+        if (Double.isNaN(this.magnitude)) {
+            this.magnitude = Math.sqrt((this.x * this.x) + (this.y * this.y) + (this.z * this.z));
+        }
+        return this.magnitude;
+    }
+
     /**
      * Returns the unit vector of the Vector3.
      */
     public Vector3 getUnitVector() {
-        return this.divide(this.magnitude);
+        return this.divide(this.getMagnitude());
     }
 
     /**
@@ -84,7 +111,7 @@ public class Vector3 {
      * Returns if the Vector3 is within the specified epsilon.
      */
     public boolean isClose(Vector3 otherVector,double epsilon) {
-        return (this.subtract(otherVector).magnitude < epsilon);
+        return (distance(this,otherVector) < epsilon);
     }
 
     /**
@@ -148,6 +175,84 @@ public class Vector3 {
         return new Vector3(this.x / scalar,this.y / scalar,this.z / scalar);
     }
 
+    /**
+     * Returns the distance between 2 Vector3s without creating a Vector3.
+     *
+     * @param vector1 the first Vector3.
+     * @param vector2 the second Vector3.
+     */
+    public static double distance(Vector3 vector1,Vector3 vector2) {
+        return Math.sqrt(distanceSquared(vector1,vector2));
+    }
+
+    /**
+     * Returns the squared distance between 2 Vector3s without creating a Vector3.
+     *
+     * @param vector1 the first Vector3.
+     * @param vector2 the second Vector3.
+     */
+    public static double distanceSquared(Vector3 vector1,Vector3 vector2) {
+        double deltaX = vector1.x - vector2.x;
+        double deltaY = vector1.y - vector2.y;
+        double deltaZ = vector1.z - vector2.z;
+        return (deltaX * deltaX) + (deltaY * deltaY) + (deltaZ * deltaZ);
+    }
+
+    /**
+     * Returns the dot product of (vector1 - vector2) and direction without creating a Vector3.
+     *
+     * @param vector1 the Vector3 to subtract from.
+     * @param vector2 the Vector3 to subtract.
+     * @param direction the Vector3 to dot with.
+     */
+    public static double subtractDot(Vector3 vector1,Vector3 vector2,Vector3 direction) {
+        return ((vector1.x - vector2.x) * direction.x) + ((vector1.y - vector2.y) * direction.y) + ((vector1.z - vector2.z) * direction.z);
+    }
+
+    /**
+     * Stores the cross product of (point2 - point1) and (point3 - point1) in the destination.
+     * The destination can be one of the points.
+     *
+     * @param point1 the point both sides are relative to.
+     * @param point2 the end of the first side.
+     * @param point3 the end of the second side.
+     * @param destination the Vector3 to store the result in.
+     */
+    public static Vector3 crossOfSides(Vector3 point1,Vector3 point2,Vector3 point3,Vector3 destination) {
+        double side1X = point2.x - point1.x;
+        double side1Y = point2.y - point1.y;
+        double side1Z = point2.z - point1.z;
+        double side2X = point3.x - point1.x;
+        double side2Y = point3.y - point1.y;
+        double side2Z = point3.z - point1.z;
+
+        return destination.set((side1Y * side2Z) - (side1Z * side2Y),(side1Z * side2X) - (side1X * side2Z),(side1X * side2Y) - (side1Y * side2X));
+    }
+
+    /**
+     * Returns the bits of a coordinate for hashing. 0 and -0 have the same bits since they are equal.
+     *
+     * @param coordinate coordinate to hash.
+     */
+    public static long getCoordinateBits(double coordinate) {
+        return Double.doubleToLongBits(coordinate + 0.0);
+    }
+
+    /**
+     * Mixes the bits of a hash so that coordinates with few differing bits, like
+     * whole numbers, don't have the same hash codes.
+     *
+     * @param bits bits to mix.
+     */
+    public static int mixHash(long bits) {
+        bits ^= (bits >>> 33);
+        bits *= 0xff51afd7ed558ccdL;
+        bits ^= (bits >>> 33);
+        bits *= 0xc4ceb9fe1a85ec53L;
+        bits ^= (bits >>> 33);
+        return (int) bits;
+    }
+
     /**
      * Returns whether another object is equal.
      *
@@ -176,6 +281,9 @@ public class Vector3 {
      */
     @Override
     public int hashCode() {
-        return (Double.toString(this.x) + Double.toString(this.y) + Double.toString(this.z)).hashCode();
+        long bits = getCoordinateBits(this.x);
+        bits = (bits * 31) + getCoordinateBits(this.y);
+        bits = (bits * 31) + getCoordinateBits(this.z);
+        return mixHash(bits);
     }
 }
@@ -7,6 +7,7 @@
 
 package wavefront;
 
+import vectors.Vector3;
 import wavefront.OBJTriangle.OBJTriangleVertex;
 
 public class Line3D {
@@ -23,7 +24,7 @@ public class Line3D {
     public Line3D(OBJTriangleVertex start, OBJTriangleVertex end) {
         this.start = start;
         this.end = end;
-        this.length = end.vertex.subtract(start.vertex).magnitude;
+        this.length = Vector3.distance(end.vertex,start.vertex);
     }
 
     /**
@@ -38,8 +39,8 @@ public class Line3D {
         }
 
         // Return based on lengths.
-        double distanceFromStart = (point.vertex.subtract(this.start.vertex)).magnitude;
-        double distanceFromEnd = (point.vertex.subtract(this.end.vertex)).magnitude;
+        double distanceFromStart = Vector3.distance(point.vertex,this.start.vertex);
+        double distanceFromEnd = Vector3.distance(point.vertex,this.end.vertex);
 
         if (this.length >= distanceFromStart && this.length >= distanceFromEnd) {
             return Math.abs((distanceFromStart + distanceFromEnd) - this.length) < 0.0000001;
@@ -98,6 +99,14 @@ public class Line3D {
         return (this.start.equals(otherLine.start) && this.end.equals(otherLine.end)) || (this.start.equals(otherLine.end) && this.end.equals(otherLine.start));
     }
 
+    /**
+     * Returns the hash code of the line. The same for both directions.
+     */
+    @Override
+    public int hashCode() {
+        return this.start.hashCode() + this.end.hashCode();
+    }
+
     /**
      * Returns the Line as a string.
      */
@@ -0,0 +1,330 @@
+/*
+ * Stores parsed OBJs (MeshStores) in a binary file so they can be read again
+ * without parsing the text. The arrays of the MeshStore are stored directly
+ * and are read from a memory mapped file with bulk copies. The file stores the
+ * SHA-256 hash of the source OBJ, and is ignored if the source changed.
+ *
+ * @author: agent
+ * @date: 10/17/2026
+ */
+
+package wavefront;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+
+public class MeshCache {
+    public static final int MAGIC = 0x4D534843;
+    public static final int FORMAT_VERSION = 1;
+    public static final int HASH_LENGTH = 32;
+    private static final int HEADER_LENGTH = 4 + 4 + HASH_LENGTH + (8 * 4);
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * Returns the SHA-256 hash of the remaining bytes of a buffer. The position of the buffer isn't changed.
+     *
+     * @param buffer buffer to hash.
+     */
+    public static byte[] getHash(ByteBuffer buffer) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(buffer.duplicate());
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported.",e);
+        }
+    }
+
+    /**
+     * Returns the SHA-256 hash of a file. The file is memory mapped instead of copied.
+     *
+     * @param file file to hash.
+     * @throws IOException if the file can't be read.
+     */
+    public static byte[] getHash(File file) throws IOException {
+        return getHash(OBJReader.mapFile(file));
+    }
+
+    /**
+     * Returns a hash as hexadecimal.
+     *
+     * @param hash hash to convert.
+     */
+    public static String getHex(byte[] hash) {
+        char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            hex[i * 2] = HEX_DIGITS[(hash[i] >> 4) & 0xF];
+            hex[(i * 2) + 1] = HEX_DIGITS[hash[i] & 0xF];
+        }
+
+        return new String(hex);
+    }
+
+    /**
+     * Returns the bytes needed to store a string.
+     *
+     * @param string string to store.
+     */
+    private static int getStringLength(String string) {
+        return 4 + string.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Stores a string as the length of the bytes followed by the UTF-8 bytes.
+     *
+     * @param buffer buffer to store in.
+     * @param string string to store.
+     */
+    private static void putString(ByteBuffer buffer,String string) {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Reads a string stored by putString.
+     *
+     * @param buffer buffer to read from.
+     */
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes,StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the bytes needed to store a mesh.
+     *
+     * @param mesh mesh to store.
+     */
+    private static long getLength(MeshStore mesh) {
+        long length = HEADER_LENGTH;
+        length += 8L * ((mesh.positionCount * 3) + mesh.positionCount + (mesh.normalCount * 3) + (mesh.textureCount * 3));
+        for (Map.Entry<String,MeshStore.FaceList> entry : mesh.faces.entrySet()) {
+            length += 4 + (4L * entry.getValue().count * MeshStore.FACE_STRIDE) + getStringLength(entry.getKey());
+        }
+        for (String mtlLib : mesh.mtlLibs) {
+            length += getStringLength(mtlLib);
+        }
+        for (Map.Entry<String,String> entry : mesh.mtls.entrySet()) {
+            length += getStringLength(entry.getKey()) + getStringLength(entry.getValue());
+        }
+
+        return length;
+    }
+
+    /**
+     * Writes a mesh to a file. The arrays are stored first so they are aligned, followed by the faces
+     * of each group and then the strings. The file is written to a temporary file first, so a reader
+     * never reads a partially written file.
+     *
+     * @param mesh mesh to write.
+     * @param sourceHash SHA-256 hash of the source OBJ.
+     * @param file file to write to.
+     * @throws IOException if the file can't be written or the mesh is larger than 2 GB.
+     */
+    public static void write(MeshStore mesh,byte[] sourceHash,File file) throws IOException {
+        long length = getLength(mesh);
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Mesh is too large to cache: " + file);
+        }
+
+        // Store the header.
+        ByteBuffer buffer = ByteBuffer.allocate((int) length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putInt(FORMAT_VERSION);
+        buffer.put(sourceHash,0,HASH_LENGTH);
+        buffer.putInt(mesh.unprocessedLines);
+        buffer.putInt(mesh.positionCount);
+        buffer.putInt(mesh.normalCount);
+        buffer.putInt(mesh.textureCount);
+        buffer.putInt(mesh.faces.size());
+        buffer.putInt(mesh.mtlLibs.size());
+        buffer.putInt(mesh.mtls.size());
+        buffer.putInt(0);
+
+        // Store the arrays.
+        buffer.asDoubleBuffer().put(mesh.positions,0,mesh.positionCount * 3);
+        buffer.position(buffer.position() + (8 * mesh.positionCount * 3));
+        buffer.asDoubleBuffer().put(mesh.positionWeights,0,mesh.positionCount);
+        buffer.position(buffer.position() + (8 * mesh.positionCount));
+        buffer.asDoubleBuffer().put(mesh.normals,0,mesh.normalCount * 3);
+        buffer.position(buffer.position() + (8 * mesh.normalCount * 3));
+        buffer.asDoubleBuffer().put(mesh.textures,0,mesh.textureCount * 3);
+        buffer.position(buffer.position() + (8 * mesh.textureCount * 3));
+        for (MeshStore.FaceList faceList : mesh.faces.values()) {
+            buffer.putInt(faceList.count);
+            buffer.asIntBuffer().put(faceList.indices,0,faceList.count * MeshStore.FACE_STRIDE);
+            buffer.position(buffer.position() + (4 * faceList.count * MeshStore.FACE_STRIDE));
+        }
+
+        // Store the strings.
+        for (String groupName : mesh.faces.keySet()) {
+            putString(buffer,groupName);
+        }
+        for (String mtlLib : mesh.mtlLibs) {
+            putString(buffer,mtlLib);
+        }
+        for (Map.Entry<String,String> entry : mesh.mtls.entrySet()) {
+            putString(buffer,entry.getKey());
+            putString(buffer,entry.getValue());
+        }
+
+        // Write the file.
+        buffer.flip();
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (directory != null && !directory.isDirectory()) {
+            Files.createDirectories(directory.toPath());
+        }
+        File temporaryFile = new File(file.getPath() + "." + Thread.currentThread().getId() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporaryFile.toPath(),StandardOpenOption.CREATE,StandardOpenOption.WRITE,StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        Files.move(temporaryFile.toPath(),file.toPath(),StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Reads a mesh from a file. Returns null if the file doesn't exist, was stored for a different
+     * source, or can't be read, so the source should be parsed instead.
+     *
+     * @param file file to read.
+     * @param sourceHash SHA-256 hash of the source OBJ.
+     * @throws IOException if the file exists but can't be mapped.
+     */
+    public static MeshStore read(File file,byte[] sourceHash) throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+        MappedByteBuffer mappedBuffer = OBJReader.mapFile(file);
+        ByteBuffer buffer = mappedBuffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        try {
+            // Read the header and return if it is for a different source.
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                return null;
+            }
+            byte[] storedHash = new byte[HASH_LENGTH];
+            buffer.get(storedHash);
+            if (!Arrays.equals(storedHash,sourceHash)) {
+                return null;
+            }
+            MeshStore mesh = new MeshStore();
+            mesh.unprocessedLines = buffer.getInt();
+            mesh.positionCount = buffer.getInt();
+            mesh.normalCount = buffer.getInt();
+            mesh.textureCount = buffer.getInt();
+            int groupCount = buffer.getInt();
+            int mtlLibCount = buffer.getInt();
+            int mtlCount = buffer.getInt();
+            buffer.getInt();
+            if (mesh.positionCount < 0 || mesh.normalCount < 0 || mesh.textureCount < 0 || groupCount < 0 || mtlLibCount < 0 || mtlCount < 0) {
+                return null;
+            }
+
+            // Read the arrays.
+            mesh.positions = getDoubles(buffer,mesh.positionCount * 3);
+            mesh.positionWeights = getDoubles(buffer,mesh.positionCount);
+            mesh.normals = getDoubles(buffer,mesh.normalCount * 3);
+            mesh.textures = getDoubles(buffer,mesh.textureCount * 3);
+            ArrayList<MeshStore.FaceList> faceLists = new ArrayList<>();
+            for (int i = 0; i < groupCount; i++) {
+                MeshStore.FaceList faceList = new MeshStore.FaceList();
+                faceList.count = buffer.getInt();
+                faceList.indices = getInts(buffer,faceList.count * MeshStore.FACE_STRIDE);
+                faceLists.add(faceList);
+            }
+
+            // Read the strings.
+            for (MeshStore.FaceList faceList : faceLists) {
+                mesh.faces.put(getString(buffer),faceList);
+            }
+            for (int i = 0; i < mtlLibCount; i++) {
+                mesh.mtlLibs.add(getString(buffer));
+            }
+            for (int i = 0; i < mtlCount; i++) {
+                mesh.mtls.put(getString(buffer),getString(buffer));
+            }
+            return mesh;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads doubles from a buffer with a bulk copy.
+     *
+     * @param buffer buffer to read from.
+     * @param count amount of doubles to read.
+     */
+    private static double[] getDoubles(ByteBuffer buffer,int count) {
+        if (count < 0 || (long) count * 8 > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        double[] values = new double[count];
+        buffer.asDoubleBuffer().get(values);
+        buffer.position(buffer.position() + (8 * count));
+        return values;
+    }
+
+    /**
+     * Reads ints from a buffer with a bulk copy.
+     *
+     * @param buffer buffer to read from.
+     * @param count amount of ints to read.
+     */
+    private static int[] getInts(ByteBuffer buffer,int count) {
+        if (count < 0 || (long) count * 4 > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + (4 * count));
+        return values;
+    }
+
+    /**
+     * Returns the mesh of an OBJ, reading it from the cache file if the OBJ didn't change.
+     * Otherwise, the OBJ is parsed and stored in the cache file. Failing to write the
+     * cache file doesn't stop the mesh from being returned.
+     *
+     * @param source OBJ to read.
+     * @param cacheFile file the mesh is cached in.
+     * @throws IOException if the OBJ can't be read.
+     */
+    public static MeshStore getMesh(File source,File cacheFile) throws IOException {
+        MappedByteBuffer sourceBuffer = OBJReader.mapFile(source);
+        byte[] sourceHash = getHash(sourceBuffer);
+        MeshStore mesh = read(cacheFile,sourceHash);
+        if (mesh != null) {
+            return mesh;
+        }
+
+        mesh = OBJReader.parse(new OBJTokenizer(sourceBuffer));
+        try {
+            write(mesh,sourceHash,cacheFile);
+        } catch (IOException e) {
+            // The mesh is parsed again next time.
+        }
+        return mesh;
+    }
+}
@@ -0,0 +1,582 @@
+/*
+ * Stores the data of an OBJ in primitive arrays instead of objects.
+ * Positions, normals, and texture vertices are deduplicated so that equal
+ * values always have the same id, allowing ids to be compared instead of vectors.
+ *
+ * @author: agent
+ * @date: 10/17/2026
+ */
+
+package wavefront;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+
+public class MeshStore {
+    public static final int NO_INDEX = -1;
+    public static final int CORNER_STRIDE = 3;
+    public static final int FACE_STRIDE = 3 * CORNER_STRIDE;
+    public static final int POSITION_OFFSET = 0;
+    public static final int TEXTURE_OFFSET = 1;
+    public static final int NORMAL_OFFSET = 2;
+    private static final int INITIAL_CAPACITY = 64;
+
+    public double[] positions;
+    public double[] positionWeights;
+    public int positionCount;
+    public double[] normals;
+    public int normalCount;
+    public double[] textures;
+    public int textureCount;
+    public ArrayList<String> mtlLibs;
+    public HashMap<String,String> mtls;
+    public LinkedHashMap<String,FaceList> faces;
+    public int unprocessedLines;
+
+    private CoordinateIndex positionIndex;
+    private CoordinateIndex normalIndex;
+    private CoordinateIndex textureIndex;
+    private IntList positionIds;
+    private IntList normalIds;
+    private IntList textureIds;
+
+
+
+    /**
+     * Growable list of ints.
+     */
+    private static class IntList {
+        public int[] values = new int[INITIAL_CAPACITY];
+        public int size;
+
+        /**
+         * Adds a value to the list.
+         *
+         * @param value value to add.
+         */
+        public void add(int value) {
+            if (this.size == this.values.length) {
+                this.values = Arrays.copyOf(this.values,Math.max(this.values.length * 2,INITIAL_CAPACITY));
+            }
+            this.values[this.size++] = value;
+        }
+    }
+
+    /**
+     * Faces of a group. Each face has 3 corners, with each corner storing
+     * the position id, texture id, and normal id (or NO_INDEX).
+     */
+    public static class FaceList {
+        public int[] indices = new int[INITIAL_CAPACITY * FACE_STRIDE];
+        public int count;
+
+        /**
+         * Adds a face.
+         *
+         * @param corners position, texture, and normal ids of the 3 corners.
+         */
+        public void add(int[] corners) {
+            int start = this.count * FACE_STRIDE;
+            if (start + FACE_STRIDE > this.indices.length) {
+                this.indices = Arrays.copyOf(this.indices,Math.max(this.indices.length * 2,INITIAL_CAPACITY * FACE_STRIDE));
+            }
+            System.arraycopy(corners,0,this.indices,start,FACE_STRIDE);
+            this.count++;
+        }
+
+        /**
+         * Returns an id of a corner of a face.
+         *
+         * @param face index of the face.
+         * @param corner corner of the face (0 to 2).
+         * @param offset offset of the id (POSITION_OFFSET, TEXTURE_OFFSET, or NORMAL_OFFSET).
+         */
+        public int get(int face,int corner,int offset) {
+            return this.indices[(face * FACE_STRIDE) + (corner * CORNER_STRIDE) + offset];
+        }
+
+        /**
+         * Removes all of the faces.
+         */
+        public void clear() {
+            this.count = 0;
+        }
+
+        /**
+         * Shrinks the array to the amount of faces.
+         */
+        public void trim() {
+            this.indices = Arrays.copyOf(this.indices,this.count * FACE_STRIDE);
+        }
+    }
+
+    /**
+     * Open addressing hash index of 3 component coordinates stored in an array.
+     * The coordinates are compared by value, with 0 and -0 being treated as equal.
+     */
+    private static class CoordinateIndex {
+        private int[] table = new int[INITIAL_CAPACITY * 2];
+        private int size;
+
+        /**
+         * Returns the hash of a coordinate.
+         *
+         * @param x the x coordinate.
+         * @param y the y coordinate.
+         * @param z the z coordinate.
+         */
+        private static int hash(double x,double y,double z) {
+            long bits = Double.doubleToLongBits(x + 0.0);
+            bits = (bits * 31) + Double.doubleToLongBits(y + 0.0);
+            bits = (bits * 31) + Double.doubleToLongBits(z + 0.0);
+            bits ^= (bits >>> 33);
+            bits *= 0xff51afd7ed558ccdL;
+            bits ^= (bits >>> 33);
+            return (int) bits;
+        }
+
+        /**
+         * Returns the id of a coordinate, or NO_INDEX if it isn't stored.
+         *
+         * @param values array the ids index into.
+         * @param x the x coordinate.
+         * @param y the y coordinate.
+         * @param z the z coordinate.
+         */
+        public int get(double[] values,double x,double y,double z) {
+            int mask = this.table.length - 1;
+            for (int slot = hash(x,y,z) & mask; this.table[slot] != 0; slot = (slot + 1) & mask) {
+                int id = this.table[slot] - 1;
+                if (values[id * 3] == x && values[(id * 3) + 1] == y && values[(id * 3) + 2] == z) {
+                    return id;
+                }
+            }
+
+            return NO_INDEX;
+        }
+
+        /**
+         * Stores the id of a coordinate. Assumes it isn't already stored.
+         *
+         * @param values array the ids index into.
+         * @param id id of the coordinate to store.
+         */
+        public void put(double[] values,int id) {
+            if ((this.size + 1) * 2 > this.table.length) {
+                int[] oldTable = this.table;
+                this.table = new int[oldTable.length * 2];
+                this.size = 0;
+                for (int oldId : oldTable) {
+                    if (oldId != 0) {
+                        this.put(values,oldId - 1);
+                    }
+                }
+            }
+
+            int mask = this.table.length - 1;
+            int slot = hash(values[id * 3],values[(id * 3) + 1],values[(id * 3) + 2]) & mask;
+            while (this.table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            this.table[slot] = id + 1;
+            this.size++;
+        }
+    }
+
+    /**
+     * Uniform grid of positions used to weld positions. The cells are twice the weld distance, so only
+     * the cell of a position and the neighboring cells on the closer side of each axis (8 cells) need
+     * to be checked. The cells are stored with open addressing, and the positions of a cell are linked
+     * through an array of the next ids.
+     */
+    private static class WeldGrid {
+        private double distance;
+        private double cellSize;
+        private long[] cellCoordinates = new long[INITIAL_CAPACITY * 2 * 3];
+        private int[] cellHeads = new int[INITIAL_CAPACITY * 2];
+        private int[] nextIds = new int[INITIAL_CAPACITY];
+        private int cellCount;
+
+        /**
+         * Creates a WeldGrid.
+         *
+         * @param distance distance to weld positions within.
+         */
+        public WeldGrid(double distance) {
+            this.distance = distance;
+            this.cellSize = distance * 2;
+        }
+
+        /**
+         * Returns the hash of a cell.
+         *
+         * @param cellX x index of the cell.
+         * @param cellY y index of the cell.
+         * @param cellZ z index of the cell.
+         */
+        private static int hash(long cellX,long cellY,long cellZ) {
+            long bits = (cellX * 73856093L) ^ (cellY * 19349663L) ^ (cellZ * 83492791L);
+            bits ^= (bits >>> 33);
+            bits *= 0xff51afd7ed558ccdL;
+            bits ^= (bits >>> 33);
+            return (int) bits;
+        }
+
+        /**
+         * Returns the slot of a cell, or the empty slot to store it in if it isn't stored.
+         *
+         * @param cellX x index of the cell.
+         * @param cellY y index of the cell.
+         * @param cellZ z index of the cell.
+         */
+        private int getSlot(long cellX,long cellY,long cellZ) {
+            int mask = this.cellHeads.length - 1;
+            int slot = hash(cellX,cellY,cellZ) & mask;
+            while (this.cellHeads[slot] != 0 && (this.cellCoordinates[slot * 3] != cellX || this.cellCoordinates[(slot * 3) + 1] != cellY || this.cellCoordinates[(slot * 3) + 2] != cellZ)) {
+                slot = (slot + 1) & mask;
+            }
+
+            return slot;
+        }
+
+        /**
+         * Returns the lowest id of a position closer than the weld distance to a position, or NO_INDEX if there is none.
+         *
+         * @param positions positions the ids index into.
+         * @param x the x coordinate.
+         * @param y the y coordinate.
+         * @param z the z coordinate.
+         */
+        public int getClose(double[] positions,double x,double y,double z) {
+            double gridX = x / this.cellSize;
+            double gridY = y / this.cellSize;
+            double gridZ = z / this.cellSize;
+            long cellX = (long) Math.floor(gridX);
+            long cellY = (long) Math.floor(gridY);
+            long cellZ = (long) Math.floor(gridZ);
+            long directionX = (gridX - cellX < 0.5 ? -1 : 1);
+            long directionY = (gridY - cellY < 0.5 ? -1 : 1);
+            long directionZ = (gridZ - cellZ < 0.5 ? -1 : 1);
+            double distanceSquared = this.distance * this.distance;
+
+            int closeId = NO_INDEX;
+            for (long offsetX = 0; offsetX <= 1; offsetX++) {
+                for (long offsetY = 0; offsetY <= 1; offsetY++) {
+                    for (long offsetZ = 0; offsetZ <= 1; offsetZ++) {
+                        int slot = this.getSlot(cellX + (offsetX * directionX),cellY + (offsetY * directionY),cellZ + (offsetZ * directionZ));
+                        for (int id = this.cellHeads[slot] - 1; id != NO_INDEX; id = this.nextIds[id] - 1) {
+                            double deltaX = positions[id * 3] - x;
+                            double deltaY = positions[(id * 3) + 1] - y;
+                            double deltaZ = positions[(id * 3) + 2] - z;
+                            if ((deltaX * deltaX) + (deltaY * deltaY) + (deltaZ * deltaZ) < distanceSquared && (closeId == NO_INDEX || id < closeId)) {
+                                closeId = id;
+                            }
+                        }
+                    }
+                }
+            }
+
+            return closeId;
+        }
+
+        /**
+         * Stores the id of a position.
+         *
+         * @param positions positions the ids index into.
+         * @param id id of the position to store.
+         */
+        public void put(double[] positions,int id) {
+            if (id >= this.nextIds.length) {
+                this.nextIds = Arrays.copyOf(this.nextIds,Math.max(this.nextIds.length * 2,id + 1));
+            }
+            if ((this.cellCount + 1) * 2 > this.cellHeads.length) {
+                long[] oldCoordinates = this.cellCoordinates;
+                int[] oldHeads = this.cellHeads;
+                this.cellCoordinates = new long[oldCoordinates.length * 2];
+                this.cellHeads = new int[oldHeads.length * 2];
+                for (int oldSlot = 0; oldSlot < oldHeads.length; oldSlot++) {
+                    if (oldHeads[oldSlot] != 0) {
+                        int slot = this.getSlot(oldCoordinates[oldSlot * 3],oldCoordinates[(oldSlot * 3) + 1],oldCoordinates[(oldSlot * 3) + 2]);
+                        System.arraycopy(oldCoordinates,oldSlot * 3,this.cellCoordinates,slot * 3,3);
+                        this.cellHeads[slot] = oldHeads[oldSlot];
+                    }
+                }
+            }
+
+            long cellX = (long) Math.floor(positions[id * 3] / this.cellSize);
+            long cellY = (long) Math.floor(positions[(id * 3) + 1] / this.cellSize);
+            long cellZ = (long) Math.floor(positions[(id * 3) + 2] / this.cellSize);
+            int slot = this.getSlot(cellX,cellY,cellZ);
+            if (this.cellHeads[slot] == 0) {
+                this.cellCoordinates[slot * 3] = cellX;
+                this.cellCoordinates[(slot * 3) + 1] = cellY;
+                this.cellCoordinates[(slot * 3) + 2] = cellZ;
+                this.cellCount++;
+            }
+            this.nextIds[id] = this.cellHeads[slot];
+            this.cellHeads[slot] = id + 1;
+        }
+    }
+
+
+
+    /**
+     * Creates an empty MeshStore.
+     */
+    public MeshStore() {
+        this.positions = new double[INITIAL_CAPACITY * 3];
+        this.positionWeights = new double[INITIAL_CAPACITY];
+        this.normals = new double[INITIAL_CAPACITY * 3];
+        this.textures = new double[INITIAL_CAPACITY * 3];
+        this.mtlLibs = new ArrayList<>();
+        this.mtls = new HashMap<>();
+        this.faces = new LinkedHashMap<>();
+        this.positionIndex = new CoordinateIndex();
+        this.normalIndex = new CoordinateIndex();
+        this.textureIndex = new CoordinateIndex();
+        this.positionIds = new IntList();
+        this.normalIds = new IntList();
+        this.textureIds = new IntList();
+    }
+
+    /**
+     * Adds a coordinate to an array if it doesn't exist and returns the id of it.
+     *
+     * @param values array of the coordinates.
+     * @param count amount of coordinates in the array.
+     * @param index index of the coordinates.
+     * @param x the x coordinate.
+     * @param y the y coordinate.
+     * @param z the z coordinate.
+     */
+    private static int getOrAddCoordinate(double[] values,int count,CoordinateIndex index,double x,double y,double z) {
+        int id = index.get(values,x,y,z);
+        if (id == NO_INDEX) {
+            id = count;
+            values[id * 3] = x;
+            values[(id * 3) + 1] = y;
+            values[(id * 3) + 2] = z;
+            index.put(values,id);
+        }
+
+        return id;
+    }
+
+    /**
+     * Adds a position (v) and returns the id of it.
+     *
+     * @param x the x coordinate.
+     * @param y the y coordinate.
+     * @param z the z coordinate.
+     * @param w the vertex color multiplier.
+     */
+    public int addPosition(double x,double y,double z,double w) {
+        if ((this.positionCount + 1) * 3 > this.positions.length) {
+            this.positions = Arrays.copyOf(this.positions,Math.max(this.positions.length * 2,INITIAL_CAPACITY * 3));
+            this.positionWeights = Arrays.copyOf(this.positionWeights,Math.max(this.positionWeights.length * 2,INITIAL_CAPACITY));
+        }
+
+        int id = getOrAddCoordinate(this.positions,this.positionCount,this.positionIndex,x,y,z);
+        if (id == this.positionCount) {
+            this.positionWeights[id] = w;
+            this.positionCount++;
+        }
+        this.positionIds.add(id);
+        return id;
+    }
+
+    /**
+     * Adds a normal (vn) and returns the id of it.
+     *
+     * @param x the x coordinate.
+     * @param y the y coordinate.
+     * @param z the z coordinate.
+     */
+    public int addNormal(double x,double y,double z) {
+        if ((this.normalCount + 1) * 3 > this.normals.length) {
+            this.normals = Arrays.copyOf(this.normals,Math.max(this.normals.length * 2,INITIAL_CAPACITY * 3));
+        }
+
+        int id = getOrAddCoordinate(this.normals,this.normalCount,this.normalIndex,x,y,z);
+        if (id == this.normalCount) {
+            this.normalCount++;
+        }
+        this.normalIds.add(id);
+        return id;
+    }
+
+    /**
+     * Adds a texture vertex (vt) and returns the id of it.
+     *
+     * @param u the u coordinate.
+     * @param v the v coordinate.
+     * @param w the vertex color multiplier.
+     */
+    public int addTexture(double u,double v,double w) {
+        if ((this.textureCount + 1) * 3 > this.textures.length) {
+            this.textures = Arrays.copyOf(this.textures,Math.max(this.textures.length * 2,INITIAL_CAPACITY * 3));
+        }
+
+        int id = getOrAddCoordinate(this.textures,this.textureCount,this.textureIndex,u,v,w);
+        if (id == this.textureCount) {
+            this.textureCount++;
+        }
+        this.textureIds.add(id);
+        return id;
+    }
+
+    /**
+     * Returns the id for an index from an OBJ. Negative indexes are relative to the end.
+     *
+     * @param ids ids of the OBJ indexes.
+     * @param index index from the obj file.
+     */
+    private static int getId(IntList ids,int index) {
+        int listIndex = (index < 0 ? ids.size + index : index - 1);
+        if (listIndex < 0 || listIndex >= ids.size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for " + ids.size + " entries.");
+        }
+
+        return ids.values[listIndex];
+    }
+
+    /**
+     * Returns the position id for a v index from an OBJ.
+     *
+     * @param index index from the obj file.
+     */
+    public int getPositionId(int index) {
+        return getId(this.positionIds,index);
+    }
+
+    /**
+     * Returns the normal id for a vn index from an OBJ.
+     *
+     * @param index index from the obj file.
+     */
+    public int getNormalId(int index) {
+        return getId(this.normalIds,index);
+    }
+
+    /**
+     * Returns the texture id for a vt index from an OBJ.
+     *
+     * @param index index from the obj file.
+     */
+    public int getTextureId(int index) {
+        return getId(this.textureIds,index);
+    }
+
+    /**
+     * Returns the faces of a group, creating the list if it doesn't exist.
+     *
+     * @param groupName name of the group.
+     */
+    public FaceList getFaces(String groupName) {
+        FaceList faceList = this.faces.get(groupName);
+        if (faceList == null) {
+            faceList = new FaceList();
+            this.faces.put(groupName,faceList);
+        }
+
+        return faceList;
+    }
+
+    /**
+     * Returns the total amount of faces.
+     */
+    public int getFaceCount() {
+        int faceCount = 0;
+        for (FaceList faceList : this.faces.values()) {
+            faceCount += faceList.count;
+        }
+
+        return faceCount;
+    }
+
+    /**
+     * Welds positions that are closer than a distance so nearly equal positions have the same id.
+     * Each position is welded to the first position closer than the distance, which keeps its
+     * coordinates and weight. Faces that have the same position more than once after welding
+     * are removed. Should only be called after reading, since the ids from the OBJ are changed.
+     * Returns the amount of positions that were welded.
+     *
+     * @param epsilon distance to weld positions within.
+     */
+    public int weldPositions(double epsilon) {
+        if (epsilon <= 0 || this.positionCount == 0) {
+            return 0;
+        }
+
+        // Find the welded id of each position. The kept positions are moved to the start of the arrays.
+        WeldGrid weldGrid = new WeldGrid(epsilon);
+        int[] weldedIds = new int[this.positionCount];
+        int weldedCount = 0;
+        for (int id = 0; id < this.positionCount; id++) {
+            double x = this.positions[id * 3];
+            double y = this.positions[(id * 3) + 1];
+            double z = this.positions[(id * 3) + 2];
+            int weldedId = weldGrid.getClose(this.positions,x,y,z);
+            if (weldedId == NO_INDEX) {
+                weldedId = weldedCount;
+                this.positions[weldedId * 3] = x;
+                this.positions[(weldedId * 3) + 1] = y;
+                this.positions[(weldedId * 3) + 2] = z;
+                this.positionWeights[weldedId] = this.positionWeights[id];
+                weldGrid.put(this.positions,weldedId);
+                weldedCount++;
+            }
+            weldedIds[id] = weldedId;
+        }
+
+        // Change the ids of the faces and remove the faces that became lines or points.
+        for (FaceList faceList : this.faces.values()) {
+            int faceCount = 0;
+            for (int i = 0; i < faceList.count; i++) {
+                int start = i * FACE_STRIDE;
+                int position1 = weldedIds[faceList.indices[start + POSITION_OFFSET]];
+                int position2 = weldedIds[faceList.indices[start + CORNER_STRIDE + POSITION_OFFSET]];
+                int position3 = weldedIds[faceList.indices[start + (2 * CORNER_STRIDE) + POSITION_OFFSET]];
+                if (position1 == position2 || position1 == position3 || position2 == position3) {
+                    continue;
+                }
+
+                int newStart = faceCount * FACE_STRIDE;
+                System.arraycopy(faceList.indices,start,faceList.indices,newStart,FACE_STRIDE);
+                faceList.indices[newStart + POSITION_OFFSET] = position1;
+                faceList.indices[newStart + CORNER_STRIDE + POSITION_OFFSET] = position2;
+                faceList.indices[newStart + (2 * CORNER_STRIDE) + POSITION_OFFSET] = position3;
+                faceCount++;
+            }
+            faceList.count = faceCount;
+        }
+
+        int weldedPositions = this.positionCount - weldedCount;
+        this.positionCount = weldedCount;
+        this.positions = Arrays.copyOf(this.positions,weldedCount * 3);
+        this.positionWeights = Arrays.copyOf(this.positionWeights,weldedCount);
+        return weldedPositions;
+    }
+
+    /**
+     * Shrinks the arrays to their sizes and discards the data only needed while reading.
+     */
+    public void trim() {
+        this.positions = Arrays.copyOf(this.positions,this.positionCount * 3);
+        this.positionWeights = Arrays.copyOf(this.positionWeights,this.positionCount);
+        this.normals = Arrays.copyOf(this.normals,this.normalCount * 3);
+        this.textures = Arrays.copyOf(this.textures,this.textureCount * 3);
+        for (FaceList faceList : this.faces.values()) {
+            faceList.trim();
+        }
+
+        this.positionIndex = new CoordinateIndex();
+        this.normalIndex = new CoordinateIndex();
+        this.textureIndex = new CoordinateIndex();
+        this.positionIds = new IntList();
+        this.normalIds = new IntList();
+        this.textureIds = new IntList();
+    }
+}
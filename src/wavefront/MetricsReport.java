@@ -0,0 +1,328 @@
+/*
+ * Writes the metrics of optimizing OBJs as a JSON report. The report
+ * contains the stages of every file and shape, and the totals and
+ * percentiles of the stages and triangle reductions.
+ *
+ * @author: agent
+ * @date: 10/17/2026
+ */
+
+package wavefront;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class MetricsReport {
+    public static int[] PERCENTILES = new int[] {50,90,99};
+
+    public double elapsedSeconds;
+    private ArrayList<OptimizerMetrics> files;
+    private ArrayList<String> failedFiles;
+    private ArrayList<String> failures;
+
+    /**
+     * Creates a MetricsReport.
+     */
+    public MetricsReport() {
+        this.files = new ArrayList<>();
+        this.failedFiles = new ArrayList<>();
+        this.failures = new ArrayList<>();
+    }
+
+    /**
+     * Adds the metrics of an optimized file.
+     *
+     * @param metrics metrics of the file.
+     */
+    public void addFile(OptimizerMetrics metrics) {
+        this.files.add(metrics);
+    }
+
+    /**
+     * Adds a file that failed to optimize.
+     *
+     * @param name name of the file.
+     * @param failure error that stopped the file from being optimized.
+     */
+    public void addFailure(String name,Throwable failure) {
+        this.failedFiles.add(name);
+        this.failures.add(String.valueOf(failure));
+    }
+
+    /**
+     * Returns the value at a percentile of sorted values using the nearest rank.
+     *
+     * @param sortedValues values to get the percentile of, sorted from lowest to highest.
+     * @param percentile percentile to get, from 0 to 100.
+     */
+    public static double getPercentile(double[] sortedValues,int percentile) {
+        if (sortedValues.length == 0) {
+            return 0;
+        }
+
+        int rank = (int) Math.ceil((percentile / 100.0) * sortedValues.length);
+        return sortedValues[Math.max(0,Math.min(sortedValues.length - 1,rank - 1))];
+    }
+
+    /**
+     * Returns a JSON string.
+     *
+     * @param text text to escape.
+     */
+    private static String getJSONString(String text) {
+        StringBuilder string = new StringBuilder("\"");
+        for (int i = 0; i < text.length(); i++) {
+            char character = text.charAt(i);
+            if (character == '"' || character == '\\') {
+                string.append('\\').append(character);
+            } else if (character == '\n') {
+                string.append("\\n");
+            } else if (character == '\r') {
+                string.append("\\r");
+            } else if (character == '\t') {
+                string.append("\\t");
+            } else if (character < 0x20) {
+                string.append(String.format("\\u%04x",(int) character));
+            } else {
+                string.append(character);
+            }
+        }
+
+        return string.append('"').toString();
+    }
+
+    /**
+     * Returns a JSON number. Numbers that can't be stored in JSON are stored as 0.
+     *
+     * @param number number to convert.
+     */
+    private static String getJSONNumber(double number) {
+        if (Double.isNaN(number) || Double.isInfinite(number)) {
+            return "0";
+        }
+        if (number == Math.rint(number) && Math.abs(number) < 1e15) {
+            return Long.toString((long) number);
+        }
+
+        return Double.toString(number);
+    }
+
+    /**
+     * Returns a JSON object with the total, minimum, percentiles, and maximum of values.
+     *
+     * @param values values to summarize. The array is sorted.
+     * @param includeTotal whether to include the total, which isn't meaningful for values like ratios.
+     */
+    private static String getDistribution(double[] values,boolean includeTotal) {
+        Arrays.sort(values);
+        double total = 0;
+        for (double value : values) {
+            total += value;
+        }
+
+        StringBuilder distribution = new StringBuilder("{");
+        if (includeTotal) {
+            distribution.append("\"total\": ").append(getJSONNumber(total)).append(", ");
+        }
+        distribution.append("\"min\": ").append(getJSONNumber(values.length == 0 ? 0 : values[0]));
+        for (int percentile : PERCENTILES) {
+            distribution.append(", \"p").append(percentile).append("\": ").append(getJSONNumber(getPercentile(values,percentile)));
+        }
+        distribution.append(", \"max\": ").append(getJSONNumber(values.length == 0 ? 0 : values[values.length - 1])).append("}");
+        return distribution.toString();
+    }
+
+    /**
+     * Returns a JSON object with the times of a stage.
+     *
+     * @param times times of the stage.
+     */
+    private static String getStageTimes(OptimizerMetrics.StageTimes times) {
+        return "{\"wallNanos\": " + times.wallNanos + ", \"cpuNanos\": " + times.cpuNanos + ", \"allocatedBytes\": " + times.allocatedBytes + "}";
+    }
+
+    /**
+     * Writes the distributions of the times of a stage.
+     *
+     * @param writer writer to write to.
+     * @param indent indent of the lines.
+     * @param stage stage to write.
+     * @param allTimes times of the stage to summarize.
+     */
+    private static void writeStageDistributions(Writer writer,String indent,OptimizerMetrics.Stage stage,ArrayList<OptimizerMetrics.StageTimes> allTimes) throws IOException {
+        double[] wallNanos = new double[allTimes.size()];
+        double[] cpuNanos = new double[allTimes.size()];
+        double[] allocatedBytes = new double[allTimes.size()];
+        for (int i = 0; i < allTimes.size(); i++) {
+            OptimizerMetrics.StageTimes times = allTimes.get(i);
+            wallNanos[i] = times.wallNanos;
+            cpuNanos[i] = times.cpuNanos;
+            allocatedBytes[i] = times.allocatedBytes;
+        }
+
+        writer.write(indent + getJSONString(stage.getName()) + ": {\n");
+        writer.write(indent + "  \"wallNanos\": " + getDistribution(wallNanos,true) + ",\n");
+        writer.write(indent + "  \"cpuNanos\": " + getDistribution(cpuNanos,true) + ",\n");
+        writer.write(indent + "  \"allocatedBytes\": " + getDistribution(allocatedBytes,true) + "\n");
+        writer.write(indent + "}");
+    }
+
+    /**
+     * Writes the summary of the files and shapes.
+     *
+     * @param writer writer to write to.
+     */
+    private void writeSummary(Writer writer) throws IOException {
+        long unprocessedLines = 0;
+        long baseTriangles = 0;
+        long finalTriangles = 0;
+        int shapes = 0;
+        int cachedShapes = 0;
+        double[] reductionRatios = new double[this.files.size()];
+        for (int i = 0; i < this.files.size(); i++) {
+            OptimizerMetrics file = this.files.get(i);
+            unprocessedLines += file.unprocessedLines;
+            baseTriangles += file.baseTriangles;
+            finalTriangles += file.finalTriangles;
+            reductionRatios[i] = file.getReductionRatio();
+            for (OptimizerMetrics.ShapeMetrics shape : file.shapes) {
+                shapes += 1;
+                if (shape.cached) {
+                    cachedShapes += 1;
+                }
+            }
+        }
+
+        writer.write("  \"summary\": {\n");
+        writer.write("    \"files\": " + this.files.size() + ",\n");
+        writer.write("    \"failedFiles\": " + this.failedFiles.size() + ",\n");
+        writer.write("    \"unprocessedLines\": " + unprocessedLines + ",\n");
+        writer.write("    \"baseTriangles\": " + baseTriangles + ",\n");
+        writer.write("    \"finalTriangles\": " + finalTriangles + ",\n");
+        writer.write("    \"shapes\": " + shapes + ",\n");
+        writer.write("    \"cachedShapes\": " + cachedShapes + ",\n");
+        writer.write("    \"reductionRatio\": " + getJSONNumber(OptimizerMetrics.getReductionRatio(baseTriangles,finalTriangles)) + ",\n");
+        writer.write("    \"fileReductionRatios\": " + getDistribution(reductionRatios,false) + ",\n");
+
+        // Write the distributions of the stages of the files.
+        writer.write("    \"fileStages\": {\n");
+        OptimizerMetrics.Stage[] stages = OptimizerMetrics.Stage.values();
+        for (int i = 0; i < stages.length; i++) {
+            ArrayList<OptimizerMetrics.StageTimes> allTimes = new ArrayList<>();
+            for (OptimizerMetrics file : this.files) {
+                allTimes.add(file.getStage(stages[i]));
+            }
+            writeStageDistributions(writer,"      ",stages[i],allTimes);
+            writer.write(i < stages.length - 1 ? ",\n" : "\n");
+        }
+        writer.write("    },\n");
+
+        // Write the distributions of the stages of the shapes.
+        writer.write("    \"shapeStages\": {\n");
+        boolean firstStage = true;
+        for (OptimizerMetrics.Stage stage : stages) {
+            if (!stage.isShapeStage()) {
+                continue;
+            }
+            ArrayList<OptimizerMetrics.StageTimes> allTimes = new ArrayList<>();
+            for (OptimizerMetrics file : this.files) {
+                for (OptimizerMetrics.ShapeMetrics shape : file.shapes) {
+                    allTimes.add(shape.getStage(stage));
+                }
+            }
+            if (!firstStage) {
+                writer.write(",\n");
+            }
+            writeStageDistributions(writer,"      ",stage,allTimes);
+            firstStage = false;
+        }
+        writer.write("\n    }\n");
+        writer.write("  },\n");
+    }
+
+    /**
+     * Writes the metrics of a file.
+     *
+     * @param writer writer to write to.
+     * @param file metrics of the file.
+     */
+    private static void writeFile(Writer writer,OptimizerMetrics file) throws IOException {
+        writer.write("    {\n");
+        writer.write("      \"name\": " + getJSONString(file.name) + ",\n");
+        writer.write("      \"unprocessedLines\": " + file.unprocessedLines + ",\n");
+        writer.write("      \"baseTriangles\": " + file.baseTriangles + ",\n");
+        writer.write("      \"finalTriangles\": " + file.finalTriangles + ",\n");
+        writer.write("      \"reductionRatio\": " + getJSONNumber(file.getReductionRatio()) + ",\n");
+        writer.write("      \"stages\": {\n");
+        OptimizerMetrics.Stage[] stages = OptimizerMetrics.Stage.values();
+        for (int i = 0; i < stages.length; i++) {
+            writer.write("        " + getJSONString(stages[i].getName()) + ": " + getStageTimes(file.getStage(stages[i])));
+            writer.write(i < stages.length - 1 ? ",\n" : "\n");
+        }
+        writer.write("      },\n");
+
+        // Write the shapes with a line for each shape.
+        writer.write("      \"shapes\": [");
+        for (int i = 0; i < file.shapes.size(); i++) {
+            OptimizerMetrics.ShapeMetrics shape = file.shapes.get(i);
+            writer.write(i == 0 ? "\n" : ",\n");
+            writer.write("        {\"baseTriangles\": " + shape.baseTriangles + ", \"finalTriangles\": " + shape.finalTriangles + ", \"cached\": " + shape.cached + ", \"stages\": {");
+            boolean firstStage = true;
+            for (OptimizerMetrics.Stage stage : stages) {
+                if (stage.isShapeStage()) {
+                    writer.write((firstStage ? "" : ", ") + getJSONString(stage.getName()) + ": " + getStageTimes(shape.getStage(stage)));
+                    firstStage = false;
+                }
+            }
+            writer.write("}}");
+        }
+        writer.write(file.shapes.isEmpty() ? "]\n" : "\n      ]\n");
+        writer.write("    }");
+    }
+
+    /**
+     * Writes the report as JSON.
+     *
+     * @param writer writer to write to. It isn't flushed or closed.
+     */
+    public void writeJSON(Writer writer) throws IOException {
+        writer.write("{\n");
+        writer.write("  \"elapsedSeconds\": " + getJSONNumber(this.elapsedSeconds) + ",\n");
+        this.writeSummary(writer);
+
+        // Write the files.
+        writer.write("  \"files\": [");
+        for (int i = 0; i < this.files.size(); i++) {
+            writer.write(i == 0 ? "\n" : ",\n");
+            writeFile(writer,this.files.get(i));
+        }
+        writer.write(this.files.isEmpty() ? "],\n" : "\n  ],\n");
+
+        // Write the failures.
+        writer.write("  \"failures\": [");
+        for (int i = 0; i < this.failedFiles.size(); i++) {
+            writer.write(i == 0 ? "\n" : ",\n");
+            writer.write("    {\"name\": " + getJSONString(this.failedFiles.get(i)) + ", \"error\": " + getJSONString(this.failures.get(i)) + "}");
+        }
+        writer.write(this.failedFiles.isEmpty() ? "]\n" : "\n  ]\n");
+        writer.write("}\n");
+    }
+
+    /**
+     * Writes the report as JSON to a file.
+     *
+     * @param file file to write to.
+     * @throws IOException if the file can't be written.
+     */
+    public void writeToFile(File file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(),StandardCharsets.UTF_8)) {
+            this.writeJSON(writer);
+        }
+    }
+}
@@ -12,19 +12,31 @@ import geometry.Shape;
 import geometry.Triangle;
 import geometry.Triangle3D;
 import modeloptimizer.PointLocalizer;
+import modeloptimizer.ShapeCache;
 import modeloptimizer.ShapeCreator;
 import modeloptimizer.ShapeFiller;
 import vectors.Vector3;
 import wavefront.OBJTriangle.OBJTriangleVertex;
 
-import javax.imageio.stream.IIOByteBuffer;
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 public class OBJOptimizer {
+    public static String VERSION = "1";
+    public static double AREA_TOLERANCE = 0.000001;
+
     private OBJReader objParser;
+    private OptimizerMetrics metrics;
+    private int parallelism = 1;
+    private ForkJoinPool pool;
+    private ShapeCreator.BoundaryMode boundaryMode = ShapeCreator.BoundaryMode.ANGLE_COVERAGE;
+    private ShapeCache shapeCache;
 
     /**
      * Creates an OBJOptimizer.
@@ -32,89 +44,314 @@ public class OBJOptimizer {
      * @param objSource source of the OBJ.
      */
     public OBJOptimizer(String objSource) {
+        this.metrics = new OptimizerMetrics("");
+        OptimizerMetrics.StageTimer timer = new OptimizerMetrics.StageTimer();
         this.objParser = new OBJReader(objSource);
+        timer.lap(this.metrics.getStage(OptimizerMetrics.Stage.READ));
+        this.metrics.unprocessedLines = this.objParser.unprocessedLines;
     }
 
     /**
      * Creates an OBJOptimizer.
      *
+     * @param objSource bytes of the OBJ, from the position to the limit of the buffer.
+     */
+    public OBJOptimizer(ByteBuffer objSource) {
+        this.metrics = new OptimizerMetrics("");
+        OptimizerMetrics.StageTimer timer = new OptimizerMetrics.StageTimer();
+        this.objParser = new OBJReader(objSource);
+        timer.lap(this.metrics.getStage(OptimizerMetrics.Stage.READ));
+        this.metrics.unprocessedLines = this.objParser.unprocessedLines;
+    }
+
+    /**
+     * Creates an OBJOptimizer. Throws an UncheckedIOException if the file can't be read.
+     *
      * @param file file location of the OBJ.
      */
     public OBJOptimizer(File file) {
-        String source = "";
-        Scanner scanner = null;
+        this.metrics = new OptimizerMetrics(file.getName());
+        OptimizerMetrics.StageTimer timer = new OptimizerMetrics.StageTimer();
+        try {
+            this.objParser = new OBJReader(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        timer.lap(this.metrics.getStage(OptimizerMetrics.Stage.READ));
+        this.metrics.unprocessedLines = this.objParser.unprocessedLines;
+    }
+
+    /**
+     * Creates an OBJOptimizer that reads the parsed OBJ from a cache file if the OBJ didn't change.
+     * If it changed, the OBJ is parsed and stored in the cache file. Throws an UncheckedIOException
+     * if the file can't be read.
+     *
+     * @param file file location of the OBJ.
+     * @param meshCacheFile file location of the cached mesh.
+     */
+    public OBJOptimizer(File file,File meshCacheFile) {
+        this.metrics = new OptimizerMetrics(file.getName());
+        OptimizerMetrics.StageTimer timer = new OptimizerMetrics.StageTimer();
+        try {
+            this.objParser = new OBJReader(MeshCache.getMesh(file,meshCacheFile));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        timer.lap(this.metrics.getStage(OptimizerMetrics.Stage.READ));
+        this.metrics.unprocessedLines = this.objParser.unprocessedLines;
+    }
+
+    /**
+     * Sets the amount of shapes that are optimized at once. If it is 1, the shapes are optimized
+     * on the current thread. The results don't depend on the parallelism.
+     *
+     * @param parallelism amount of shapes to optimize at once.
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1,parallelism);
+    }
+
+    /**
+     * Sets the pool the shapes are optimized on if the parallelism is more than 1. The pool isn't shut down,
+     * so one pool can be shared by the OBJOptimizers of a batch instead of each file starting its own threads.
+     * If it is null, a pool with the parallelism is created and shut down for each optimization.
+     *
+     * @param pool pool to optimize the shapes on.
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Sets the method used to find the boundaries of the coplanar shapes.
+     *
+     * @param boundaryMode method for finding the boundaries.
+     */
+    public void setBoundaryMode(ShapeCreator.BoundaryMode boundaryMode) {
+        this.boundaryMode = boundaryMode;
+    }
+
+    /**
+     * Sets the cache used to reuse the filled triangles of repeated shapes. The cache can be shared
+     * between OBJOptimizers, but only if they use the same boundary mode. If it is null, every shape is filled.
+     *
+     * @param shapeCache cache of filled shapes.
+     */
+    public void setShapeCache(ShapeCache shapeCache) {
+        this.shapeCache = shapeCache;
+    }
+
+    /**
+     * Returns the metrics of reading and optimizing the OBJ. The stages after
+     * reading are stored each time the optimized OBJ is written.
+     */
+    public OptimizerMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Returns the total area of triangles.
+     *
+     * @param triangles triangles to add the areas of.
+     */
+    private static double getTotalArea(ArrayList<Triangle> triangles) {
+        double area = 0;
+        for (Triangle triangle : triangles) {
+            area += triangle.area;
+        }
+
+        return area;
+    }
+
+    /**
+     * Fills the boundary shapes with triangles. The shapes are triangulated with ShapeFiller.getTrianglesFromShapes,
+     * and are filled by connecting the points if the triangulation fails or doesn't cover the same area as the
+     * original triangles, like when the original triangles overlap.
+     *
+     * @param boundaryShapes shapes to fill.
+     * @param originalTriangles triangles the shapes were created from.
+     */
+    static ArrayList<Triangle> getTrianglesFromShapes(ArrayList<Shape> boundaryShapes,ArrayList<Triangle> originalTriangles) {
         try {
-            scanner = new Scanner(file);
-            while (scanner.hasNextLine()) {
-                source += scanner.nextLine() + "\n";
+            ArrayList<Triangle> triangles = ShapeFiller.getTrianglesFromShapes(boundaryShapes);
+            double originalArea = getTotalArea(originalTriangles);
+            if (Math.abs(getTotalArea(triangles) - originalArea) <= Math.max(originalArea * AREA_TOLERANCE,AREA_TOLERANCE)) {
+                return triangles;
             }
-        } catch (FileNotFoundException e) {
-            if (scanner != null) {
-                scanner.close();
+        } catch (RuntimeException e) {
+            // Fill the shapes by connecting the points instead, including for failures on degenerate shapes.
+        }
+
+        ArrayList<Line> lines = ShapeFiller.getDrawLinesFromShapes(boundaryShapes);
+        return ShapeFiller.getTrianglesFromLines(lines);
+    }
+
+    /**
+     * Finds the boundaries of the triangles of a coplanar shape and fills them with new triangles.
+     *
+     * @param localSpaceTriangles triangles of the shape in 2D.
+     * @param timer timer to measure the stages with.
+     * @param shapeMetrics metrics to store the stages of the shape in.
+     */
+    private ArrayList<Triangle> getFilledTriangles(ArrayList<Triangle> localSpaceTriangles,OptimizerMetrics.StageTimer timer,OptimizerMetrics.ShapeMetrics shapeMetrics) {
+        ShapeCreator shapeCreator = new ShapeCreator(this.boundaryMode);
+        ArrayList<Shape> boundaryShapes = shapeCreator.getShapesFromTriangles(localSpaceTriangles);
+        timer.lap(shapeMetrics.getStage(OptimizerMetrics.Stage.BOUNDARY));
+
+        ArrayList<Triangle> finalTriangles = getTrianglesFromShapes(boundaryShapes,localSpaceTriangles);
+        timer.lap(shapeMetrics.getStage(OptimizerMetrics.Stage.FILL));
+        return finalTriangles;
+    }
+
+    /**
+     * Optimizes the triangles of a coplanar shape. Returns null if the shape has no triangles with an area.
+     *
+     * @param shapeTriangles triangles of the shape.
+     * @param shapeMetrics metrics to store the stages of the shape in.
+     */
+    private ArrayList<OBJTriangle> getOptimizedShape(ArrayList<OBJTriangle> shapeTriangles,OptimizerMetrics.ShapeMetrics shapeMetrics) {
+        OptimizerMetrics.StageTimer timer = new OptimizerMetrics.StageTimer();
+        shapeMetrics.baseTriangles = shapeTriangles.size();
+
+        // Remove zero width triangles.
+        ArrayList<OBJTriangle> trianglesToRemove = new ArrayList<>();
+        for (OBJTriangle triangle : shapeTriangles) {
+            if (triangle.area == 0.00) {
+                trianglesToRemove.add(triangle);
             }
-            e.printStackTrace();
+        }
+        for (OBJTriangle triangle : trianglesToRemove) {
+            shapeTriangles.remove(shapeTriangles.indexOf(triangle));
         }
 
-        this.objParser = new OBJReader(source);
+        if (shapeTriangles.size() == 0) {
+            return null;
+        }
+
+        // Store all points in a map.
+        HashMap<Vector3, OBJTriangleVertex> pointLookup = new HashMap<>();
+        ArrayList<Triangle3D> baseTriangles = new ArrayList<>();
+        for (OBJTriangle triangle : shapeTriangles) {
+            pointLookup.put(triangle.point1.vertex, triangle.point1);
+            pointLookup.put(triangle.point2.vertex, triangle.point2);
+            pointLookup.put(triangle.point3.vertex, triangle.point3);
+            baseTriangles.add(triangle);
+        }
+
+        // Get optimized triangles.
+        PointLocalizer localizer = new PointLocalizer(shapeTriangles.get(0));
+        ArrayList<Triangle> localSpaceTriangles = localizer.convertTrianglesTo2D(baseTriangles);
+        timer.lap(shapeMetrics.getStage(OptimizerMetrics.Stage.LOCALIZE));
+
+        ArrayList<Triangle> finalTriangles;
+        if (this.shapeCache != null && this.shapeCache.canStore(localSpaceTriangles)) {
+            // Reuse the triangles of a repeated shape. The time to find the shape is part of filling.
+            shapeMetrics.cached = true;
+            finalTriangles = this.shapeCache.getTriangles(localSpaceTriangles,(triangles) -> {
+                shapeMetrics.cached = false;
+                return this.getFilledTriangles(triangles,timer,shapeMetrics);
+            });
+            timer.lap(shapeMetrics.getStage(OptimizerMetrics.Stage.FILL));
+        } else {
+            finalTriangles = this.getFilledTriangles(localSpaceTriangles,timer,shapeMetrics);
+        }
+        ArrayList<Triangle3D> finalTriangles3D = localizer.convertTrianglesTo3D(finalTriangles);
+
+        // Convert triangles back
+        ArrayList<OBJTriangle> newShape = new ArrayList<>();
+        for (Triangle3D triangle : finalTriangles3D) {
+            newShape.add(new OBJTriangle(pointLookup.get(triangle.point1), pointLookup.get(triangle.point2), pointLookup.get(triangle.point3)));
+        }
+        timer.lap(shapeMetrics.getStage(OptimizerMetrics.Stage.UNPROJECT));
+        shapeMetrics.finalTriangles = newShape.size();
+        return newShape;
     }
 
     /**
-     * Optimizes the triangles from the read OBJ.
+     * Optimizes shapes on the pool that was set, or on a new ForkJoinPool. The results are in the same order as the shapes.
+     *
+     * @param shapes shapes to optimize.
+     * @param shapeMetrics metrics to store the stages of the shapes in, in the same order as the shapes.
      */
-    private HashMap<String,ArrayList<ArrayList<OBJTriangle>>> getOptimizedTriangles() {
-        HashMap<String,ArrayList<ArrayList<OBJTriangle>>> triangles = this.objParser.getTriangles();
+    private ArrayList<ArrayList<OBJTriangle>> getOptimizedShapesInParallel(ArrayList<ArrayList<OBJTriangle>> shapes,ArrayList<OptimizerMetrics.ShapeMetrics> shapeMetrics) {
+        // Create the tasks, starting with the largest shapes so one large shape doesn't finish last.
+        ArrayList<Integer> shapeOrder = new ArrayList<>();
+        for (int i = 0; i < shapes.size(); i++) {
+            shapeOrder.add(i);
+        }
+        shapeOrder.sort((index1,index2) -> Integer.compare(shapes.get(index2).size(),shapes.get(index1).size()));
+
+        ArrayList<ArrayList<OBJTriangle>> newShapes = new ArrayList<>();
+        ArrayList<ForkJoinTask<ArrayList<OBJTriangle>>> tasks = new ArrayList<>();
+        for (int i = 0; i < shapes.size(); i++) {
+            newShapes.add(null);
+            tasks.add(null);
+        }
+
+        // Run the tasks and store the results by the index of the shape.
+        ForkJoinPool pool = (this.pool != null ? this.pool : new ForkJoinPool(this.parallelism));
+        try {
+            for (int index : shapeOrder) {
+                ArrayList<OBJTriangle> shapeTriangles = shapes.get(index);
+                OptimizerMetrics.ShapeMetrics metrics = shapeMetrics.get(index);
+                tasks.set(index,pool.submit(() -> this.getOptimizedShape(shapeTriangles,metrics)));
+            }
+            for (int i = 0; i < shapes.size(); i++) {
+                newShapes.set(i,tasks.get(i).join());
+            }
+        } finally {
+            if (pool != this.pool) {
+                pool.shutdown();
+            }
+        }
+
+        return newShapes;
+    }
+
+    /**
+     * Optimizes the coplanar sets of triangles from the read OBJ. The sets are replaced with the optimized sets.
+     *
+     * @param triangles coplanar sets of triangles to optimize.
+     */
+    private HashMap<String,ArrayList<ArrayList<OBJTriangle>>> getOptimizedTriangles(HashMap<String,ArrayList<ArrayList<OBJTriangle>>> triangles) {
+        // Get the shapes of all the groups.
+        ArrayList<String> groupNames = new ArrayList<>(triangles.keySet());
+        ArrayList<ArrayList<OBJTriangle>> shapes = new ArrayList<>();
+        for (String groupName : groupNames) {
+            shapes.addAll(triangles.get(groupName));
+        }
 
         // Optimize triangles
-        for (String groupName : triangles.keySet()) {
-            ArrayList<ArrayList<OBJTriangle>> shapes = triangles.get(groupName);
-            ArrayList<ArrayList<OBJTriangle>> newShapes = new ArrayList<>();
-            triangles.put(groupName,newShapes);
-
-            for (ArrayList<OBJTriangle> shapeTriangles : shapes) {
-                // Remove zero width triangles.
-                ArrayList<OBJTriangle> trianglesToRemove = new ArrayList<>();
-                for (OBJTriangle triangle : shapeTriangles) {
-                    if (triangle.area == 0.00) {
-                        trianglesToRemove.add(triangle);
-                    }
-                }
-                for (OBJTriangle triangle : trianglesToRemove) {
-                    shapeTriangles.remove(shapeTriangles.indexOf(triangle));
-                }
+        ArrayList<OptimizerMetrics.ShapeMetrics> shapeMetrics = new ArrayList<>();
+        for (int i = 0; i < shapes.size(); i++) {
+            shapeMetrics.add(new OptimizerMetrics.ShapeMetrics());
+        }
+        ArrayList<ArrayList<OBJTriangle>> newShapes;
+        if (this.parallelism > 1) {
+            newShapes = this.getOptimizedShapesInParallel(shapes,shapeMetrics);
+        } else {
+            newShapes = new ArrayList<>();
+            for (int i = 0; i < shapes.size(); i++) {
+                newShapes.add(this.getOptimizedShape(shapes.get(i),shapeMetrics.get(i)));
+            }
+        }
+        this.metrics.addShapes(shapeMetrics);
 
-                if (shapeTriangles.size() > 0) {
-                    // Store all points in a map.
-                    HashMap<Vector3, OBJTriangleVertex> pointLookup = new HashMap<>();
-                    ArrayList<Triangle3D> baseTriangles = new ArrayList<>();
-                    for (OBJTriangle triangle : shapeTriangles) {
-                        pointLookup.put(triangle.point1.vertex, triangle.point1);
-                        pointLookup.put(triangle.point2.vertex, triangle.point2);
-                        pointLookup.put(triangle.point3.vertex, triangle.point3);
-                        baseTriangles.add(triangle);
-                    }
-
-                    // Get optimized triangles.
-                    PointLocalizer localizer = new PointLocalizer(shapeTriangles.get(0));
-                    ArrayList<Triangle> localSpaceTriangles = localizer.convertTrianglesTo2D(baseTriangles);
-
-                    ShapeCreator shapeCreator = new ShapeCreator();
-                    ArrayList<Shape> boundaryShapes = shapeCreator.getShapesFromTriangles(localSpaceTriangles);
-
-                    ArrayList<Line> lines = ShapeFiller.getDrawLinesFromShapes(boundaryShapes);
-                    ArrayList<Triangle> finalTriangles = ShapeFiller.getTrianglesFromLines(lines);
-                    ArrayList<Triangle3D> finalTriangles3D = localizer.convertTrianglesTo3D(finalTriangles);
-
-                    // Convert triangles back
-                    ArrayList<OBJTriangle> newShape = new ArrayList<>();
-                    for (Triangle3D triangle : finalTriangles3D) {
-                        newShape.add(new OBJTriangle(pointLookup.get(triangle.point1), pointLookup.get(triangle.point2), pointLookup.get(triangle.point3)));
-                    }
-                    newShapes.add(newShape);
+        // Store the new shapes in their groups.
+        int shapeIndex = 0;
+        for (String groupName : groupNames) {
+            int shapeCount = triangles.get(groupName).size();
+            ArrayList<ArrayList<OBJTriangle>> groupShapes = new ArrayList<>();
+            for (int i = 0; i < shapeCount; i++) {
+                ArrayList<OBJTriangle> newShape = newShapes.get(shapeIndex + i);
+                if (newShape != null) {
+                    groupShapes.add(newShape);
                 }
             }
+            triangles.put(groupName,groupShapes);
+            shapeIndex += shapeCount;
         }
 
-
         return triangles;
     }
 
@@ -152,43 +389,103 @@ public class OBJOptimizer {
     }
 
     /**
-     * Returns the final OBJ as a string.
+     * Returns the final faces of the OBJ, with the coplanar triangles optimized and merged.
+     * The triangle counts are stored in the metrics.
      */
-    public String getOptimizedOBJSource() {
+    private HashMap<String,ArrayList<OBJTriangle>> getFinalFaces() {
         OBJWriter objWriter = new OBJWriter(this.objParser);
+        this.metrics.clearOptimization();
+        OptimizerMetrics.StageTimer timer = new OptimizerMetrics.StageTimer();
+
         // Get triangles and triangle count.
-        int baseTriangleCount = getTriangleCountOfFaces(this.objParser.getTriangles());
-        HashMap<String,ArrayList<ArrayList<OBJTriangle>>> triangles = this.getOptimizedTriangles();
+        HashMap<String,ArrayList<ArrayList<OBJTriangle>>> triangles = this.objParser.getTriangles();
+        int baseTriangleCount = getTriangleCountOfFaces(triangles);
+        timer.lap(this.metrics.getStage(OptimizerMetrics.Stage.GROUP));
+        triangles = this.getOptimizedTriangles(triangles);
+
+        timer.restart();
         HashMap<String,ArrayList<OBJTriangle>> finalFaces = objWriter.mergeTriangles(triangles);
         int finalTriangleCount = getTriangleCountOfGroups(finalFaces);
+        timer.lap(this.metrics.getStage(OptimizerMetrics.Stage.MERGE));
+        this.metrics.baseTriangles = baseTriangleCount;
+        this.metrics.finalTriangles = finalTriangleCount;
 
-        // Create source.
-        String source = objWriter.getOBJSource(finalFaces);
-        source = "# Old triangle count: " + baseTriangleCount + "\n" + source;
-        source = "# New triangle count: " + finalTriangleCount + "\n" + source;
+        return finalFaces;
+    }
+
+    /**
+     * Writes the final OBJ to a Writer.
+     *
+     * @param writer writer to write to. It isn't flushed or closed.
+     */
+    public void writeOptimizedOBJ(Writer writer) throws IOException {
+        HashMap<String,ArrayList<OBJTriangle>> finalFaces = this.getFinalFaces();
 
-        return source;
+        // Write source.
+        OptimizerMetrics.StageTimer timer = new OptimizerMetrics.StageTimer();
+        writer.write("# New triangle count: " + this.metrics.finalTriangles + "\n");
+        writer.write("# Old triangle count: " + this.metrics.baseTriangles + "\n");
+        new OBJWriter(this.objParser).writeOBJSource(writer,finalFaces);
+        timer.lap(this.metrics.getStage(OptimizerMetrics.Stage.WRITE));
     }
 
     /**
-     * Writes the final OBJ to a specified destination file.
+     * Writes the final mesh to an OutputStream as a Roblox binary mesh.
      *
-     * @param fileLocation location to write the file.
+     * @param outputStream stream to write to. It isn't flushed or closed.
+     * @param quantize whether to round the normals and texture coordinates so more vertices are combined.
      */
-    public void writeOBJToFile(File fileLocation) {
-        String source = getOptimizedOBJSource();
+    public void writeOptimizedMesh(OutputStream outputStream,boolean quantize) throws IOException {
+        HashMap<String,ArrayList<OBJTriangle>> finalFaces = this.getFinalFaces();
+
+        // Write mesh.
+        OptimizerMetrics.StageTimer timer = new OptimizerMetrics.StageTimer();
+        new RobloxMeshWriter(quantize).writeMesh(outputStream,finalFaces);
+        timer.lap(this.metrics.getStage(OptimizerMetrics.Stage.WRITE));
+    }
 
-        PrintStream printStream = null;
+    /**
+     * Returns the final OBJ as a string.
+     */
+    public String getOptimizedOBJSource() {
+        StringWriter writer = new StringWriter();
         try {
-            printStream = new PrintStream(new FileOutputStream(fileLocation));
-            printStream.print(source);
-            printStream.close();
-        } catch (FileNotFoundException e) {
-            if (printStream != null) {
-                printStream.close();
-            }
-            e.printStackTrace();
+            this.writeOptimizedOBJ(writer);
+        } catch (IOException e) {
+            // StringWriters don't throw IOExceptions.
+            throw new UncheckedIOException(e);
+        }
+
+        return writer.toString();
+    }
+
+    /**
+     * Writes the final OBJ to a specified destination file. The OBJ is streamed
+     * to the file instead of being created in memory first. Throws an UncheckedIOException
+     * if the file can't be written.
+     *
+     * @param fileLocation location to write the file.
+     */
+    public void writeOBJToFile(File fileLocation) {
+        try (BufferedWriter writer = Files.newBufferedWriter(fileLocation.toPath(),StandardCharsets.UTF_8)) {
+            this.writeOptimizedOBJ(writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
+    /**
+     * Writes the final mesh to a specified destination file as a Roblox binary mesh.
+     * Throws an UncheckedIOException if the file can't be written.
+     *
+     * @param fileLocation location to write the file.
+     * @param quantize whether to round the normals and texture coordinates so more vertices are combined.
+     */
+    public void writeMeshToFile(File fileLocation,boolean quantize) {
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(fileLocation.toPath()))) {
+            this.writeOptimizedMesh(outputStream,quantize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -9,144 +9,325 @@ package wavefront;
 
 import vectors.*;
 import wavefront.OBJTriangle.OBJTriangleVertex;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 
 public class OBJReader {
     public static String DEFAULT_GROUP = "__UNSPECIFIED";
+    public static double WELD_EPSILON = 0;
+    private static final int INSTRUCTION_V = OBJTokenizer.getInstructionCode("v");
+    private static final int INSTRUCTION_VN = OBJTokenizer.getInstructionCode("vn");
+    private static final int INSTRUCTION_VT = OBJTokenizer.getInstructionCode("vt");
+    private static final int INSTRUCTION_F = OBJTokenizer.getInstructionCode("f");
+    private static final int INSTRUCTION_G = OBJTokenizer.getInstructionCode("g");
     private String currentGroup;
+    private int[] currentFace;
+    private MeshStore mesh;
     public ArrayList<String> mtlLibs;
     public ArrayList<Vector3W> vertices;
     public ArrayList<Vector3> vertexNormals;
     public ArrayList<Vector2W> vertexTextures;
     public HashMap<String,ArrayList<OBJTriangle>> triangles;
     public HashMap<String,String> mtls;
+    public int unprocessedLines;
 
 
 
+    /**
+     * Creates an OBJ parser from already read mesh data.
+     * Positions, normals, and texture vertices are indexed by their ids in the mesh, and
+     * the corners of the triangles that use the same ids share the same OBJTriangleVertex.
+     * The mesh isn't kept, so it can be garbage collected once the triangles are created.
+     * If WELD_EPSILON is more than 0, positions closer than it are welded in the mesh first.
+     *
+     * @param mesh mesh data to use.
+     */
+    public OBJReader(MeshStore mesh) {
+        mesh.weldPositions(WELD_EPSILON);
+        this.unprocessedLines = mesh.unprocessedLines;
+        this.mtlLibs = mesh.mtlLibs;
+        this.mtls = mesh.mtls;
+        this.vertices = new ArrayList<>(mesh.positionCount);
+        this.vertexNormals = new ArrayList<>(mesh.normalCount);
+        this.vertexTextures = new ArrayList<>(mesh.textureCount);
+        this.triangles = new HashMap<>();
+
+        // Create the vectors.
+        for (int i = 0; i < mesh.positionCount; i++) {
+            this.vertices.add(new Vector3W(mesh.positions[i * 3],mesh.positions[(i * 3) + 1],mesh.positions[(i * 3) + 2],mesh.positionWeights[i]));
+        }
+        for (int i = 0; i < mesh.normalCount; i++) {
+            this.vertexNormals.add(new Vector3(mesh.normals[i * 3],mesh.normals[(i * 3) + 1],mesh.normals[(i * 3) + 2]).getUnitVector());
+        }
+        for (int i = 0; i < mesh.textureCount; i++) {
+            this.vertexTextures.add(new Vector2W(mesh.textures[i * 3],mesh.textures[(i * 3) + 1],mesh.textures[(i * 3) + 2]));
+        }
+
+        // Create the triangles.
+        ArrayList<ArrayList<OBJTriangleVertex>> cornersByPosition = new ArrayList<>(mesh.positionCount);
+        for (int i = 0; i < mesh.positionCount; i++) {
+            cornersByPosition.add(null);
+        }
+        for (String groupName : mesh.faces.keySet()) {
+            MeshStore.FaceList faceList = mesh.faces.get(groupName);
+            ArrayList<OBJTriangle> groupTriangles = new ArrayList<>(faceList.count);
+            this.triangles.put(groupName,groupTriangles);
+
+            for (int i = 0; i < faceList.count; i++) {
+                OBJTriangleVertex point1 = this.getOBJPoint(cornersByPosition,faceList,i,0);
+                OBJTriangleVertex point2 = this.getOBJPoint(cornersByPosition,faceList,i,1);
+                OBJTriangleVertex point3 = this.getOBJPoint(cornersByPosition,faceList,i,2);
+                groupTriangles.add(new OBJTriangle(point1,point2,point3));
+            }
+        }
+    }
+
+    /**
+     * Creates an OBJ parser that reads the bytes of an OBJ directly.
+     * Unprocessed lines are counted instead of printed.
+     *
+     * @param objSource bytes of the obj to parse.
+     */
+    public OBJReader(ByteBuffer objSource) {
+        this(parse(new OBJTokenizer(objSource)));
+    }
+
     /**
      * Creates an OBJ parser.
      *
      * @param objSource source of the obj to parse.
      */
     public OBJReader(String objSource) {
+        this(ByteBuffer.wrap(objSource.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Creates an OBJ parser for a file. The file is memory mapped and read without creating Strings for the lines.
+     *
+     * @param file file of the obj to parse.
+     * @throws IOException if the file can't be read.
+     */
+    public OBJReader(File file) throws IOException {
+        this(mapFile(file));
+    }
+
+    /**
+     * Creates an OBJ parser that only reads into a MeshStore. The MeshStore is only stored by these parsers.
+     */
+    private OBJReader() {
         this.currentGroup = DEFAULT_GROUP;
-        this.vertices = new ArrayList<>();
-        this.vertexNormals = new ArrayList<>();
-        this.vertexTextures = new ArrayList<>();
-        this.mtlLibs = new ArrayList<>();
-        this.triangles = new HashMap<>();
-        this.mtls = new HashMap<>();
-
-        // Goes through lines and parses the OBJ.
-        for (String line : objSource.split("\n")) {
-            String lineType[] = line.split(" ",2);
-
-            if (lineType.length >= 2) {
-                String instruction = lineType[0].toLowerCase();
-                String remainder = lineType[1];
-
-                if (instruction.equals("mtllib")) {
-                    // If it is mtllib, add the library file.
-                    this.mtlLibs.add(remainder);
-                } else if (instruction.equals("g")) {
-                    // If it is g, set the current group.
-                    this.currentGroup = remainder;
-                    this.initializeCurrentGroup();
-                } else if (instruction.equals("v")) {
-                    // If it is v, add the vertex.
-                    this.initializeCurrentGroup();
-
-                    String[] points = remainder.split(" ");
-                    if (points.length == 4) {
-                        this.vertices.add(new Vector3W(Double.parseDouble(points[0]),Double.parseDouble(points[1]),Double.parseDouble(points[2]),Double.parseDouble(points[3])));
-                    } else if (points.length == 3) {
-                        this.vertices.add(new Vector3W(Double.parseDouble(points[0]),Double.parseDouble(points[1]),Double.parseDouble(points[2])));
-                    } else {
-                        System.out.println("Unprocessed vertex: " + line);
-                    }
-                } else if (instruction.equals("vn")) {
-                    // If it is vn, add the normal.
-                    this.initializeCurrentGroup();
-
-                    String[] points = remainder.split(" ");
-                    if (points.length == 3) {
-                        this.vertexNormals.add(new Vector3(Double.parseDouble(points[0]),Double.parseDouble(points[1]),Double.parseDouble(points[2])).getUnitVector());
-                    } else {
-                        System.out.println("Unprocessed normal: " + line);
-                    }
-                } else if (instruction.equals("vt")) {
-                    // If it is vt, add the texture vertex.
-                    this.initializeCurrentGroup();
-
-                    String[] points = remainder.split(" ");
-                    if (points.length == 3) {
-                        this.vertexTextures.add(new Vector2W(Double.parseDouble(points[0]), Double.parseDouble(points[1]), Double.parseDouble(points[2])));
-                    } else if (points.length == 2) {
-                        this.vertexTextures.add(new Vector2W(Double.parseDouble(points[0]),Double.parseDouble(points[1])));
-                    } else {
-                        System.out.println("Unprocessed texture vertex: " + line);
-                    }
-                } else if (instruction.equals("f")) {
-                    // If it is f, add the triangle.
-                    this.initializeCurrentGroup();
-
-                    String[] points = remainder.split(" ");
-                    if (points.length == 3) {
-                        this.triangles.get(this.currentGroup).add(new OBJTriangle(this.getOBJPoint(points[0]),this.getOBJPoint(points[1]),this.getOBJPoint(points[2])));
-                    } else {
-                        System.out.println("Unprocessed triangle: " + line);
-                    }
-                } else if (instruction.equals("usemtl")) {
-                    // If it is usemtl, set the mtl.
-                    this.initializeCurrentGroup();
-                    this.mtls.put(this.currentGroup,remainder);
-                } else if (!instruction.equals("#") && !instruction.equals(" ") && !instruction.equals("\t")) {
-                    // If wasn't processed and isn't a comment, print out that it wasn't processed.
-                    System.out.println("Unprocessed line: " + line);
+        this.currentFace = new int[MeshStore.FACE_STRIDE];
+        this.mesh = new MeshStore();
+    }
+
+    /**
+     * Memory maps a file for reading.
+     *
+     * @param file file to map.
+     * @throws IOException if the file can't be read or is larger than 2 GB.
+     */
+    public static MappedByteBuffer mapFile(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(),StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("File is too large to map: " + file);
+            }
+
+            return channel.map(FileChannel.MapMode.READ_ONLY,0,channel.size());
+        }
+    }
+
+    /**
+     * Parses the lines of the OBJ from a tokenizer into a MeshStore.
+     * The amount of unprocessed lines is stored in the returned MeshStore.
+     *
+     * @param tokenizer tokenizer of the OBJ to parse.
+     */
+    public static MeshStore parse(OBJTokenizer tokenizer) {
+        OBJReader reader = new OBJReader();
+        while (tokenizer.nextLine()) {
+            // Ignore empty lines and comments.
+            if (tokenizer.isEndOfLine() || tokenizer.peek() == '#') {
+                continue;
+            }
+
+            try {
+                if (!reader.parseLine(tokenizer)) {
+                    reader.mesh.unprocessedLines += 1;
                 }
+            } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                reader.mesh.unprocessedLines += 1;
             }
         }
+
+        reader.mesh.trim();
+        return reader.mesh;
     }
 
     /**
-     * Initializes the current group by setting HashMap entries if they don't exist.
+     * Parses the current line of a tokenizer. Returns false if the line wasn't processed.
+     *
+     * @param tokenizer tokenizer of the OBJ to parse.
+     */
+    private boolean parseLine(OBJTokenizer tokenizer) {
+        // Parse the instructions that have names.
+        if (tokenizer.matchInstruction("mtllib")) {
+            // If it is mtllib, add the library file.
+            this.mesh.mtlLibs.add(tokenizer.getRemainder());
+            return true;
+        } else if (tokenizer.matchInstruction("usemtl")) {
+            // If it is usemtl, set the mtl.
+            this.initializeCurrentGroup();
+            this.mesh.mtls.put(this.currentGroup,tokenizer.getRemainder());
+            return true;
+        }
+
+        int instruction = tokenizer.nextInstruction();
+        if (instruction == INSTRUCTION_G) {
+            // If it is g, set the current group.
+            this.currentGroup = tokenizer.getRemainder();
+            this.initializeCurrentGroup();
+            return true;
+        } else if (instruction == INSTRUCTION_V) {
+            // If it is v, add the vertex.
+            this.initializeCurrentGroup();
+
+            double x = tokenizer.nextDouble();
+            double y = tokenizer.nextDouble();
+            double z = tokenizer.nextDouble();
+            if (tokenizer.isEndOfLine()) {
+                this.mesh.addPosition(x,y,z,1.00);
+                return true;
+            }
+
+            double w = tokenizer.nextDouble();
+            if (tokenizer.isEndOfLine()) {
+                this.mesh.addPosition(x,y,z,w);
+                return true;
+            }
+        } else if (instruction == INSTRUCTION_VN) {
+            // If it is vn, add the normal.
+            this.initializeCurrentGroup();
+
+            double x = tokenizer.nextDouble();
+            double y = tokenizer.nextDouble();
+            double z = tokenizer.nextDouble();
+            if (tokenizer.isEndOfLine()) {
+                this.mesh.addNormal(x,y,z);
+                return true;
+            }
+        } else if (instruction == INSTRUCTION_VT) {
+            // If it is vt, add the texture vertex.
+            this.initializeCurrentGroup();
+
+            double x = tokenizer.nextDouble();
+            double y = tokenizer.nextDouble();
+            if (tokenizer.isEndOfLine()) {
+                this.mesh.addTexture(x,y,0.00);
+                return true;
+            }
+
+            double w = tokenizer.nextDouble();
+            if (tokenizer.isEndOfLine()) {
+                this.mesh.addTexture(x,y,w);
+                return true;
+            }
+        } else if (instruction == INSTRUCTION_F) {
+            // If it is f, add the triangle.
+            this.initializeCurrentGroup();
+
+            this.readCorner(tokenizer,0);
+            this.readCorner(tokenizer,1);
+            this.readCorner(tokenizer,2);
+            if (tokenizer.isEndOfLine()) {
+                this.mesh.getFaces(this.currentGroup).add(this.currentFace);
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Initializes the current group by setting the faces if they don't exist.
      */
     private void initializeCurrentGroup() {
-        if (!this.mtls.containsKey(this.currentGroup)) {
-            this.triangles.put(this.currentGroup,new ArrayList<>());
+        if (!this.mesh.mtls.containsKey(this.currentGroup)) {
+            this.mesh.getFaces(this.currentGroup).clear();
         }
     }
 
     /**
-     * Returns an OBJTriangleVertex from the given input string.
+     * Reads the ids of a corner of a face into the current face.
      *
-     * @param vertexData data of the vertex from the obj file, formatted as "###", "###/###", "###/###/###", or "###/###".
+     * @param tokenizer tokenizer to read the corner from, formatted as "###", "###/###", "###/###/###", or "###//###".
+     * @param corner corner of the face to read.
      */
-    private OBJTriangleVertex getOBJPoint(String vertexData) {
-        String[] numbers = vertexData.split("/");
-        OBJTriangleVertex vertex = new OBJTriangleVertex();
+    private void readCorner(OBJTokenizer tokenizer,int corner) {
+        int start = corner * MeshStore.CORNER_STRIDE;
+        this.currentFace[start + MeshStore.TEXTURE_OFFSET] = MeshStore.NO_INDEX;
+        this.currentFace[start + MeshStore.NORMAL_OFFSET] = MeshStore.NO_INDEX;
+        tokenizer.skipSpaces();
 
-        // Add normal.
-        if (numbers.length >= 3) {
-            int normalIndex = Integer.parseInt(numbers[2]) - 1;
-            vertex.normal = this.vertexNormals.get(normalIndex);
-        }
+        // Read the vertex.
+        this.currentFace[start + MeshStore.POSITION_OFFSET] = this.mesh.getPositionId(tokenizer.nextInt());
 
-        // Add texture.
-        if (numbers.length >= 2) {
-            if (!numbers[2].equals("")) {
-                int textureIndex = Integer.parseInt(numbers[1]) - 1;
-                vertex.texture = this.vertexTextures.get(textureIndex);
+        if (tokenizer.skip('/')) {
+            // Read the texture.
+            if (tokenizer.peek() != '/') {
+                this.currentFace[start + MeshStore.TEXTURE_OFFSET] = this.mesh.getTextureId(tokenizer.nextInt());
+            }
+
+            // Read the normal.
+            if (tokenizer.skip('/')) {
+                this.currentFace[start + MeshStore.NORMAL_OFFSET] = this.mesh.getNormalId(tokenizer.nextInt());
             }
         }
+    }
+
+    /**
+     * Returns the OBJTriangleVertex for a corner of a face. Corners with the same ids share the same object.
+     *
+     * @param cornersByPosition created corners for each position id.
+     * @param faceList faces to read from.
+     * @param face index of the face.
+     * @param corner corner of the face.
+     */
+    private OBJTriangleVertex getOBJPoint(ArrayList<ArrayList<OBJTriangleVertex>> cornersByPosition,MeshStore.FaceList faceList,int face,int corner) {
+        int positionId = faceList.get(face,corner,MeshStore.POSITION_OFFSET);
+        int textureId = faceList.get(face,corner,MeshStore.TEXTURE_OFFSET);
+        int normalId = faceList.get(face,corner,MeshStore.NORMAL_OFFSET);
+
+        Vector2W texture = (textureId != MeshStore.NO_INDEX ? this.vertexTextures.get(textureId) : null);
+        Vector3 normal = (normalId != MeshStore.NO_INDEX ? this.vertexNormals.get(normalId) : OBJTriangle.DEFAULT_NORMAL);
 
-        // Add vertex.
-        if (numbers.length >= 1) {
-            int vertexIndex = Integer.parseInt(numbers[0]) - 1;
-            vertex.vertex = this.vertices.get(vertexIndex);
+        // Return the existing corner if it exists. Each id has its own texture and normal object, so comparing them
+        // by identity is the same as comparing the ids.
+        ArrayList<OBJTriangleVertex> corners = cornersByPosition.get(positionId);
+        if (corners == null) {
+            corners = new ArrayList<>(1);
+            cornersByPosition.set(positionId,corners);
+        }
+        for (OBJTriangleVertex existingCorner : corners) {
+            if (existingCorner.texture == texture && existingCorner.normal == normal) {
+                return existingCorner;
+            }
         }
 
+        // Create the corner.
+        OBJTriangleVertex vertex = new OBJTriangleVertex();
+        vertex.vertex = this.vertices.get(positionId);
+        vertex.texture = texture;
+        vertex.normal = normal;
+        corners.add(vertex);
         return vertex;
     }
 
@@ -154,14 +335,14 @@ public class OBJReader {
      * Returns a list of all the faces to optimize.
      */
     public HashMap<String,ArrayList<ArrayList<OBJTriangle>>> getTriangles() {
-        HashMap<String,HashMap<Vector3,ArrayList<ArrayList<OBJTriangle>>>> shapesByName = new HashMap<>();
+        HashMap<String,LinkedHashMap<Vector3,PlaneIndex>> shapesByName = new HashMap<>();
 
         // Get triangles for each group and normal.
         for (String groupName : this.triangles.keySet()) {
             if (shapesByName.get(groupName) == null) {
-                shapesByName.put(groupName,new HashMap<>());
+                shapesByName.put(groupName,new LinkedHashMap<>());
             }
-            HashMap<Vector3,ArrayList<ArrayList<OBJTriangle>>> shapesForName = shapesByName.get(groupName);
+            LinkedHashMap<Vector3,PlaneIndex> shapesForName = shapesByName.get(groupName);
 
             for (OBJTriangle triangle : this.triangles.get(groupName)) {
                 // Get the normal used by at least 2 points.
@@ -185,39 +366,23 @@ public class OBJReader {
                     }
                 }
 
-                // Add triangle to shape if any valid.
+                // Add triangle to the first coplanar shape, or a new shape if there is none.
                 if (shapesForName.get(normal) == null) {
-                    shapesForName.put(normal, new ArrayList<>());
-                }
-
-                boolean triangleInShape = false;
-                for (ArrayList<OBJTriangle> triangleSet : shapesForName.get(normal)) {
-                    OBJTriangle firstTriangle = triangleSet.get(0);
-                    if (firstTriangle.point1.isCoPlanar(triangle.point1.vertex)) {
-                        triangleSet.add(triangle);
-                        triangleInShape = true;
-                        break;
-                    }
-                }
-
-                // Add new shape if triangle wasn't placed.
-                if (!triangleInShape) {
-                    ArrayList<OBJTriangle> newShape = new ArrayList<>();
-                    newShape.add(triangle);
-                    shapesForName.get(normal).add(newShape);
+                    shapesForName.put(normal, new PlaneIndex());
                 }
+                shapesForName.get(normal).add(triangle);
             }
         }
 
         // Create list to return.
         HashMap<String,ArrayList<ArrayList<OBJTriangle>>> triangles = new HashMap<>();
         for (String groupName : shapesByName.keySet()) {
-            HashMap<Vector3,ArrayList<ArrayList<OBJTriangle>>> shapesWithNormals = shapesByName.get(groupName);
+            LinkedHashMap<Vector3,PlaneIndex> shapesWithNormals = shapesByName.get(groupName);
             ArrayList<ArrayList<OBJTriangle>> trianglesGroup = new ArrayList<>();
             triangles.put(groupName,trianglesGroup);
 
             for (Vector3 normal : shapesWithNormals.keySet()) {
-                trianglesGroup.addAll(shapesWithNormals.get(normal));
+                trianglesGroup.addAll(shapesWithNormals.get(normal).getTriangleSets());
             }
         }
 
@@ -0,0 +1,343 @@
+/*
+ * Tokenizes OBJ files directly from bytes without creating Strings for each line.
+ *
+ * @author: agent
+ * @date: 10/17/2026
+ */
+
+package wavefront;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class OBJTokenizer {
+    private static final double[] POWERS_OF_TEN = {
+        1e0,1e1,1e2,1e3,1e4,1e5,1e6,1e7,1e8,1e9,1e10,1e11,
+        1e12,1e13,1e14,1e15,1e16,1e17,1e18,1e19,1e20,1e21,1e22
+    };
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private ByteBuffer buffer;
+    private int position;
+    private int limit;
+    private int lineStart;
+    private int lineEnd;
+    private int nextLineStart;
+
+    /**
+     * Creates an OBJTokenizer.
+     *
+     * @param buffer buffer containing the OBJ. Absolute reads are used, so the buffer position isn't changed.
+     */
+    public OBJTokenizer(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.position = buffer.position();
+        this.limit = buffer.limit();
+        this.lineStart = this.position;
+        this.lineEnd = this.position;
+        this.nextLineStart = this.position;
+    }
+
+    /**
+     * Returns whether the byte is a space or tab.
+     *
+     * @param character byte to check.
+     */
+    private static boolean isSpace(byte character) {
+        return character == ' ' || character == '\t';
+    }
+
+    /**
+     * Moves to the next line. Returns false if there are no more lines.
+     */
+    public boolean nextLine() {
+        if (this.nextLineStart >= this.limit) {
+            return false;
+        }
+
+        // Find the end of the line.
+        int start = this.nextLineStart;
+        int end = start;
+        while (end < this.limit && this.buffer.get(end) != '\n') {
+            end++;
+        }
+        this.nextLineStart = end + 1;
+
+        // Ignore the carriage return of Windows line endings.
+        if (end > start && this.buffer.get(end - 1) == '\r') {
+            end--;
+        }
+
+        this.position = start;
+        this.lineStart = start;
+        this.lineEnd = end;
+        return true;
+    }
+
+    /**
+     * Skips spaces and tabs. Returns false if the end of the line was reached.
+     */
+    public boolean skipSpaces() {
+        while (this.position < this.lineEnd && isSpace(this.buffer.get(this.position))) {
+            this.position++;
+        }
+
+        return this.position < this.lineEnd;
+    }
+
+    /**
+     * Returns whether the end of the line was reached, ignoring trailing spaces.
+     */
+    public boolean isEndOfLine() {
+        return !this.skipSpaces();
+    }
+
+    /**
+     * Returns the current byte of the line, or -1 if the end of the line was reached.
+     */
+    public int peek() {
+        if (this.position >= this.lineEnd) {
+            return -1;
+        }
+
+        return this.buffer.get(this.position);
+    }
+
+    /**
+     * Reads the instruction at the start of the line and returns the code for it.
+     * Instructions are case insensitive and are packed into an int of up to 4 lowercase characters.
+     * Returns 0 if the instruction is empty or longer than 4 characters.
+     */
+    public int nextInstruction() {
+        int instruction = 0;
+        int length = 0;
+        while (this.position < this.lineEnd && !isSpace(this.buffer.get(this.position))) {
+            int character = this.buffer.get(this.position) & 0xFF;
+            if (character >= 'A' && character <= 'Z') {
+                character += 'a' - 'A';
+            }
+
+            instruction = (instruction << 8) | character;
+            length++;
+            this.position++;
+        }
+
+        return (length > 4 ? 0 : instruction);
+    }
+
+    /**
+     * Returns the code for an instruction that would be returned by nextInstruction.
+     *
+     * @param instruction lowercase instruction with 4 or less characters.
+     */
+    public static int getInstructionCode(String instruction) {
+        int code = 0;
+        for (int i = 0; i < instruction.length(); i++) {
+            code = (code << 8) | instruction.charAt(i);
+        }
+
+        return code;
+    }
+
+    /**
+     * Returns whether the line starting at the current position matches the instruction, and moves past it if it does.
+     * Used for instructions longer than 4 characters, like "mtllib" and "usemtl".
+     *
+     * @param instruction lowercase instruction to match.
+     */
+    public boolean matchInstruction(String instruction) {
+        int end = this.position + instruction.length();
+        if (end > this.lineEnd || (end < this.lineEnd && !isSpace(this.buffer.get(end)))) {
+            return false;
+        }
+
+        for (int i = 0; i < instruction.length(); i++) {
+            int character = this.buffer.get(this.position + i);
+            if (character >= 'A' && character <= 'Z') {
+                character += 'a' - 'A';
+            }
+            if (character != instruction.charAt(i)) {
+                return false;
+            }
+        }
+
+        this.position = end;
+        return true;
+    }
+
+    /**
+     * Returns the rest of the line after the separating space as a String.
+     * Used for names, where creating a String is needed.
+     */
+    public String getRemainder() {
+        int start = this.position;
+        if (start < this.lineEnd && this.buffer.get(start) == ' ') {
+            start++;
+        }
+        this.position = this.lineEnd;
+
+        return this.getString(start,this.lineEnd);
+    }
+
+    /**
+     * Returns the current line as a String. Only intended for error messages.
+     */
+    public String getLine() {
+        return this.getString(this.lineStart,this.lineEnd);
+    }
+
+    /**
+     * Returns a String for a range of the buffer.
+     *
+     * @param start start index of the String.
+     * @param end end index of the String (exclusive).
+     */
+    private String getString(int start,int end) {
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = this.buffer.get(start + i);
+        }
+
+        return new String(bytes,StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns whether the current position is at the start of a number.
+     */
+    public boolean hasNumber() {
+        if (!this.skipSpaces()) {
+            return false;
+        }
+
+        byte character = this.buffer.get(this.position);
+        return (character >= '0' && character <= '9') || character == '-' || character == '+' || character == '.';
+    }
+
+    /**
+     * Reads an integer. Throws a NumberFormatException if there are no digits.
+     */
+    public int nextInt() {
+        boolean negative = false;
+        if (this.position < this.lineEnd) {
+            byte sign = this.buffer.get(this.position);
+            if (sign == '-' || sign == '+') {
+                negative = (sign == '-');
+                this.position++;
+            }
+        }
+
+        // Read the digits.
+        int start = this.position;
+        long value = 0;
+        while (this.position < this.lineEnd) {
+            byte character = this.buffer.get(this.position);
+            if (character < '0' || character > '9') {
+                break;
+            }
+
+            value = (value * 10) + (character - '0');
+            if (value > Integer.MAX_VALUE) {
+                throw new NumberFormatException("Integer out of range: " + this.getLine());
+            }
+            this.position++;
+        }
+
+        if (this.position == start) {
+            throw new NumberFormatException("Expected integer: " + this.getLine());
+        }
+        return (int) (negative ? -value : value);
+    }
+
+    /**
+     * Reads a double. Numbers that can be represented exactly with a single multiplication or division
+     * are parsed directly, and are otherwise passed to Double.parseDouble so the results are always
+     * the same as Double.parseDouble.
+     */
+    public double nextDouble() {
+        this.skipSpaces();
+        int start = this.position;
+        boolean negative = false;
+        if (this.position < this.lineEnd) {
+            byte sign = this.buffer.get(this.position);
+            if (sign == '-' || sign == '+') {
+                negative = (sign == '-');
+                this.position++;
+            }
+        }
+
+        // Read the digits and the decimal point.
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean digitFound = false;
+        boolean decimalPointFound = false;
+        boolean exact = true;
+        while (this.position < this.lineEnd) {
+            byte character = this.buffer.get(this.position);
+            if (character >= '0' && character <= '9') {
+                digitFound = true;
+                if (digits < 18) {
+                    mantissa = (mantissa * 10) + (character - '0');
+                    if (mantissa != 0) {
+                        digits++;
+                    }
+                    if (decimalPointFound) {
+                        exponent--;
+                    }
+                } else {
+                    exact = false;
+                }
+            } else if (character == '.' && !decimalPointFound) {
+                decimalPointFound = true;
+            } else {
+                break;
+            }
+            this.position++;
+        }
+
+        // Read the exponent.
+        if (this.position < this.lineEnd && (this.buffer.get(this.position) == 'e' || this.buffer.get(this.position) == 'E')) {
+            this.position++;
+            int explicitExponent = this.nextInt();
+            if (Math.abs(explicitExponent) > 1000) {
+                exact = false;
+            } else {
+                exponent += explicitExponent;
+            }
+        }
+
+        // Return the value.
+        int end = this.position;
+        while (this.position < this.lineEnd && !isSpace(this.buffer.get(this.position))) {
+            this.position++;
+        }
+        if (end != this.position || !digitFound) {
+            throw new NumberFormatException("Invalid number: " + this.getString(start,this.position));
+        }
+
+        if (exact && mantissa <= MAX_EXACT_MANTISSA && exponent >= -22 && exponent <= 22) {
+            double value = (double) mantissa;
+            if (exponent < 0) {
+                value = value / POWERS_OF_TEN[-exponent];
+            } else {
+                value = value * POWERS_OF_TEN[exponent];
+            }
+            return (negative ? -value : value);
+        }
+        return Double.parseDouble(this.getString(start,end));
+    }
+
+    /**
+     * Skips the given byte if it is the current byte. Returns whether it was skipped.
+     *
+     * @param character the byte to skip.
+     */
+    public boolean skip(char character) {
+        if (this.position < this.lineEnd && this.buffer.get(this.position) == character) {
+            this.position++;
+            return true;
+        }
+
+        return false;
+    }
+}
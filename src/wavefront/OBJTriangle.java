@@ -10,8 +10,11 @@ package wavefront;
 import geometry.Triangle3D;
 import vectors.Vector3;
 
+import java.util.Objects;
+
 public class OBJTriangle extends Triangle3D {
     public static Vector3 DEFAULT_NORMAL = new Vector3(0,5,0);
+    public static final double COPLANAR_EPSILON = 0.0001;
     public OBJTriangleVertex point1;
     public OBJTriangleVertex point2;
     public OBJTriangleVertex point3;
@@ -33,7 +36,7 @@ public class OBJTriangle extends Triangle3D {
          * @param otherPoint point to compare.
          */
         public boolean isCoPlanar(Vector3 otherPoint) {
-            return (Math.abs((otherPoint.subtract(this.vertex)).dot(this.normal)) <= 0.0001);
+            return (Math.abs(Vector3.subtractDot(otherPoint,this.vertex,this.normal)) <= COPLANAR_EPSILON);
         }
 
         /**
@@ -48,7 +51,7 @@ public class OBJTriangle extends Triangle3D {
             }
 
             OBJTriangleVertex otherVertex = (OBJTriangleVertex) object;
-            return (this.vertex.equals(otherVertex.vertex) && this.normal.equals(otherVertex.normal) && this.texture.equals(otherVertex.texture));
+            return (this.vertex.equals(otherVertex.vertex) && Objects.equals(this.normal,otherVertex.normal) && Objects.equals(this.texture,otherVertex.texture));
         }
 
         /**
@@ -84,9 +87,9 @@ public class OBJTriangle extends Triangle3D {
      */
     public void updateWinding() {
         // Calculate area.
-        double distance1 = point1.vertex.subtract(point2.vertex).magnitude;
-        double distance2 = point1.vertex.subtract(point3.vertex).magnitude;
-        double distance3 = point2.vertex.subtract(point3.vertex).magnitude;
+        double distance1 = Vector3.distance(point1.vertex,point2.vertex);
+        double distance2 = Vector3.distance(point1.vertex,point3.vertex);
+        double distance3 = Vector3.distance(point2.vertex,point3.vertex);
         double semiPerimeter = (distance1 + distance2 + distance3) / 2.00;
         this.area = Math.pow(semiPerimeter * (semiPerimeter - distance1) * (semiPerimeter - distance2) * (semiPerimeter - distance3),0.5);
 
@@ -95,10 +98,12 @@ public class OBJTriangle extends Triangle3D {
             OBJTriangleVertex point1 = this.point1;
             OBJTriangleVertex point2 = this.point2;
             OBJTriangleVertex point3 = this.point3;
-            Vector3 calculatedNormal = (point2.vertex.subtract(point1.vertex)).cross(point3.vertex.subtract(point1.vertex)).getUnitVector();
+            Vector3 calculatedNormal = Vector3.crossOfSides(point1.vertex,point2.vertex,point3.vertex,new Vector3());
+            double normalLength = calculatedNormal.getMagnitude();
+            calculatedNormal.set(calculatedNormal.x / normalLength,calculatedNormal.y / normalLength,calculatedNormal.z / normalLength);
 
             // Flip point2 and point3 if it is incorrectly winded.
-            if (calculatedNormal.subtract(point1.normal).magnitude < 1) {
+            if (Vector3.distance(calculatedNormal,point1.normal) < 1) {
                 this.point1 = point1;
                 this.point2 = point2;
                 this.point3 = point3;
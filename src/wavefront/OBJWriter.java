@@ -9,11 +9,22 @@ package wavefront;
 
 import vectors.Vector3;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 
 public class OBJWriter {
+    private static int MERGE_NONE = 0;
+    private static int MERGE_COMBINED = 1;
+    private static int MERGE_REMOVED_FIRST = 2;
+    private static int MERGE_REMOVED_SECOND = 3;
+
     private OBJReader objReader;
 
     /**
@@ -25,6 +36,94 @@ public class OBJWriter {
         this.objReader = objReader;
     }
 
+    /**
+     * Returns the edges of a triangle.
+     *
+     * @param triangle triangle to get the edges of.
+     */
+    private static Line3D[] getEdges(OBJTriangle triangle) {
+        return new Line3D[] {
+            new Line3D(triangle.point1,triangle.point2),
+            new Line3D(triangle.point1,triangle.point3),
+            new Line3D(triangle.point2,triangle.point3),
+        };
+    }
+
+    /**
+     * Adds the edges of a triangle to an edge index.
+     *
+     * @param edgeTriangles triangles of each edge.
+     * @param triangle triangle to add.
+     */
+    private static void addEdges(HashMap<Line3D,ArrayList<OBJTriangle>> edgeTriangles,OBJTriangle triangle) {
+        for (Line3D edge : getEdges(triangle)) {
+            edgeTriangles.computeIfAbsent(edge,newEdge -> new ArrayList<>(2)).add(triangle);
+        }
+    }
+
+    /**
+     * Removes the edges of a triangle from an edge index.
+     *
+     * @param edgeTriangles triangles of each edge.
+     * @param edges edges the triangle was added with.
+     * @param triangle triangle to remove.
+     */
+    private static void removeEdges(HashMap<Line3D,ArrayList<OBJTriangle>> edgeTriangles,Line3D[] edges,OBJTriangle triangle) {
+        for (Line3D edge : edges) {
+            ArrayList<OBJTriangle> adjacentTriangles = edgeTriangles.get(edge);
+            if (adjacentTriangles != null) {
+                adjacentTriangles.remove(triangle);
+                if (adjacentTriangles.isEmpty()) {
+                    edgeTriangles.remove(edge);
+                }
+            }
+        }
+    }
+
+    /**
+     * Merges 2 triangles that share an edge if the other edges are collinear. If both triangles
+     * are on the same side of the shared point, the smaller triangle is removed. Returns
+     * MERGE_NONE, MERGE_COMBINED (the first triangle was changed to cover both triangles),
+     * MERGE_REMOVED_FIRST, or MERGE_REMOVED_SECOND.
+     *
+     * @param triangle1 first triangle to merge. Changed if the triangles are combined.
+     * @param triangle2 second triangle to merge.
+     */
+    private static int mergeTriangle(OBJTriangle triangle1,OBJTriangle triangle2) {
+        Line3D[] triangle1Lines = getEdges(triangle1);
+        Line3D[] triangle2Lines = getEdges(triangle2);
+
+        for (Line3D line1 : triangle1Lines) {
+            for (Line3D line3 : triangle2Lines) {
+                if (!line1.equals(line3)) {
+                    continue;
+                }
+
+                for (Line3D line2 : triangle1Lines) {
+                    for (Line3D line4 : triangle2Lines) {
+                        if (line1 != line2 && line3 != line4 && line2.canMergeWithLine(line4)) {
+                            OBJTriangle.OBJTriangleVertex newPoint2 = line4.getUncommonPoint(line2);
+                            OBJTriangle.OBJTriangleVertex newPoint3 = line2.getUncommonPoint(line4);
+                            if (Vector3.distance(newPoint3.vertex,newPoint2.vertex) > (Math.max(line2.length,line4.length))) {
+                                triangle1.setPoint1(line1.getUncommonPoint(line2));
+                                triangle1.setPoint2(newPoint2);
+                                triangle1.setPoint3(newPoint3);
+                                triangle1.updateWinding();
+                                return MERGE_COMBINED;
+                            } else if (line4.length > line2.length) {
+                                return MERGE_REMOVED_FIRST;
+                            } else {
+                                return MERGE_REMOVED_SECOND;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        return MERGE_NONE;
+    }
+
     /**
      * Merges triangles that can be merged.
      *
@@ -49,60 +148,51 @@ public class OBJWriter {
             ArrayList<OBJTriangle> triangles = finalFaces.get(groupName);
             HashSet<OBJTriangle> removedTriangles = new HashSet<>();
 
-            for (OBJTriangle triangle1 : triangles) {
-                if (!removedTriangles.contains(triangle1)) {
-                    boolean stopMerge = false;
-                    for (OBJTriangle triangle2 : triangles) {
-                        if (stopMerge) {
-                            break;
+            // Index the triangles by their edges.
+            HashMap<Line3D,ArrayList<OBJTriangle>> edgeTriangles = new HashMap<>();
+            for (OBJTriangle triangle : triangles) {
+                addEdges(edgeTriangles,triangle);
+            }
+
+            // Merge triangles with the triangles sharing an edge until none can be merged.
+            // Merged triangles are added back to the worklist since their new edges may allow more merges.
+            ArrayDeque<OBJTriangle> worklist = new ArrayDeque<>(triangles);
+            while (!worklist.isEmpty()) {
+                OBJTriangle triangle1 = worklist.poll();
+                Line3D[] triangle1Edges = getEdges(triangle1);
+                boolean stopMerge = false;
+                for (Line3D edge : triangle1Edges) {
+                    if (stopMerge || removedTriangles.contains(triangle1)) {
+                        break;
+                    }
+
+                    ArrayList<OBJTriangle> adjacentTriangles = edgeTriangles.get(edge);
+                    if (adjacentTriangles == null) {
+                        continue;
+                    }
+
+                    for (OBJTriangle triangle2 : new ArrayList<>(adjacentTriangles)) {
+                        if (triangle1 == triangle2 || removedTriangles.contains(triangle2)) {
+                            continue;
                         }
 
-                        if (!removedTriangles.contains(triangle2) && triangle1 != triangle2) {
-                            Line3D triangle1Line1 = new Line3D(triangle1.point1,triangle1.point2);
-                            Line3D triangle1Line2 = new Line3D(triangle1.point1,triangle1.point3);
-                            Line3D triangle1Line3 = new Line3D(triangle1.point2,triangle1.point3);
-                            Line3D triangle2Line1 = new Line3D(triangle2.point1,triangle2.point2);
-                            Line3D triangle2Line2 = new Line3D(triangle2.point1,triangle2.point3);
-                            Line3D triangle2Line3 = new Line3D(triangle2.point2,triangle2.point3);
-                            ArrayList<Line3D> triangle1Lines = new ArrayList<>();
-                            triangle1Lines.add(triangle1Line1);
-                            triangle1Lines.add(triangle1Line2);
-                            triangle1Lines.add(triangle1Line3);
-                            ArrayList<Line3D> triangle2Lines = new ArrayList<>();
-                            triangle2Lines.add(triangle2Line1);
-                            triangle2Lines.add(triangle2Line2);
-                            triangle2Lines.add(triangle2Line3);
-
-                            for (Line3D line1 : triangle1Lines) {
-                                for (Line3D line2 : triangle1Lines) {
-                                    if (line1 != line2) {
-                                        for (Line3D line3 : triangle2Lines) {
-                                            for (Line3D line4 : triangle2Lines) {
-                                                if (line3 != line4) {
-                                                    if (line1.equals(line3) && line2.canMergeWithLine(line4)) {
-                                                        OBJTriangle.OBJTriangleVertex newPoint2 = line4.getUncommonPoint(line2);
-                                                        OBJTriangle.OBJTriangleVertex newPoint3 = line2.getUncommonPoint(line4);
-                                                        if (newPoint3.vertex.subtract(newPoint2.vertex).magnitude > (Math.max(line2.length,line4.length))) {
-                                                            triangle1.setPoint1(line1.getUncommonPoint(line2));
-                                                            triangle1.setPoint2(newPoint2);
-                                                            triangle1.setPoint3(newPoint3);
-                                                            triangle1.updateWinding();
-                                                            removedTriangles.add(triangle2);
-                                                        } else {
-                                                            if (line4.length > line2.length) {
-                                                                removedTriangles.add(triangle1);
-                                                                stopMerge = true;
-                                                            } else {
-                                                                removedTriangles.add(triangle2);
-                                                            }
-                                                        }
-                                                    }
-                                                }
-                                            }
-                                        }
-                                    }
-                                }
-                            }
+                        int result = mergeTriangle(triangle1,triangle2);
+                        if (result == MERGE_REMOVED_FIRST) {
+                            removeEdges(edgeTriangles,triangle1Edges,triangle1);
+                            removedTriangles.add(triangle1);
+                            stopMerge = true;
+                            break;
+                        } else if (result == MERGE_REMOVED_SECOND) {
+                            removeEdges(edgeTriangles,getEdges(triangle2),triangle2);
+                            removedTriangles.add(triangle2);
+                        } else if (result == MERGE_COMBINED) {
+                            removeEdges(edgeTriangles,triangle1Edges,triangle1);
+                            removeEdges(edgeTriangles,getEdges(triangle2),triangle2);
+                            addEdges(edgeTriangles,triangle1);
+                            removedTriangles.add(triangle2);
+                            worklist.add(triangle1);
+                            stopMerge = true;
+                            break;
                         }
                     }
                 }
@@ -115,40 +205,147 @@ public class OBJWriter {
             }
 
             // Remove triangles
-            for (OBJTriangle triangle : removedTriangles) {
-                triangles.remove(triangles.indexOf(triangle));
-            }
+            triangles.removeIf(removedTriangles::contains);
         }
 
         return finalFaces;
     }
 
     /**
-     * Creates new source for OBJ.
+     * Writes text to a Writer. The last new line is left out to match
+     * the sources that were created before the output was streamed.
+     */
+    private static class OBJOutput {
+        private Writer writer;
+        private int pendingNewLines;
+
+        /**
+         * Creates an OBJOutput.
+         *
+         * @param writer writer to write to.
+         */
+        public OBJOutput(Writer writer) {
+            this.writer = writer;
+        }
+
+        /**
+         * Writes text.
+         *
+         * @param text text to write.
+         */
+        public void write(String text) throws IOException {
+            while (this.pendingNewLines > 0) {
+                this.writer.write('\n');
+                this.pendingNewLines--;
+            }
+            this.writer.write(text);
+        }
+
+        /**
+         * Writes a number.
+         *
+         * @param number number to write.
+         */
+        public void write(double number) throws IOException {
+            this.write(Double.toString(number));
+        }
+
+        /**
+         * Writes an index.
+         *
+         * @param index index to write.
+         */
+        public void write(int index) throws IOException {
+            this.write(Integer.toString(index));
+        }
+
+        /**
+         * Writes a new line. It isn't written until more text is written.
+         */
+        public void newLine() {
+            this.pendingNewLines++;
+        }
+
+        /**
+         * Writes the remaining new lines except for the last one.
+         */
+        public void finish() throws IOException {
+            while (this.pendingNewLines > 1) {
+                this.writer.write('\n');
+                this.pendingNewLines--;
+            }
+            this.pendingNewLines = 0;
+        }
+    }
+
+    /**
+     * Returns a map of values to their 1-based OBJ index, in the iteration order of the set.
+     *
+     * @param values values to index.
+     */
+    private static <T> HashMap<T,Integer> getIndexes(HashSet<T> values) {
+        HashMap<T,Integer> indexes = new HashMap<>();
+        for (T value : values) {
+            indexes.put(value,indexes.size() + 1);
+        }
+
+        return indexes;
+    }
+
+    /**
+     * Writes a point of a face.
+     *
+     * @param output output to write to.
+     * @param point point to write.
+     * @param vertexIndexes indexes of the vertices.
+     * @param vertexTextureIndexes indexes of the texture vertices.
+     * @param vertexNormalIndexes indexes of the normals.
+     */
+    private static void writeFacePoint(OBJOutput output,OBJTriangle.OBJTriangleVertex point,HashMap<Vector3W,Integer> vertexIndexes,HashMap<Vector2W,Integer> vertexTextureIndexes,HashMap<Vector3,Integer> vertexNormalIndexes) throws IOException {
+        output.write(vertexIndexes.get(point.vertex));
+        if (point.texture != null || point.normal != OBJTriangle.DEFAULT_NORMAL) {
+            output.write("/");
+            if (point.texture != null) {
+                output.write(vertexTextureIndexes.get(point.texture));
+            }
+            if (point.normal != OBJTriangle.DEFAULT_NORMAL) {
+                output.write("/");
+                output.write(vertexNormalIndexes.get(point.normal));
+            }
+        }
+    }
+
+    /**
+     * Writes the source for the OBJ to a Writer without creating the source in memory.
      *
+     * @param writer writer to write to. It isn't flushed or closed.
      * @param faces faces of the OBJ to write.
      */
-    public String getOBJSource(HashMap<String,ArrayList<OBJTriangle>> faces) {
-        String finalFormat = "";
+    public void writeOBJSource(Writer writer,HashMap<String,ArrayList<OBJTriangle>> faces) throws IOException {
+        OBJOutput output = new OBJOutput(writer);
 
         // Write MTLLibs
         for (String mtlLib : this.objReader.mtlLibs) {
-            finalFormat += "mtllib " + mtlLib + "\n";
+            output.write("mtllib " + mtlLib);
+            output.newLine();
         }
-        finalFormat += "\n";
+        output.newLine();
 
         String firstUsedHeader = null;
         if (this.objReader.triangles.keySet().size() >= 1) {
-            firstUsedHeader = (String) this.objReader.triangles.keySet().toArray()[0];
-            if (firstUsedHeader != OBJReader.DEFAULT_GROUP) {
-                finalFormat += "g " + this.objReader.triangles.keySet().toArray()[0] + "\n\n";
+            firstUsedHeader = this.objReader.triangles.keySet().iterator().next();
+            if (!firstUsedHeader.equals(OBJReader.DEFAULT_GROUP)) {
+                output.write("g " + firstUsedHeader);
+                output.newLine();
+                output.newLine();
             }
         }
 
         // Store all the vertices, texture vertices, and normals.
-        HashSet<Vector3W> vertices = new HashSet<>();
-        HashSet<Vector2W> vertexTextures = new HashSet<>();
-        HashSet<Vector3> vertexNormals = new HashSet<>();
+        // Sets that keep the order the values are added are used so the output doesn't depend on the hash codes.
+        LinkedHashSet<Vector3W> vertices = new LinkedHashSet<>();
+        LinkedHashSet<Vector2W> vertexTextures = new LinkedHashSet<>();
+        LinkedHashSet<Vector3> vertexNormals = new LinkedHashSet<>();
 
         for (String groupName : faces.keySet()) {
             ArrayList<OBJTriangle> triangleSet = faces.get(groupName);
@@ -166,37 +363,51 @@ public class OBJWriter {
             }
         }
 
-        ArrayList<Vector3W> verticesList = new ArrayList<>(vertices);
-        ArrayList<Vector2W> vertexTexturesList = new ArrayList<>(vertexTextures);
-        ArrayList<Vector3> vertexNormalsList = new ArrayList<>(vertexNormals);
+        HashMap<Vector3W,Integer> vertexIndexes = getIndexes(vertices);
+        HashMap<Vector2W,Integer> vertexTextureIndexes = getIndexes(vertexTextures);
+        HashMap<Vector3,Integer> vertexNormalIndexes = getIndexes(vertexNormals);
 
         // Write vertices.
         for (Vector3W vertex : vertices) {
-            finalFormat += "v " + vertex.x + " " + vertex.y + " " + vertex.z;
+            output.write("v ");
+            output.write(vertex.x);
+            output.write(" ");
+            output.write(vertex.y);
+            output.write(" ");
+            output.write(vertex.z);
             if (vertex.w != 1.00) {
-                finalFormat += " " + vertex.w + "\n";
-            } else {
-                finalFormat += "\n";
+                output.write(" ");
+                output.write(vertex.w);
             }
+            output.newLine();
         }
-        finalFormat += "\n";
+        output.newLine();
 
         // Write texture vertices.
         for (Vector2W vertex : vertexTextures) {
-            finalFormat += "vt " + vertex.x + " " + vertex.y;
+            output.write("vt ");
+            output.write(vertex.x);
+            output.write(" ");
+            output.write(vertex.y);
             if (vertex.w != 1.00) {
-                finalFormat += " " + vertex.w + "\n";
-            } else {
-                finalFormat += "\n";
+                output.write(" ");
+                output.write(vertex.w);
             }
+            output.newLine();
         }
-        finalFormat += "\n";
+        output.newLine();
 
         // Write normal vertices.
         for (Vector3 vertex : vertexNormals) {
-            finalFormat += "vn " + vertex.x + " " + vertex.y + " " + vertex.z + "\n";
+            output.write("vn ");
+            output.write(vertex.x);
+            output.write(" ");
+            output.write(vertex.y);
+            output.write(" ");
+            output.write(vertex.z);
+            output.newLine();
         }
-        finalFormat += "\n";
+        output.newLine();
 
         // Write the triangles.
         for (String groupName : faces.keySet()) {
@@ -204,62 +415,48 @@ public class OBJWriter {
 
             // Write group.
             if (groupName != firstUsedHeader) {
-                finalFormat += "g " + groupName + "\n\n";
+                output.write("g " + groupName);
+                output.newLine();
+                output.newLine();
             }
 
             // Write MTL to use, if any.
             if (objReader.mtls.get(groupName) != null) {
-                finalFormat += "usemtl " + objReader.mtls.get(groupName) + "\n\n";
+                output.write("usemtl " + objReader.mtls.get(groupName));
+                output.newLine();
+                output.newLine();
             }
 
             // Write faces.
             for (OBJTriangle triangle : triangleSet) {
-                finalFormat += "f ";
-
-                // Write point 1.
-                finalFormat += (verticesList.indexOf(triangle.point1.vertex) + 1
-                );
-                if (triangle.point1.texture != null || triangle.point1.normal != OBJTriangle.DEFAULT_NORMAL) {
-                    finalFormat += "/";
-                    if (triangle.point1.texture != null) {
-                        finalFormat += (vertexTexturesList.indexOf(triangle.point1.texture) + 1);
-                    }
-                    if (triangle.point1.normal != OBJTriangle.DEFAULT_NORMAL) {
-                        finalFormat += "/" + (vertexNormalsList.indexOf(triangle.point1.normal) + 1);
-                    }
-                }
-
-                // Write point 2.
-                finalFormat += " " + (verticesList.indexOf(triangle.point2.vertex) + 1
-                );
-                if (triangle.point2.texture != null || triangle.point2.normal != OBJTriangle.DEFAULT_NORMAL) {
-                    finalFormat += "/";
-                    if (triangle.point2.texture != null) {
-                        finalFormat += (vertexTexturesList.indexOf(triangle.point2.texture) + 1);
-                    }
-                    if (triangle.point2.normal != OBJTriangle.DEFAULT_NORMAL) {
-                        finalFormat += "/" + (vertexNormalsList.indexOf(triangle.point2.normal) + 1);
-                    }
-                }
+                output.write("f ");
+                writeFacePoint(output,triangle.point1,vertexIndexes,vertexTextureIndexes,vertexNormalIndexes);
+                output.write(" ");
+                writeFacePoint(output,triangle.point2,vertexIndexes,vertexTextureIndexes,vertexNormalIndexes);
+                output.write(" ");
+                writeFacePoint(output,triangle.point3,vertexIndexes,vertexTextureIndexes,vertexNormalIndexes);
+                output.newLine();
+            }
+            output.newLine();
+        }
 
-                // Write point 3.
-                finalFormat += " " + (verticesList.indexOf(triangle.point3.vertex) + 1
-                );
-                if (triangle.point3.texture != null || triangle.point3.normal != OBJTriangle.DEFAULT_NORMAL) {
-                    finalFormat += "/";
-                    if (triangle.point3.texture != null) {
-                        finalFormat += (vertexTexturesList.indexOf(triangle.point3.texture) + 1);
-                    }
-                    if (triangle.point3.normal != OBJTriangle.DEFAULT_NORMAL) {
-                        finalFormat += "/" + (vertexNormalsList.indexOf(triangle.point3.normal) + 1);
-                    }
-                }
+        output.finish();
+    }
 
-                finalFormat += "\n";
-            }
-            finalFormat += "\n";
+    /**
+     * Creates new source for OBJ.
+     *
+     * @param faces faces of the OBJ to write.
+     */
+    public String getOBJSource(HashMap<String,ArrayList<OBJTriangle>> faces) {
+        StringWriter writer = new StringWriter();
+        try {
+            this.writeOBJSource(writer,faces);
+        } catch (IOException e) {
+            // StringWriters don't throw IOExceptions.
+            throw new UncheckedIOException(e);
         }
 
-        return finalFormat.substring(0,finalFormat.length() - 1);
+        return writer.toString();
     }
 }
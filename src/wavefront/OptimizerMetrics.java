@@ -0,0 +1,242 @@
+/*
+ * Stores the time and memory used by each stage of optimizing an OBJ.
+ * The stages of the coplanar shapes are stored for each shape, and
+ * their totals are stored with the stages of the file.
+ *
+ * @author: agent
+ * @date: 10/17/2026
+ */
+
+package wavefront;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+
+public class OptimizerMetrics {
+    private static ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+    private static boolean CPU_TIME_SUPPORTED = THREAD_BEAN.isCurrentThreadCpuTimeSupported();
+    private static boolean ALLOCATED_BYTES_SUPPORTED = THREAD_BEAN instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) THREAD_BEAN).isThreadAllocatedMemorySupported();
+
+
+
+    /**
+     * Stages of optimizing an OBJ.
+     */
+    public enum Stage {
+        READ,
+        GROUP,
+        LOCALIZE,
+        BOUNDARY,
+        FILL,
+        UNPROJECT,
+        MERGE,
+        WRITE;
+
+        /**
+         * Returns whether the stage is done for each coplanar shape.
+         */
+        public boolean isShapeStage() {
+            return this == LOCALIZE || this == BOUNDARY || this == FILL || this == UNPROJECT;
+        }
+
+        /**
+         * Returns the name of the stage used in reports.
+         */
+        public String getName() {
+            return this.name().toLowerCase();
+        }
+    }
+
+    /**
+     * Time and memory used by a stage.
+     */
+    public static class StageTimes {
+        public long wallNanos;
+        public long cpuNanos;
+        public long allocatedBytes;
+
+        /**
+         * Adds the time and memory of another stage.
+         *
+         * @param times times to add.
+         */
+        public void add(StageTimes times) {
+            this.wallNanos += times.wallNanos;
+            this.cpuNanos += times.cpuNanos;
+            this.allocatedBytes += times.allocatedBytes;
+        }
+    }
+
+    /**
+     * Measures the time and memory used by the current thread. The CPU time and allocated
+     * bytes are 0 if the JVM doesn't support measuring them.
+     */
+    public static class StageTimer {
+        private long wallStart;
+        private long cpuStart;
+        private long allocatedStart;
+
+        /**
+         * Creates and starts a StageTimer.
+         */
+        public StageTimer() {
+            this.restart();
+        }
+
+        /**
+         * Returns the CPU time of the current thread.
+         */
+        private static long getCpuTime() {
+            return CPU_TIME_SUPPORTED ? Math.max(0,THREAD_BEAN.getCurrentThreadCpuTime()) : 0;
+        }
+
+        /**
+         * Returns the bytes allocated by the current thread.
+         */
+        private static long getAllocatedBytes() {
+            return ALLOCATED_BYTES_SUPPORTED ? Math.max(0,((com.sun.management.ThreadMXBean) THREAD_BEAN).getThreadAllocatedBytes(Thread.currentThread().getId())) : 0;
+        }
+
+        /**
+         * Restarts measuring from the current time.
+         */
+        public void restart() {
+            this.wallStart = System.nanoTime();
+            this.cpuStart = getCpuTime();
+            this.allocatedStart = getAllocatedBytes();
+        }
+
+        /**
+         * Adds the time and memory used since the timer was last restarted to a stage, and restarts the timer.
+         *
+         * @param times times of the stage to add to.
+         */
+        public void lap(StageTimes times) {
+            long wallEnd = System.nanoTime();
+            long cpuEnd = getCpuTime();
+            long allocatedEnd = getAllocatedBytes();
+            times.wallNanos += wallEnd - this.wallStart;
+            times.cpuNanos += cpuEnd - this.cpuStart;
+            times.allocatedBytes += allocatedEnd - this.allocatedStart;
+            this.restart();
+        }
+    }
+
+    /**
+     * Metrics of a coplanar shape.
+     */
+    public static class ShapeMetrics {
+        public int baseTriangles;
+        public int finalTriangles;
+        public boolean cached;
+        public StageTimes[] stages;
+
+        /**
+         * Creates a ShapeMetrics.
+         */
+        public ShapeMetrics() {
+            this.stages = createStages();
+        }
+
+        /**
+         * Returns the times of a stage.
+         *
+         * @param stage stage to get.
+         */
+        public StageTimes getStage(Stage stage) {
+            return this.stages[stage.ordinal()];
+        }
+    }
+
+
+
+    public String name;
+    public int unprocessedLines;
+    public int baseTriangles;
+    public int finalTriangles;
+    public StageTimes[] stages;
+    public ArrayList<ShapeMetrics> shapes;
+
+    /**
+     * Creates an OptimizerMetrics.
+     *
+     * @param name name of the optimized OBJ, like the file name.
+     */
+    public OptimizerMetrics(String name) {
+        this.name = name;
+        this.stages = createStages();
+        this.shapes = new ArrayList<>();
+    }
+
+    /**
+     * Creates empty times for every stage.
+     */
+    private static StageTimes[] createStages() {
+        StageTimes[] stages = new StageTimes[Stage.values().length];
+        for (int i = 0; i < stages.length; i++) {
+            stages[i] = new StageTimes();
+        }
+
+        return stages;
+    }
+
+    /**
+     * Returns the times of a stage. The times of the shape stages are the sums of the shapes,
+     * so the wall time is more than the elapsed time when shapes are optimized in parallel.
+     *
+     * @param stage stage to get.
+     */
+    public StageTimes getStage(Stage stage) {
+        return this.stages[stage.ordinal()];
+    }
+
+    /**
+     * Adds the metrics of the shapes. The stages of the shapes are added to the stages of the file.
+     *
+     * @param shapes metrics of the shapes to add.
+     */
+    public void addShapes(ArrayList<ShapeMetrics> shapes) {
+        for (ShapeMetrics shape : shapes) {
+            this.shapes.add(shape);
+            for (Stage stage : Stage.values()) {
+                this.getStage(stage).add(shape.getStage(stage));
+            }
+        }
+    }
+
+    /**
+     * Clears the stages after reading, so optimizing again doesn't add to the previous optimization.
+     */
+    public void clearOptimization() {
+        for (Stage stage : Stage.values()) {
+            if (stage != Stage.READ) {
+                this.stages[stage.ordinal()] = new StageTimes();
+            }
+        }
+        this.shapes.clear();
+        this.baseTriangles = 0;
+        this.finalTriangles = 0;
+    }
+
+    /**
+     * Returns the fraction of the triangles that were removed, or 0 if there were no triangles.
+     */
+    public double getReductionRatio() {
+        return getReductionRatio(this.baseTriangles,this.finalTriangles);
+    }
+
+    /**
+     * Returns the fraction of the triangles that were removed, or 0 if there were no triangles.
+     *
+     * @param baseTriangles amount of triangles before optimizing.
+     * @param finalTriangles amount of triangles after optimizing.
+     */
+    public static double getReductionRatio(long baseTriangles,long finalTriangles) {
+        if (baseTriangles == 0) {
+            return 0;
+        }
+
+        return 1 - ((double) finalTriangles / baseTriangles);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Groups triangles into coplanar sets using a hash index of the plane distances.
+ * A triangle is added to the first set where the first point of the first triangle
+ * is coplanar with it (OBJTriangleVertex.isCoPlanar), the same as comparing it with
+ * every set, but only the sets with a nearby plane distance are compared.
+ *
+ * @author: agent
+ * @date: 10/17/2026
+ */
+
+package wavefront;
+
+import vectors.Vector3;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+
+public class PlaneIndex {
+    private ArrayList<ArrayList<OBJTriangle>> triangleSets;
+    private LinkedHashMap<Vector3,HashMap<Long,ArrayList<Integer>>> setsByNormal;
+
+    /**
+     * Creates a PlaneIndex.
+     */
+    public PlaneIndex() {
+        this.triangleSets = new ArrayList<>();
+        this.setsByNormal = new LinkedHashMap<>();
+    }
+
+    /**
+     * Returns the bucket of a plane distance. The buckets are the size of the coplanar tolerance,
+     * so coplanar points are at most 1 bucket apart.
+     *
+     * @param point point on the plane.
+     * @param normal normal of the plane.
+     */
+    private static long getBucket(Vector3 point,Vector3 normal) {
+        return (long) Math.floor(point.dot(normal) / OBJTriangle.COPLANAR_EPSILON);
+    }
+
+    /**
+     * Adds a triangle to the first coplanar set, or to a new set if there is none.
+     *
+     * @param triangle triangle to add.
+     */
+    public void add(OBJTriangle triangle) {
+        // Find the first coplanar set. Each plane normal of the sets is checked since
+        // the distance of the triangle depends on the normal of the set.
+        int setIndex = -1;
+        for (Vector3 normal : this.setsByNormal.keySet()) {
+            HashMap<Long,ArrayList<Integer>> buckets = this.setsByNormal.get(normal);
+            long bucket = getBucket(triangle.point1.vertex,normal);
+
+            // Neighboring buckets 2 away are also checked in case of rounding at the edges of the buckets.
+            for (long nearbyBucket = bucket - 2; nearbyBucket <= bucket + 2; nearbyBucket++) {
+                ArrayList<Integer> setIndexes = buckets.get(nearbyBucket);
+                if (setIndexes != null) {
+                    for (int index : setIndexes) {
+                        if ((setIndex == -1 || index < setIndex) && this.triangleSets.get(index).get(0).point1.isCoPlanar(triangle.point1.vertex)) {
+                            setIndex = index;
+                        }
+                    }
+                }
+            }
+        }
+
+        if (setIndex != -1) {
+            this.triangleSets.get(setIndex).add(triangle);
+            return;
+        }
+
+        // Add a new set.
+        ArrayList<OBJTriangle> newSet = new ArrayList<>();
+        newSet.add(triangle);
+        this.triangleSets.add(newSet);
+
+        Vector3 normal = triangle.point1.normal;
+        HashMap<Long,ArrayList<Integer>> buckets = this.setsByNormal.get(normal);
+        if (buckets == null) {
+            buckets = new HashMap<>();
+            this.setsByNormal.put(normal,buckets);
+        }
+        long bucket = getBucket(triangle.point1.vertex,normal);
+        ArrayList<Integer> setIndexes = buckets.get(bucket);
+        if (setIndexes == null) {
+            setIndexes = new ArrayList<>();
+            buckets.put(bucket,setIndexes);
+        }
+        setIndexes.add(this.triangleSets.size() - 1);
+    }
+
+    /**
+     * Returns the coplanar sets of triangles in the order they were created.
+     */
+    public ArrayList<ArrayList<OBJTriangle>> getTriangleSets() {
+        return this.triangleSets;
+    }
+}
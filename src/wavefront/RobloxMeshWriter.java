@@ -0,0 +1,235 @@
+/*
+ * Writes Roblox binary meshes (version 2.00). Roblox meshes store a single list
+ * of vertices with a position, normal, and texture coordinate each, so the
+ * points of the triangles are deduplicated and the groups are combined.
+ *
+ * @author: agent
+ * @date: 10/17/2026
+ */
+
+package wavefront;
+
+import vectors.Vector3;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+
+public class RobloxMeshWriter {
+    public static String VERSION_HEADER = "version 2.00\n";
+    public static int MESH_HEADER_SIZE = 12;
+    public static int VERTEX_SIZE = 36;
+    public static int FACE_SIZE = 12;
+    public static int NORMAL_QUANTIZATION_STEPS = 32767;
+    public static int TEXTURE_QUANTIZATION_STEPS = 65536;
+
+
+
+    /**
+     * Vertex of a Roblox mesh. The values are stored as floats since
+     * vertices that are only different as doubles are written the same.
+     */
+    private static class MeshVertex {
+        private float[] values;
+        private int hashCode;
+
+        /**
+         * Creates a MeshVertex.
+         *
+         * @param values position, normal, and texture coordinate of the vertex.
+         */
+        private MeshVertex(float[] values) {
+            this.values = values;
+            int hashCode = 0;
+            for (float value : values) {
+                hashCode = (hashCode * 31) + Float.floatToIntBits(value == 0 ? 0 : value);
+            }
+            this.hashCode = hashCode;
+        }
+
+        /**
+         * Returns whether another object is equal.
+         *
+         * @param object the other object to compare.
+         */
+        @Override
+        public boolean equals(Object object) {
+            if (!(object instanceof MeshVertex)) {
+                return false;
+            }
+
+            float[] otherValues = ((MeshVertex) object).values;
+            for (int i = 0; i < this.values.length; i++) {
+                if (this.values[i] != otherValues[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Returns the hash code of the MeshVertex.
+         */
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+    }
+
+
+
+    private boolean quantize;
+
+    /**
+     * Creates a RobloxMeshWriter.
+     *
+     * @param quantize whether to round the normals and texture coordinates so vertices with nearly the same
+     *                 normals and texture coordinates are combined. The values are still written as floats.
+     */
+    public RobloxMeshWriter(boolean quantize) {
+        this.quantize = quantize;
+    }
+
+    /**
+     * Creates a RobloxMeshWriter that doesn't quantize the normals and texture coordinates.
+     */
+    public RobloxMeshWriter() {
+        this(false);
+    }
+
+    /**
+     * Returns a value rounded to a step.
+     *
+     * @param value value to round.
+     * @param steps amount of steps in 1.
+     */
+    private static float getQuantized(double value,int steps) {
+        return (float) (Math.round(value * steps) / (double) steps);
+    }
+
+    /**
+     * Returns the vertex of a point of a triangle.
+     *
+     * @param point point to get the vertex of.
+     * @param faceNormal normal of the triangle, used if the point doesn't have a normal.
+     */
+    private MeshVertex getVertex(OBJTriangle.OBJTriangleVertex point,Vector3 faceNormal) {
+        Vector3 normal = (point.normal != OBJTriangle.DEFAULT_NORMAL ? point.normal : faceNormal);
+
+        // Roblox flips the vertical texture coordinate compared to OBJs.
+        double textureX = (point.texture != null ? point.texture.x : 0);
+        double textureY = (point.texture != null ? 1 - point.texture.y : 0);
+
+        float[] values = new float[8];
+        values[0] = (float) point.vertex.x;
+        values[1] = (float) point.vertex.y;
+        values[2] = (float) point.vertex.z;
+        if (this.quantize) {
+            values[3] = getQuantized(normal.x,NORMAL_QUANTIZATION_STEPS);
+            values[4] = getQuantized(normal.y,NORMAL_QUANTIZATION_STEPS);
+            values[5] = getQuantized(normal.z,NORMAL_QUANTIZATION_STEPS);
+            values[6] = getQuantized(textureX,TEXTURE_QUANTIZATION_STEPS);
+            values[7] = getQuantized(textureY,TEXTURE_QUANTIZATION_STEPS);
+        } else {
+            values[3] = (float) normal.x;
+            values[4] = (float) normal.y;
+            values[5] = (float) normal.z;
+            values[6] = (float) textureX;
+            values[7] = (float) textureY;
+        }
+        return new MeshVertex(values);
+    }
+
+    /**
+     * Returns the unit normal of a triangle, or 0,1,0 if the triangle has no area.
+     *
+     * @param triangle triangle to get the normal of.
+     */
+    private static Vector3 getFaceNormal(OBJTriangle triangle) {
+        Vector3 normal = Vector3.crossOfSides(triangle.point1.vertex,triangle.point2.vertex,triangle.point3.vertex,new Vector3());
+        double magnitude = normal.getMagnitude();
+        if (magnitude == 0) {
+            return normal.set(0,1,0);
+        }
+
+        return normal.set(normal.x / magnitude,normal.y / magnitude,normal.z / magnitude);
+    }
+
+    /**
+     * Returns the index of a vertex, adding it if it isn't indexed.
+     *
+     * @param vertexIndexes indexes of the vertices, in the order they were added.
+     * @param vertex vertex to get the index of.
+     */
+    private static int getVertexIndex(LinkedHashMap<MeshVertex,Integer> vertexIndexes,MeshVertex vertex) {
+        Integer index = vertexIndexes.get(vertex);
+        if (index == null) {
+            index = vertexIndexes.size();
+            vertexIndexes.put(vertex,index);
+        }
+
+        return index;
+    }
+
+    /**
+     * Returns the mesh as bytes.
+     *
+     * @param faces faces of the mesh to write. The groups are combined.
+     */
+    public byte[] getMeshBytes(HashMap<String,ArrayList<OBJTriangle>> faces) {
+        // Index the vertices and store the faces.
+        LinkedHashMap<MeshVertex,Integer> vertexIndexes = new LinkedHashMap<>();
+        int faceCount = 0;
+        for (String groupName : faces.keySet()) {
+            faceCount += faces.get(groupName).size();
+        }
+        int[] faceIndexes = new int[faceCount * 3];
+        int faceIndex = 0;
+        for (String groupName : faces.keySet()) {
+            for (OBJTriangle triangle : faces.get(groupName)) {
+                Vector3 faceNormal = getFaceNormal(triangle);
+                faceIndexes[faceIndex] = getVertexIndex(vertexIndexes,this.getVertex(triangle.point1,faceNormal));
+                faceIndexes[faceIndex + 1] = getVertexIndex(vertexIndexes,this.getVertex(triangle.point2,faceNormal));
+                faceIndexes[faceIndex + 2] = getVertexIndex(vertexIndexes,this.getVertex(triangle.point3,faceNormal));
+                faceIndex += 3;
+            }
+        }
+
+        // Write the headers.
+        byte[] versionHeader = VERSION_HEADER.getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer buffer = ByteBuffer.allocate(versionHeader.length + MESH_HEADER_SIZE + (vertexIndexes.size() * VERTEX_SIZE) + (faceCount * FACE_SIZE)).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(versionHeader);
+        buffer.putShort((short) MESH_HEADER_SIZE);
+        buffer.put((byte) VERTEX_SIZE);
+        buffer.put((byte) FACE_SIZE);
+        buffer.putInt(vertexIndexes.size());
+        buffer.putInt(faceCount);
+
+        // Write the vertices. The third texture coordinate is unused.
+        for (MeshVertex vertex : vertexIndexes.keySet()) {
+            for (float value : vertex.values) {
+                buffer.putFloat(value);
+            }
+            buffer.putFloat(0);
+        }
+
+        // Write the faces.
+        buffer.asIntBuffer().put(faceIndexes);
+        return buffer.array();
+    }
+
+    /**
+     * Writes the mesh to an OutputStream.
+     *
+     * @param outputStream stream to write to. It isn't flushed or closed.
+     * @param faces faces of the mesh to write. The groups are combined.
+     */
+    public void writeMesh(OutputStream outputStream,HashMap<String,ArrayList<OBJTriangle>> faces) throws IOException {
+        outputStream.write(this.getMeshBytes(faces));
+    }
+}
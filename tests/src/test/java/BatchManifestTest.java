@@ -0,0 +1,83 @@
+/*
+ * Tests storing the optimized OBJs in BatchManifest.
+ *
+ * @author: agent
+ * @date: 10/17/2026
+ */
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BatchManifestTest {
+    private static String SQUARE_OBJ = "v 0 0 0\nv 1 0 0\nv 1 1 0\nv 0 1 0\nvn 0 0 1\nf 1//1 2//1 3//1\nf 1//1 3//1 4//1\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Tests that an optimized source is up to date until it changes.
+     */
+    @Test
+    public void testUpToDate() throws IOException {
+        File directory = this.folder.getRoot();
+        File source = new File(directory,"Square.obj");
+        Files.write(source.toPath(),SQUARE_OBJ.getBytes(StandardCharsets.UTF_8));
+        File manifestFile = new File(directory,BatchOptimizer.MANIFEST_FILE_NAME);
+
+        List<BatchOptimizer.BatchResult> results = BatchOptimizer.optimizeChangedFiles(directory,Arrays.asList(source),1);
+        assertEquals(1,results.size());
+        assertNull(results.get(0).failure);
+        assertTrue(BatchOptimizer.getOptimizedFile(source).isFile());
+        assertTrue(BatchManifest.load(manifestFile,directory,BatchOptimizer.getOptimizerVersion()).isUpToDate(source));
+
+        Files.write(source.toPath(),(SQUARE_OBJ + "f 1//1 2//1 4//1\n").getBytes(StandardCharsets.UTF_8));
+        assertFalse(BatchManifest.load(manifestFile,directory,BatchOptimizer.getOptimizerVersion()).isUpToDate(source));
+    }
+
+    /**
+     * Tests that a source that was deleted after it was checked isn't stored, and the manifest is still saved.
+     */
+    @Test
+    public void testDeletedSourceNotStored() throws IOException {
+        File directory = this.folder.getRoot();
+        File source = new File(directory,"Square.obj");
+        Files.write(source.toPath(),SQUARE_OBJ.getBytes(StandardCharsets.UTF_8));
+        File manifestFile = new File(directory,BatchOptimizer.MANIFEST_FILE_NAME);
+
+        BatchManifest manifest = BatchManifest.load(manifestFile,directory,BatchOptimizer.getOptimizerVersion());
+        assertFalse(manifest.isUpToDate(source));
+        assertTrue(source.delete());
+        manifest.markOptimized(source);
+        manifest.markOptimized(new File(directory,"Missing.obj"));
+        manifest.save();
+
+        assertEquals(Arrays.asList(BatchManifest.HEADER),Files.readAllLines(manifestFile.toPath(),StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Tests that a source fails if the output can't be written, and isn't stored.
+     */
+    @Test
+    public void testUnwritableOutputFails() throws IOException {
+        File directory = this.folder.getRoot();
+        File source = new File(directory,"Square.obj");
+        Files.write(source.toPath(),SQUARE_OBJ.getBytes(StandardCharsets.UTF_8));
+        File manifestFile = new File(directory,BatchOptimizer.MANIFEST_FILE_NAME);
+
+        // The output can't be written because a directory is in the way.
+        assertTrue(BatchOptimizer.getOptimizedFile(source).mkdir());
+        List<BatchOptimizer.BatchResult> results = BatchOptimizer.optimizeChangedFiles(directory,Arrays.asList(source),1);
+        assertNotNull(results.get(0).failure);
+        assertEquals(Arrays.asList(BatchManifest.HEADER),Files.readAllLines(manifestFile.toPath(),StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Tests OptimizerDaemon over a loopback connection.
+ *
+ * @author: agent
+ * @date: 10/17/2026
+ */
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+
+public class OptimizerDaemonTest {
+    private static String SQUARE_OBJ = "v 0 0 0\nv 1 0 0\nv 1 1 0\nv 0 1 0\nvn 0 0 1\nf 1//1 2//1 3//1\nf 1//1 3//1 4//1\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private OptimizerDaemon daemon;
+    private Thread daemonThread;
+
+    /**
+     * Starts a daemon on a free port.
+     */
+    @Before
+    public void startDaemon() throws IOException {
+        this.startDaemon(OptimizerDaemon.DEFAULT_CACHE_BYTES);
+    }
+
+    /**
+     * Starts a daemon on a free port, replacing the running daemon.
+     *
+     * @param maxCacheBytes maximum total size of the cached results in bytes.
+     */
+    private void startDaemon(long maxCacheBytes) throws IOException {
+        if (this.daemon != null) {
+            this.stopDaemon();
+        }
+        this.daemon = new OptimizerDaemon(0,2,maxCacheBytes);
+        this.daemonThread = new Thread(this.daemon::run);
+        this.daemonThread.start();
+    }
+
+    /**
+     * Stops the daemon.
+     */
+    @After
+    public void stopDaemon() throws IOException {
+        this.daemon.close();
+        try {
+            this.daemonThread.join(10000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Tests that the first request is optimized, the same OBJ is returned from the cache,
+     * and the connection can still be used after a failed request.
+     */
+    @Test
+    public void testMissHitAndError() throws IOException {
+        byte[] source = SQUARE_OBJ.getBytes(StandardCharsets.UTF_8);
+        try (OptimizerClient client = new OptimizerClient(this.daemon.getPort())) {
+            byte[] result = client.optimize(source);
+            assertEquals("miss",client.getLastStatus());
+            assertTrue(new String(result,StandardCharsets.UTF_8).contains("f "));
+
+            assertArrayEquals(result,client.optimize(source));
+            assertEquals("hit",client.getLastStatus());
+
+            try {
+                client.optimizeFile(new File(this.folder.getRoot(),"Missing.obj"));
+                fail("Optimizing a missing file didn't fail.");
+            } catch (IOException e) {
+                assertNotEquals("Connection was closed by the daemon.",e.getMessage());
+            }
+
+            assertArrayEquals(result,client.optimize(source));
+            assertEquals("hit",client.getLastStatus());
+            assertTrue(client.getStats().contains("\"failures\": 1"));
+        }
+    }
+
+    /**
+     * Tests that an OBJ longer than the maximum length is rejected without closing the connection.
+     */
+    @Test
+    public void testObjTooLong() throws IOException {
+        byte[] source = SQUARE_OBJ.getBytes(StandardCharsets.UTF_8);
+        int maxLength = OptimizerDaemon.MAX_OBJ_LENGTH;
+        OptimizerDaemon.MAX_OBJ_LENGTH = source.length - 1;
+        try (OptimizerClient client = new OptimizerClient(this.daemon.getPort())) {
+            try {
+                client.optimize(source);
+                fail("Optimizing an OBJ that is too long didn't fail.");
+            } catch (IOException e) {
+                assertTrue(e.getMessage().startsWith("OBJ is longer than"));
+            }
+
+            OptimizerDaemon.MAX_OBJ_LENGTH = maxLength;
+            client.optimize(source);
+            assertEquals("miss",client.getLastStatus());
+        } finally {
+            OptimizerDaemon.MAX_OBJ_LENGTH = maxLength;
+        }
+    }
+
+    /**
+     * Tests that paths are sent as UTF-8.
+     */
+    @Test
+    public void testNonAsciiPath() throws IOException {
+        File directory = this.folder.newFolder("Modèles");
+        File source = new File(directory,"Carré.obj");
+        Files.write(source.toPath(),SQUARE_OBJ.getBytes(StandardCharsets.UTF_8));
+        try (OptimizerClient client = new OptimizerClient(this.daemon.getPort())) {
+            assertTrue(client.optimizeFile(source).length > 0);
+            assertEquals("miss",client.getLastStatus());
+        }
+    }
+
+    /**
+     * Tests that a file is cached by the bytes that were optimized, so sending the same bytes is a hit
+     * and changing the file is a miss.
+     */
+    @Test
+    public void testPathCachedByReadBytes() throws IOException {
+        File source = this.folder.newFile("Square.obj");
+        Files.write(source.toPath(),SQUARE_OBJ.getBytes(StandardCharsets.UTF_8));
+        try (OptimizerClient client = new OptimizerClient(this.daemon.getPort())) {
+            byte[] result = client.optimizeFile(source);
+            assertEquals("miss",client.getLastStatus());
+            assertArrayEquals(result,client.optimize(SQUARE_OBJ.getBytes(StandardCharsets.UTF_8)));
+            assertEquals("hit",client.getLastStatus());
+
+            Files.write(source.toPath(),(SQUARE_OBJ + "f 2//1 3//1 4//1\n").getBytes(StandardCharsets.UTF_8));
+            client.optimizeFile(source);
+            assertEquals("miss",client.getLastStatus());
+        }
+    }
+
+    /**
+     * Tests that connections after MAX_CONNECTIONS wait until a connection is closed.
+     */
+    @Test
+    public void testMaxConnections() throws Exception {
+        int maxConnections = OptimizerDaemon.MAX_CONNECTIONS;
+        OptimizerDaemon.MAX_CONNECTIONS = 1;
+        try {
+            this.startDaemon(OptimizerDaemon.DEFAULT_CACHE_BYTES);
+        } finally {
+            OptimizerDaemon.MAX_CONNECTIONS = maxConnections;
+        }
+
+        byte[] source = SQUARE_OBJ.getBytes(StandardCharsets.UTF_8);
+        OptimizerClient firstClient = new OptimizerClient(this.daemon.getPort());
+        firstClient.optimize(source);
+        try (OptimizerClient secondClient = new OptimizerClient(this.daemon.getPort())) {
+            FutureTask<byte[]> secondRequest = new FutureTask<>(() -> secondClient.optimize(source));
+            new Thread(secondRequest).start();
+            try {
+                secondRequest.get(500,TimeUnit.MILLISECONDS);
+                fail("Second connection was handled while the first was open.");
+            } catch (TimeoutException e) {
+                // The second connection is waiting.
+            }
+
+            firstClient.close();
+            assertTrue(secondRequest.get(10,TimeUnit.SECONDS).length > 0);
+        } finally {
+            firstClient.close();
+        }
+    }
+
+    /**
+     * Tests that lines are decoded as UTF-8.
+     */
+    @Test
+    public void testReadLine() throws IOException {
+        ByteArrayInputStream inputStream = new ByteArrayInputStream("PATH Modèles/Carré.obj\r\nSTATS".getBytes(StandardCharsets.UTF_8));
+        assertEquals("PATH Modèles/Carré.obj",OptimizerDaemon.readLine(inputStream));
+        assertEquals("STATS",OptimizerDaemon.readLine(inputStream));
+        assertNull(OptimizerDaemon.readLine(inputStream));
+    }
+
+    /**
+     * Tests that results larger than the cache aren't cached.
+     */
+    @Test
+    public void testCacheBytes() throws IOException {
+        this.startDaemon(1);
+        byte[] source = SQUARE_OBJ.getBytes(StandardCharsets.UTF_8);
+        try (OptimizerClient client = new OptimizerClient(this.daemon.getPort())) {
+            client.optimize(source);
+            assertEquals("miss",client.getLastStatus());
+            client.optimize(source);
+            assertEquals("miss",client.getLastStatus());
+            assertTrue(client.getStats().contains("\"cachedBytes\": 0"));
+        }
+    }
+}
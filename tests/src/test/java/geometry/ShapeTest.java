@@ -0,0 +1,127 @@
+/*
+ * Tests checking points in a Shape.
+ *
+ * @author: agent
+ * @date: 10/17/2026
+ */
+
+package geometry;
+
+import modeloptimizer.DelaunayTriangulatorTest;
+import org.junit.Test;
+import vectors.Vector2;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ShapeTest {
+    /**
+     * Returns whether a point is in a shape like Shape did before the lines were stored in an
+     * interval tree, by toggling for each distinct x coordinate left of the point.
+     *
+     * @param shape shape to check.
+     * @param point point to check.
+     */
+    private static boolean pointInShapeWithoutTree(Shape shape,Vector2 point) {
+        HashSet<Double> xs = new HashSet<>();
+        for (Line line : shape.lines) {
+            if ((line.start.y <= point.y && line.end.y >= point.y) || (line.end.y <= point.y && line.start.y >= point.y)) {
+                double ratioY = (point.y - line.start.y) / (line.end.y - line.start.y);
+                xs.add(line.start.x + ((line.end.x - line.start.x) * ratioY));
+            }
+        }
+
+        ArrayList<Double> sortedXs = new ArrayList<>(xs);
+        Collections.sort(sortedXs);
+        boolean inRegion = false;
+        for (Double x : sortedXs) {
+            if (x < point.x) {
+                inRegion = !inRegion;
+            }
+        }
+
+        return inRegion;
+    }
+
+    /**
+     * Returns a shape with the lines of multiple shapes.
+     *
+     * @param shapes shapes to combine.
+     */
+    private static Shape combineShapes(Shape... shapes) {
+        ArrayList<Line> lines = new ArrayList<>();
+        for (Shape shape : shapes) {
+            lines.addAll(shape.lines);
+        }
+
+        return new Shape(lines);
+    }
+
+    /**
+     * Asserts that points are in the shape the same as before the lines were stored in an interval tree.
+     * The points are on a grid that includes the points and lines of the shapes, and random points.
+     *
+     * @param shape shape to check.
+     */
+    private static void assertSameAsWithoutTree(Shape shape) {
+        ArrayList<Vector2> points = new ArrayList<>();
+        for (double x = -1; x <= 9; x += 0.25) {
+            for (double y = -1; y <= 9; y += 0.25) {
+                points.add(new Vector2(x,y));
+            }
+        }
+        Random random = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            points.add(new Vector2((random.nextDouble() * 10) - 1,(random.nextDouble() * 10) - 1));
+        }
+
+        boolean[] inShape = shape.pointsInShape(points);
+        for (int i = 0; i < points.size(); i++) {
+            assertEquals(points.get(i).toString(),pointInShapeWithoutTree(shape,points.get(i)),inShape[i]);
+        }
+    }
+
+    /**
+     * Tests a convex shape.
+     */
+    @Test
+    public void testConvexShape() {
+        assertSameAsWithoutTree(DelaunayTriangulatorTest.createShape(0,0, 4,-1, 6,2, 4,5, 1,4));
+    }
+
+    /**
+     * Tests a concave shape with horizontal and vertical lines.
+     */
+    @Test
+    public void testConcaveShape() {
+        assertSameAsWithoutTree(DelaunayTriangulatorTest.createShape(0,0, 8,0, 8,2, 2,2, 2,4, 8,4, 8,8, 0,8));
+    }
+
+    /**
+     * Tests a shape with corners at the y coordinates of other corners.
+     */
+    @Test
+    public void testStarShape() {
+        assertSameAsWithoutTree(DelaunayTriangulatorTest.createShape(4,0, 5,3, 8,3, 6,5, 7,8, 4,6, 1,8, 2,5, 0,3, 3,3));
+    }
+
+    /**
+     * Tests a shape with a hole and points in the middle of the lines.
+     */
+    @Test
+    public void testShapeWithHole() {
+        assertSameAsWithoutTree(combineShapes(DelaunayTriangulatorTest.createShape(0,0, 4,0, 8,0, 8,8, 0,8, 0,4),DelaunayTriangulatorTest.createShape(2,2, 6,2, 6,6, 2,6)));
+    }
+
+    /**
+     * Tests a shape with coordinates that aren't on the grid.
+     */
+    @Test
+    public void testIrregularShape() {
+        assertSameAsWithoutTree(DelaunayTriangulatorTest.createShape(0.3,0.1, 7.7,1.3, 6.1,7.9, 3.3,4.2, 0.9,6.6));
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Tests filling shapes with DelaunayTriangulator.
+ *
+ * @author: agent
+ * @date: 10/17/2026
+ */
+
+package modeloptimizer;
+
+import geometry.Line;
+import geometry.Shape;
+import geometry.Triangle;
+import org.junit.Test;
+import vectors.Vector2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+
+public class DelaunayTriangulatorTest {
+    private static double EPSILON = 0.000001;
+
+    /**
+     * Returns a shape connecting the points in order, with the last point connected to the first.
+     *
+     * @param coordinates x and y coordinates of the points.
+     */
+    public static Shape createShape(double... coordinates) {
+        ArrayList<Line> lines = new ArrayList<>();
+        int pointCount = coordinates.length / 2;
+        for (int i = 0; i < pointCount; i++) {
+            int next = (i + 1) % pointCount;
+            lines.add(new Line(new Vector2(coordinates[i * 2],coordinates[(i * 2) + 1]),new Vector2(coordinates[next * 2],coordinates[(next * 2) + 1])));
+        }
+
+        return new Shape(lines);
+    }
+
+    /**
+     * Returns the area of a polygon.
+     *
+     * @param coordinates x and y coordinates of the points.
+     */
+    private static double getPolygonArea(double... coordinates) {
+        int pointCount = coordinates.length / 2;
+        double area = 0;
+        for (int i = 0; i < pointCount; i++) {
+            int next = (i + 1) % pointCount;
+            area += (coordinates[i * 2] * coordinates[(next * 2) + 1]) - (coordinates[next * 2] * coordinates[(i * 2) + 1]);
+        }
+
+        return Math.abs(area) / 2;
+    }
+
+    /**
+     * Returns the total area of triangles.
+     *
+     * @param triangles triangles to add the areas of.
+     */
+    private static double getTotalArea(ArrayList<Triangle> triangles) {
+        double area = 0;
+        for (Triangle triangle : triangles) {
+            area += triangle.area;
+        }
+
+        return area;
+    }
+
+    /**
+     * Returns the center of a triangle.
+     *
+     * @param triangle triangle to get the center of.
+     */
+    private static Vector2 getCenter(Triangle triangle) {
+        return new Vector2((triangle.point1.x + triangle.point2.x + triangle.point3.x) / 3,(triangle.point1.y + triangle.point2.y + triangle.point3.y) / 3);
+    }
+
+    /**
+     * Returns the points of the shapes.
+     *
+     * @param shapes shapes to get the points of.
+     */
+    private static HashSet<Vector2> getPoints(Shape... shapes) {
+        HashSet<Vector2> points = new HashSet<>();
+        for (Shape shape : shapes) {
+            for (Line line : shape.lines) {
+                points.add(line.start);
+                points.add(line.end);
+            }
+        }
+
+        return points;
+    }
+
+    /**
+     * Fills shapes and asserts that the triangles only use the points of the shapes,
+     * have an area, and cover the expected area.
+     *
+     * @param expectedArea area the triangles should cover.
+     * @param shapes shapes to fill.
+     */
+    private static ArrayList<Triangle> fillShapes(double expectedArea,Shape... shapes) {
+        ArrayList<Triangle> triangles = new DelaunayTriangulator().getTrianglesFromShapes(new ArrayList<>(Arrays.asList(shapes)));
+        HashSet<Vector2> points = getPoints(shapes);
+        for (Triangle triangle : triangles) {
+            assertTrue(points.contains(triangle.point1) && points.contains(triangle.point2) && points.contains(triangle.point3));
+            assertTrue(triangle.area > 0);
+        }
+        assertEquals(expectedArea,getTotalArea(triangles),EPSILON);
+
+        return triangles;
+    }
+
+    /**
+     * Tests filling a convex polygon.
+     */
+    @Test
+    public void testConvexPolygon() {
+        double[] coordinates = {0,0, 4,-1, 6,2, 4,5, 1,4};
+        ArrayList<Triangle> triangles = fillShapes(getPolygonArea(coordinates),createShape(coordinates));
+        assertEquals(3,triangles.size());
+    }
+
+    /**
+     * Tests filling a concave polygon. None of the triangles can be in the notch.
+     */
+    @Test
+    public void testConcavePolygon() {
+        double[] coordinates = {0,0, 2,0, 2,1, 1,1, 1,2, 0,2};
+        Shape shape = createShape(coordinates);
+        ArrayList<Triangle> triangles = fillShapes(getPolygonArea(coordinates),shape);
+        assertEquals(4,triangles.size());
+        for (Triangle triangle : triangles) {
+            assertTrue(shape.pointInShape(getCenter(triangle)));
+        }
+    }
+
+    /**
+     * Tests filling a polygon with a hole. None of the triangles can be in the hole.
+     */
+    @Test
+    public void testPolygonWithHole() {
+        Shape outerShape = createShape(0,0, 4,0, 4,4, 0,4);
+        Shape innerShape = createShape(1,1, 3,1, 3,3, 1,3);
+        ArrayList<Triangle> triangles = fillShapes(12,outerShape,innerShape);
+        assertEquals(8,triangles.size());
+        for (Triangle triangle : triangles) {
+            Vector2 center = getCenter(triangle);
+            assertTrue(outerShape.pointInShape(center));
+            assertFalse(innerShape.pointInShape(center));
+        }
+    }
+
+    /**
+     * Tests that points in the middle of straight boundaries aren't used, like the lines being merged.
+     */
+    @Test
+    public void testCollinearBoundaryPoints() {
+        Shape shape = createShape(0,0, 1,0, 2,0, 2,1, 2,2, 1,2, 0,2, 0,1);
+        ArrayList<Triangle> triangles = fillShapes(4,shape);
+        assertEquals(2,triangles.size());
+        HashSet<Vector2> corners = new HashSet<>(Arrays.asList(new Vector2(0,0),new Vector2(2,0),new Vector2(2,2),new Vector2(0,2)));
+        for (Triangle triangle : triangles) {
+            assertTrue(corners.contains(triangle.point1) && corners.contains(triangle.point2) && corners.contains(triangle.point3));
+        }
+    }
+
+    /**
+     * Tests that points in the middle of straight boundaries are kept if they are used by other lines.
+     */
+    @Test
+    public void testCollinearPointsUsedByOtherLines() {
+        Shape outerShape = createShape(0,0, 2,0, 4,0, 4,4, 0,4);
+        Shape innerShape = createShape(2,0, 3,2, 1,2);
+        ArrayList<Triangle> triangles = fillShapes(14,outerShape,innerShape);
+        boolean usesMiddlePoint = false;
+        for (Triangle triangle : triangles) {
+            usesMiddlePoint = usesMiddlePoint || triangle.point1.equals(new Vector2(2,0)) || triangle.point2.equals(new Vector2(2,0)) || triangle.point3.equals(new Vector2(2,0));
+            assertFalse(innerShape.pointInShape(getCenter(triangle)));
+        }
+        assertTrue(usesMiddlePoint);
+    }
+
+    /**
+     * Tests that a shape with only collinear points creates no triangles.
+     */
+    @Test
+    public void testCollinearPoints() {
+        assertTrue(new DelaunayTriangulator().getTrianglesFromShapes(new ArrayList<>(Arrays.asList(createShape(0,0, 1,0, 2,0)))).isEmpty());
+        assertTrue(new DelaunayTriangulator().getTrianglesFromShapes(new ArrayList<>(Arrays.asList(createShape(0,0, 1,1, 2,2, 3,3)))).isEmpty());
+    }
+
+    /**
+     * Tests that points that are repeated are only used once.
+     */
+    @Test
+    public void testDuplicatePoints() {
+        assertEquals(2,fillShapes(4,createShape(0,0, 2,0, 2,0, 2,2, 0,2)).size());
+        assertEquals(2,fillShapes(4,createShape(0,0, 2,0, 2,2, 0,2, 0,0)).size());
+    }
+
+    /**
+     * Tests that points that are nearly at the same position or nearly on a boundary don't create triangles without an area.
+     */
+    @Test
+    public void testNearlyCoincidentPoints() {
+        fillShapes(4,createShape(0,0, 2,0, 2,1e-13, 2,2, 0,2));
+        fillShapes(4 + 1e-12,createShape(0,0, 2,0, 2 + 1e-12,0, 2,2, 0,2));
+        fillShapes(4,createShape(0,0, 1,1e-15, 2,0, 2,2, 0,2));
+    }
+
+    /**
+     * Tests that boundaries that cross can't be filled.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testCrossingBoundaries() {
+        new DelaunayTriangulator().getTrianglesFromShapes(new ArrayList<>(Arrays.asList(createShape(0,0, 2,0, 2,2, 0,2),createShape(1,1, 3,1, 3,3, 1,3))));
+    }
+
+    /**
+     * Tests that shapes with less than 3 points create no triangles.
+     */
+    @Test
+    public void testNoArea() {
+        assertTrue(new DelaunayTriangulator().getTrianglesFromShapes(new ArrayList<>()).isEmpty());
+        assertTrue(new DelaunayTriangulator().getTrianglesFromShapes(new ArrayList<>(Arrays.asList(createShape(0,0, 1,1)))).isEmpty());
+    }
+}
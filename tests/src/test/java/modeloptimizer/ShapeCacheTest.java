@@ -0,0 +1,62 @@
+/*
+ * Tests reusing filled shapes with ShapeCache.
+ *
+ * @author: agent
+ * @date: 10/17/2026
+ */
+
+package modeloptimizer;
+
+import benchmarks.MeshGenerator;
+import org.junit.Test;
+import wavefront.OBJOptimizer;
+
+import static org.junit.Assert.*;
+
+public class ShapeCacheTest {
+    /**
+     * Returns the optimized OBJ of a source.
+     *
+     * @param source source of the OBJ.
+     * @param shapeCache cache of filled shapes, or null to fill every shape.
+     */
+    private static String getOptimizedOBJSource(String source,ShapeCache shapeCache) {
+        OBJOptimizer optimizer = new OBJOptimizer(source);
+        optimizer.setShapeCache(shapeCache);
+        return optimizer.getOptimizedOBJSource();
+    }
+
+    /**
+     * Tests that the output is the same with and without the cache, and that shapes were reused.
+     */
+    @Test
+    public void testSameOutputWithCache() {
+        String source = MeshGenerator.createOBJSource(60,3,7);
+        ShapeCache shapeCache = new ShapeCache();
+        assertEquals(getOptimizedOBJSource(source,null),getOptimizedOBJSource(source,shapeCache));
+        assertTrue(shapeCache.getHits() > 0);
+    }
+
+    /**
+     * Tests that the output is the same when every shape is reused from a previous OBJ.
+     */
+    @Test
+    public void testSameOutputWithSharedCache() {
+        String source = MeshGenerator.createOBJSource(10,2,3);
+        ShapeCache shapeCache = new ShapeCache();
+        String expectedSource = getOptimizedOBJSource(source,shapeCache);
+        long misses = shapeCache.getMisses();
+        assertEquals(expectedSource,getOptimizedOBJSource(source,shapeCache));
+        assertEquals(misses,shapeCache.getMisses());
+    }
+
+    /**
+     * Tests that the least recently used shapes are removed when the cache is full.
+     */
+    @Test
+    public void testMaxEntries() {
+        ShapeCache shapeCache = new ShapeCache(2);
+        getOptimizedOBJSource(MeshGenerator.createOBJSource(10,2,3),shapeCache);
+        assertEquals(2,shapeCache.size());
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ * Tests creating the boundary shapes with ShapeCreator.
+ *
+ * @author: agent
+ * @date: 10/17/2026
+ */
+
+package modeloptimizer;
+
+import benchmarks.MeshGenerator;
+import geometry.Line;
+import geometry.Shape;
+import geometry.Triangle;
+import org.junit.Test;
+import vectors.Vector2;
+import wavefront.OBJOptimizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+
+public class ShapeCreatorTest {
+    /**
+     * Returns the triangles of a grid of squares, without the squares that are skipped.
+     *
+     * @param size amount of squares on each side of the grid.
+     * @param skippedSquares x and y coordinates of the squares to skip.
+     */
+    private static ArrayList<Triangle> createGrid(int size,int... skippedSquares) {
+        ArrayList<Triangle> triangles = new ArrayList<>();
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                boolean skipped = false;
+                for (int i = 0; i < skippedSquares.length; i += 2) {
+                    skipped = skipped || (skippedSquares[i] == x && skippedSquares[i + 1] == y);
+                }
+                if (!skipped) {
+                    triangles.add(new Triangle(new Vector2(x,y),new Vector2(x + 1,y),new Vector2(x + 1,y + 1)));
+                    triangles.add(new Triangle(new Vector2(x,y),new Vector2(x + 1,y + 1),new Vector2(x,y + 1)));
+                }
+            }
+        }
+
+        return triangles;
+    }
+
+    /**
+     * Returns the lines of the shapes.
+     *
+     * @param shapes shapes to get the lines of.
+     */
+    private static HashSet<Line> getLines(ArrayList<Shape> shapes) {
+        HashSet<Line> lines = new HashSet<>();
+        for (Shape shape : shapes) {
+            lines.addAll(shape.lines);
+        }
+
+        return lines;
+    }
+
+    /**
+     * Asserts that both boundary modes create the same shapes for the triangles.
+     *
+     * @param expectedShapes amount of shapes that should be created.
+     * @param triangles triangles to create the shapes of.
+     */
+    private static void assertSameShapes(int expectedShapes,ArrayList<Triangle> triangles) {
+        ArrayList<Shape> angleCoverageShapes = new ShapeCreator(ShapeCreator.BoundaryMode.ANGLE_COVERAGE).getShapesFromTriangles(triangles);
+        ArrayList<Shape> edgeCountShapes = new ShapeCreator(ShapeCreator.BoundaryMode.EDGE_COUNT).getShapesFromTriangles(triangles);
+        assertEquals(expectedShapes,angleCoverageShapes.size());
+        assertEquals(expectedShapes,edgeCountShapes.size());
+        assertEquals(getLines(angleCoverageShapes),getLines(edgeCountShapes));
+    }
+
+    /**
+     * Merges collinear lines like ShapeCreator did before the lines were indexed by their points.
+     *
+     * @param lines lines to merge.
+     */
+    private static ArrayList<Line> mergeLinesWithoutIndex(ArrayList<Line> lines) {
+        lines = new ArrayList<>(lines);
+        for (int i = lines.size() - 1; i >= 0; i--) {
+            Line line = lines.get(i);
+            if (line.start.equals(line.end)) {
+                lines.remove(i);
+            }
+        }
+
+        HashMap<Vector2,Integer> pointsPassed = new HashMap<>();
+        for (Line line : lines) {
+            pointsPassed.merge(line.start,1,Integer::sum);
+            pointsPassed.merge(line.end,1,Integer::sum);
+        }
+
+        HashSet<Line> mergedLines = new HashSet<>();
+        ArrayList<Line> finalLines = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            Line line1 = lines.get(i);
+            if (!mergedLines.contains(line1)) {
+                Line newLine = new Line(line1.start,line1.end);
+                for (int j = i + 1; j < lines.size(); j++) {
+                    Line line2 = lines.get(j);
+                    if (pointsPassed.get(line1.start) <= 2 && pointsPassed.get(line1.end) <= 2 && pointsPassed.get(line2.start) <= 2 && pointsPassed.get(line2.end) <= 2) {
+                        if (newLine.canMerge(line2) && !mergedLines.contains(line2)) {
+                            double line2StartOnLine1 = newLine.getPositionOnLine(line2.start);
+                            double line2EndOnLine1 = newLine.getPositionOnLine(line2.end);
+                            if (line2StartOnLine1 < 0) {
+                                newLine.setStartPoint(line2.start);
+                                mergedLines.add(line2);
+                            } else if (line2StartOnLine1 > 1) {
+                                newLine.setEndPoint(line2.start);
+                                mergedLines.add(line2);
+                            }
+                            if (line2EndOnLine1 < 0) {
+                                newLine.setStartPoint(line2.end);
+                                mergedLines.add(line2);
+                            } else if (line2EndOnLine1 > 1) {
+                                newLine.setEndPoint(line2.end);
+                                mergedLines.add(line2);
+                            }
+                        }
+                    }
+                }
+                finalLines.add(newLine);
+            }
+        }
+
+        return finalLines;
+    }
+
+    /**
+     * Creates the shapes like ShapeCreator did before the lines were indexed by their points.
+     *
+     * @param boundingLines the lines to bound the shapes.
+     */
+    private static ArrayList<Shape> createShapesWithoutIndex(ArrayList<Line> boundingLines) {
+        boundingLines = mergeLinesWithoutIndex(boundingLines);
+        ArrayList<Shape> shapes = new ArrayList<>();
+        while (boundingLines.size() > 0) {
+            Line firstLine = boundingLines.remove(0);
+            Vector2 lastPoint = firstLine.end;
+            ArrayList<Line> currentShape = new ArrayList<>();
+            currentShape.add(firstLine);
+
+            boolean lineAdded = true;
+            while (lineAdded) {
+                lineAdded = false;
+                for (int i = 0; i < boundingLines.size(); i++) {
+                    Line line = boundingLines.get(i);
+                    if (line.start.equals(lastPoint) || line.end.equals(lastPoint)) {
+                        lastPoint = (line.start.equals(lastPoint) ? line.end : line.start);
+                        currentShape.add(line);
+                        boundingLines.remove(i);
+                        lineAdded = true;
+                        break;
+                    }
+                }
+            }
+            shapes.add(new Shape(currentShape));
+        }
+
+        return shapes;
+    }
+
+    /**
+     * Returns the lines connecting the points of each loop in order, with the last point connected to the first.
+     *
+     * @param loops x and y coordinates of the points of each loop.
+     */
+    private static ArrayList<Line> createLoops(double[]... loops) {
+        ArrayList<Line> lines = new ArrayList<>();
+        for (double[] loop : loops) {
+            lines.addAll(DelaunayTriangulatorTest.createShape(loop).lines);
+        }
+
+        return lines;
+    }
+
+    /**
+     * Asserts that the shapes are created the same as before the lines were indexed by their points.
+     *
+     * @param lines lines to create the shapes of.
+     */
+    private static void assertSameAsWithoutIndex(ArrayList<Line> lines) {
+        ArrayList<Shape> expectedShapes = createShapesWithoutIndex(lines);
+        ArrayList<Shape> shapes = ShapeCreator.createShapes(new ArrayList<>(lines));
+        assertEquals(expectedShapes.size(),shapes.size());
+        for (int i = 0; i < shapes.size(); i++) {
+            ArrayList<Line> expectedLines = expectedShapes.get(i).lines;
+            ArrayList<Line> shapeLines = shapes.get(i).lines;
+            assertEquals(expectedLines.size(),shapeLines.size());
+            for (int j = 0; j < shapeLines.size(); j++) {
+                assertEquals(expectedLines.get(j).start,shapeLines.get(j).start);
+                assertEquals(expectedLines.get(j).end,shapeLines.get(j).end);
+            }
+        }
+    }
+
+    /**
+     * Returns whether any of the lines start or end at a point.
+     *
+     * @param lines lines to check.
+     * @param point point to find.
+     */
+    private static boolean hasPoint(ArrayList<Line> lines,Vector2 point) {
+        for (Line line : lines) {
+            if (line.start.equals(point) || line.end.equals(point)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Tests that the boundary modes create the same shape for a square.
+     */
+    @Test
+    public void testBoundaryModesSquare() {
+        assertSameShapes(1,createGrid(1));
+    }
+
+    /**
+     * Tests that the boundary modes create the same shape for a grid, with the points
+     * in the middle of the sides merged.
+     */
+    @Test
+    public void testBoundaryModesGrid() {
+        ArrayList<Triangle> triangles = createGrid(3);
+        assertSameShapes(1,triangles);
+        assertEquals(4,getLines(new ShapeCreator(ShapeCreator.BoundaryMode.EDGE_COUNT).getShapesFromTriangles(triangles)).size());
+    }
+
+    /**
+     * Tests that the boundary modes create the same shape for a concave grid.
+     */
+    @Test
+    public void testBoundaryModesConcave() {
+        assertSameShapes(1,createGrid(3,2,2,1,2,2,1));
+    }
+
+    /**
+     * Tests that the boundary modes create the same shapes for a grid with a hole.
+     */
+    @Test
+    public void testBoundaryModesHole() {
+        assertSameShapes(2,createGrid(3,1,1));
+    }
+
+    /**
+     * Tests that the boundary modes create the same optimized OBJ for a generated mesh. Each group
+     * has 1 box so the triangles share full edges, which the edge counts require.
+     */
+    @Test
+    public void testBoundaryModesGeneratedMesh() {
+        int boxesPerPart = MeshGenerator.BOXES_PER_PART;
+        String source;
+        try {
+            MeshGenerator.BOXES_PER_PART = 1;
+            source = MeshGenerator.createOBJSource(12,3,7);
+        } finally {
+            MeshGenerator.BOXES_PER_PART = boxesPerPart;
+        }
+
+        OBJOptimizer angleCoverageOptimizer = new OBJOptimizer(source);
+        OBJOptimizer edgeCountOptimizer = new OBJOptimizer(source);
+        edgeCountOptimizer.setBoundaryMode(ShapeCreator.BoundaryMode.EDGE_COUNT);
+        assertEquals(angleCoverageOptimizer.getOptimizedOBJSource(),edgeCountOptimizer.getOptimizedOBJSource());
+    }
+
+    /**
+     * Tests that the shapes are created the same as before the lines were indexed by their points.
+     */
+    @Test
+    public void testCreateShapesSameAsWithoutIndex() {
+        assertSameAsWithoutIndex(createLoops(new double[] {0,0, 1,0, 2,0, 2,1, 2,2, 1,2, 0,2, 0,1}));
+        assertSameAsWithoutIndex(createLoops(new double[] {0,0, 1,0, 2,0, 2,1, 1,1, 1,2, 0,2, 0,1}));
+        assertSameAsWithoutIndex(createLoops(new double[] {0,0, 4,0, 4,4, 0,4},new double[] {1,1, 2,1, 3,1, 3,3, 1,3}));
+        assertSameAsWithoutIndex(createLoops(new double[] {0,0, 2,0, 2,2, 0,2},new double[] {3,0, 5,0, 5,1, 5,2, 3,2},new double[] {6,0, 7,1, 6,2}));
+        assertSameAsWithoutIndex(createLoops(new double[] {0,0, 1,1, 0,2},new double[] {2,0, 1,1, 2,2}));
+    }
+
+    /**
+     * Tests that the lines of a bowtie aren't merged at the point the triangles share,
+     * even though the lines through the point are collinear.
+     */
+    @Test
+    public void testBowtieNotMerged() {
+        ArrayList<Shape> shapes = ShapeCreator.createShapes(createLoops(new double[] {0,0, 1,1, 0,2},new double[] {2,0, 1,1, 2,2}));
+        assertEquals(2,shapes.size());
+        for (Shape shape : shapes) {
+            assertEquals(3,shape.lines.size());
+            assertTrue(hasPoint(shape.lines,new Vector2(1,1)));
+        }
+    }
+
+    /**
+     * Tests that collinear lines are merged at a point used by 2 lines, even if the merged
+     * line ends at the point of a bowtie. Before the lines were indexed by their points, lines
+     * weren't merged if any of their ends were used by more than 2 lines.
+     */
+    @Test
+    public void testMergedUpToBowtie() {
+        ArrayList<Line> lines = createLoops(new double[] {0,0, 1,0, 2,0, 1,1},new double[] {2,0, 3,-1, 3,1});
+        ArrayList<Line> mergedLines = ShapeCreator.mergeLines(new ArrayList<>(lines));
+        assertEquals(6,mergedLines.size());
+        assertFalse(hasPoint(mergedLines,new Vector2(1,0)));
+        assertTrue(mergedLines.contains(new Line(new Vector2(0,0),new Vector2(2,0))));
+        assertEquals(7,mergeLinesWithoutIndex(lines).size());
+    }
+}
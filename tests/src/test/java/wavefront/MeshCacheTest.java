@@ -0,0 +1,85 @@
+/*
+ * Tests storing parsed OBJs with MeshCache.
+ *
+ * @author: agent
+ * @date: 10/17/2026
+ */
+
+package wavefront;
+
+import benchmarks.MeshGenerator;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class MeshCacheTest {
+    private static String SQUARE_OBJ = "v 0 0 0\nv 1 0 0\nv 1 1 0\nv 0 1 0\nvn 0 0 1\nf 1//1 2//1 3//1\nf 1//1 3//1 4//1\n";
+    private static String GROUPS_OBJ = "mtllib Parts.mtl\nv 0 0 0\nv 1 0 0\nv 1 1 0\nv 0 1 0\nvt 0 0\nvt 1 1\nvn 0 0 1\nf 1/1/1 2/2/1 3/2/1\ng Part\nusemtl Red\nf 1/1/1 3/2/1 4/1/1\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Asserts that an OBJ is optimized the same when it is parsed, stored in the cache, and read from the cache.
+     *
+     * @param objSource source of the OBJ.
+     */
+    private void assertSameOutputs(String objSource) throws IOException {
+        File source = this.folder.newFile();
+        Files.write(source.toPath(),objSource.getBytes(StandardCharsets.UTF_8));
+        File cacheFile = new File(this.folder.getRoot(),source.getName() + ".meshstore");
+
+        String parsedOutput = new OBJOptimizer(source).getOptimizedOBJSource();
+        String missOutput = new OBJOptimizer(source,cacheFile).getOptimizedOBJSource();
+        assertTrue(cacheFile.isFile());
+        String hitOutput = new OBJOptimizer(source,cacheFile).getOptimizedOBJSource();
+        assertEquals(parsedOutput,missOutput);
+        assertEquals(parsedOutput,hitOutput);
+    }
+
+    /**
+     * Tests that an OBJ without groups is written without a group when read from the cache.
+     */
+    @Test
+    public void testDefaultGroup() throws IOException {
+        this.assertSameOutputs(SQUARE_OBJ);
+    }
+
+    /**
+     * Tests that the groups, materials, and texture vertices are read from the cache.
+     */
+    @Test
+    public void testGroupsAndMaterials() throws IOException {
+        this.assertSameOutputs(GROUPS_OBJ);
+    }
+
+    /**
+     * Tests a generated mesh with many coplanar shapes.
+     */
+    @Test
+    public void testGeneratedMesh() throws IOException {
+        this.assertSameOutputs(MeshGenerator.createOBJSource(12,3,7));
+    }
+
+    /**
+     * Tests that the cache isn't used after the source changes.
+     */
+    @Test
+    public void testChangedSource() throws IOException {
+        File source = this.folder.newFile();
+        File cacheFile = new File(this.folder.getRoot(),source.getName() + ".meshstore");
+        Files.write(source.toPath(),SQUARE_OBJ.getBytes(StandardCharsets.UTF_8));
+        new OBJOptimizer(source,cacheFile).getOptimizedOBJSource();
+
+        Files.write(source.toPath(),GROUPS_OBJ.getBytes(StandardCharsets.UTF_8));
+        assertNull(MeshCache.read(cacheFile,MeshCache.getHash(source)));
+        assertEquals(new OBJOptimizer(source).getOptimizedOBJSource(),new OBJOptimizer(source,cacheFile).getOptimizedOBJSource());
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Tests filling the boundary shapes in OBJOptimizer.
+ *
+ * @author: agent
+ * @date: 10/17/2026
+ */
+
+package wavefront;
+
+import benchmarks.MeshGenerator;
+import geometry.Line;
+import geometry.Shape;
+import geometry.Triangle;
+import modeloptimizer.DelaunayTriangulatorTest;
+import modeloptimizer.ShapeFiller;
+import org.junit.Test;
+import vectors.Vector2;
+
+import java.io.File;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class OBJOptimizerTest {
+    /**
+     * Returns the triangles of filling shapes by connecting the points, which is used if the triangulation can't be used.
+     *
+     * @param shapes shapes to fill.
+     */
+    private static HashSet<Triangle> getConnectedPointTriangles(ArrayList<Shape> shapes) {
+        ArrayList<Line> lines = ShapeFiller.getDrawLinesFromShapes(shapes);
+        return new HashSet<>(ShapeFiller.getTrianglesFromLines(lines));
+    }
+
+    /**
+     * Returns the triangles of a square with a point in the middle of each side.
+     */
+    private static ArrayList<Shape> createSquareWithMiddlePoints() {
+        return new ArrayList<>(Arrays.asList(DelaunayTriangulatorTest.createShape(0,0, 1,0, 2,0, 2,1, 2,2, 1,2, 0,2, 0,1)));
+    }
+
+    /**
+     * Tests that the triangulation is used if it covers the area of the original triangles.
+     */
+    @Test
+    public void testTriangulationUsed() {
+        ArrayList<Shape> shapes = createSquareWithMiddlePoints();
+        ArrayList<Triangle> originalTriangles = new ArrayList<>(Arrays.asList(new Triangle(new Vector2(0,0),new Vector2(2,0),new Vector2(2,2)),new Triangle(new Vector2(0,0),new Vector2(2,2),new Vector2(0,2))));
+        ArrayList<Triangle> triangles = OBJOptimizer.getTrianglesFromShapes(shapes,originalTriangles);
+        assertEquals(2,triangles.size());
+        assertNotEquals(getConnectedPointTriangles(shapes),new HashSet<>(triangles));
+    }
+
+    /**
+     * Tests that the points are connected instead if the triangulation doesn't cover the area of the original triangles.
+     */
+    @Test
+    public void testFallbackOnAreaMismatch() {
+        ArrayList<Shape> shapes = createSquareWithMiddlePoints();
+        ArrayList<Triangle> overlappingTriangles = new ArrayList<>(Arrays.asList(new Triangle(new Vector2(0,0),new Vector2(2,0),new Vector2(2,2)),new Triangle(new Vector2(0,0),new Vector2(2,0),new Vector2(0,2)),new Triangle(new Vector2(0,0),new Vector2(2,2),new Vector2(0,2))));
+        ArrayList<Triangle> triangles = OBJOptimizer.getTrianglesFromShapes(shapes,overlappingTriangles);
+        assertEquals(getConnectedPointTriangles(shapes),new HashSet<>(triangles));
+        assertTrue(triangles.size() > 2);
+    }
+
+    /**
+     * Tests that the points are connected instead if the triangulation fails.
+     */
+    @Test
+    public void testFallbackOnFailure() {
+        ArrayList<Shape> shapes = new ArrayList<>(Arrays.asList(DelaunayTriangulatorTest.createShape(0,0, 2,0, 2,2, 0,2),DelaunayTriangulatorTest.createShape(1,1, 3,1, 3,3, 1,3)));
+        ArrayList<Triangle> originalTriangles = new ArrayList<>(Arrays.asList(new Triangle(new Vector2(0,0),new Vector2(2,0),new Vector2(2,2)),new Triangle(new Vector2(0,0),new Vector2(2,2),new Vector2(0,2))));
+        ArrayList<Triangle> triangles = OBJOptimizer.getTrianglesFromShapes(shapes,originalTriangles);
+        assertEquals(getConnectedPointTriangles(shapes),new HashSet<>(triangles));
+        assertFalse(triangles.isEmpty());
+    }
+
+    /**
+     * Tests that optimizing the shapes on a shared pool creates the same OBJ and keeps the pool running.
+     */
+    @Test
+    public void testSharedPool() {
+        String objSource = MeshGenerator.createOBJSource(12,3,7);
+        String expectedOutput = new OBJOptimizer(objSource).getOptimizedOBJSource();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int i = 0; i < 2; i++) {
+                OBJOptimizer optimizer = new OBJOptimizer(objSource);
+                optimizer.setParallelism(4);
+                optimizer.setPool(pool);
+                assertEquals(expectedOutput,optimizer.getOptimizedOBJSource());
+                assertFalse(pool.isShutdown());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Tests that the lines that couldn't be processed are counted in the metrics.
+     */
+    @Test
+    public void testUnprocessedLines() {
+        OBJOptimizer optimizer = new OBJOptimizer("# Comment\nv 0 0 0\nv 1 0 0\nv 1 1 0\nv 1 x 0\ncurv 0 1 1\n\nf 1 2 3\n");
+        assertEquals(2,optimizer.getMetrics().unprocessedLines);
+    }
+
+    /**
+     * Tests that a file that can't be read throws instead of being optimized as an empty OBJ.
+     */
+    @Test(expected = UncheckedIOException.class)
+    public void testMissingFile() {
+        new OBJOptimizer(new File("Missing" + System.nanoTime() + ".obj"));
+    }
+}
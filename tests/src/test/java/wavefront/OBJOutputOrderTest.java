@@ -0,0 +1,49 @@
+/*
+ * Tests that the optimized OBJ doesn't depend on the hash codes of the vectors.
+ *
+ * @author: agent
+ * @date: 10/17/2026
+ */
+
+package wavefront;
+
+import benchmarks.MeshGenerator;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class OBJOutputOrderTest {
+    /**
+     * Returns the contents of a test resource.
+     *
+     * @param name name of the resource.
+     */
+    private static String getResource(String name) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (InputStream input = OBJOutputOrderTest.class.getResourceAsStream(name)) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer,0,read);
+            }
+        }
+
+        return new String(output.toByteArray(),StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Tests that a generated mesh is optimized the same as when the vectors were hashed by
+     * their strings. The expected output was written with the string hash codes, and pins the
+     * output now that the sets and maps that are iterated keep the order their keys were added in.
+     */
+    @Test
+    public void testOutputMatchesStringHashCodes() throws IOException {
+        OBJOptimizer optimizer = new OBJOptimizer(MeshGenerator.createOBJSource(12,3,7));
+        assertEquals(getResource("generated-12-3-7.obj"),optimizer.getOptimizedOBJSource());
+    }
+}
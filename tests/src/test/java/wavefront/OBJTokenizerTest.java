@@ -0,0 +1,131 @@
+/*
+ * Tests that OBJTokenizer parses numbers the same as Double.parseDouble.
+ *
+ * @author: agent
+ * @date: 10/17/2026
+ */
+
+package wavefront;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class OBJTokenizerTest {
+    /**
+     * Returns a tokenizer on the first line of the source.
+     *
+     * @param source source to tokenize.
+     */
+    private static OBJTokenizer getTokenizer(String source) {
+        OBJTokenizer tokenizer = new OBJTokenizer(ByteBuffer.wrap(source.getBytes(StandardCharsets.UTF_8)));
+        assertTrue(tokenizer.nextLine());
+        return tokenizer;
+    }
+
+    /**
+     * Asserts that a number is parsed to exactly the same double as Double.parseDouble,
+     * including the sign of zero.
+     *
+     * @param number number to parse.
+     */
+    private static void assertParsedSame(String number) {
+        double expected = Double.parseDouble(number);
+        double actual = getTokenizer(number).nextDouble();
+        assertEquals(number,Double.doubleToRawLongBits(expected),Double.doubleToRawLongBits(actual));
+    }
+
+    /**
+     * Asserts that a number is rejected by both the tokenizer and Double.parseDouble.
+     *
+     * @param number number to parse.
+     */
+    private static void assertRejected(String number) {
+        try {
+            Double.parseDouble(number);
+            fail("Double.parseDouble accepted " + number);
+        } catch (NumberFormatException e) {
+            // Expected.
+        }
+        try {
+            getTokenizer(number).nextDouble();
+            fail("OBJTokenizer accepted " + number);
+        } catch (NumberFormatException e) {
+            // Expected.
+        }
+    }
+
+    /**
+     * Tests exponents at the edge of the exactly representable powers of ten.
+     */
+    @Test
+    public void testExponentLimits() {
+        for (String number : new String[] {"1e22","1e23","1e-22","1e-23","-1e22","-1e23","9007199254740992e22","9007199254740993e22","1.5e22","1.5e-23","123e20","0.5e-22","1E22","1e+22","1e+23"}) {
+            assertParsedSame(number);
+        }
+    }
+
+    /**
+     * Tests numbers with more significant digits than fit in a long or a double.
+     */
+    @Test
+    public void testManySignificantDigits() {
+        for (String number : new String[] {"0.30000000000000004","3.141592653589793238","1.2345678901234567890123","12345678901234567890","9007199254740993","9007199254740992.5","0.000000000000000000123456789012345678","-2.2250738585072014E-308","4.9E-324","1.7976931348623157E308"}) {
+            assertParsedSame(number);
+        }
+    }
+
+    /**
+     * Tests signs, zeros, and numbers without digits on one side of the decimal point.
+     */
+    @Test
+    public void testSignsAndDecimalPoints() {
+        for (String number : new String[] {"-0","-0.0","0","+0","+1.5","+.5",".5","-.5","5.","-5.","0.1","000.0001","10"}) {
+            assertParsedSame(number);
+        }
+        assertRejected("1e");
+        assertRejected("1e+");
+        assertRejected(".");
+        assertRejected("-");
+        assertRejected("1.2.3");
+    }
+
+    /**
+     * Tests that numbers at the end of lines with Windows line endings are parsed.
+     */
+    @Test
+    public void testWindowsLineEndings() {
+        OBJTokenizer tokenizer = new OBJTokenizer(ByteBuffer.wrap("v 1.5 -2 3e2\r\nvt .25\r\n".getBytes(StandardCharsets.UTF_8)));
+        assertTrue(tokenizer.nextLine());
+        assertEquals(OBJTokenizer.getInstructionCode("v"),tokenizer.nextInstruction());
+        assertEquals(1.5,tokenizer.nextDouble(),0);
+        assertEquals(-2,tokenizer.nextDouble(),0);
+        assertEquals(300,tokenizer.nextDouble(),0);
+        assertTrue(tokenizer.isEndOfLine());
+
+        assertTrue(tokenizer.nextLine());
+        assertEquals(OBJTokenizer.getInstructionCode("vt"),tokenizer.nextInstruction());
+        assertEquals(0.25,tokenizer.nextDouble(),0);
+        assertTrue(tokenizer.isEndOfLine());
+        assertFalse(tokenizer.nextLine());
+    }
+
+    /**
+     * Tests random numbers written the ways exporters write them.
+     */
+    @Test
+    public void testRandomNumbers() {
+        Random random = new Random(7);
+        for (int i = 0; i < 20000; i++) {
+            double value = (random.nextDouble() - 0.5) * Math.pow(10,random.nextInt(40) - 20);
+            assertParsedSame(Double.toString(value));
+            assertParsedSame(String.format(Locale.ROOT,"%.6f",value));
+            assertParsedSame(String.format(Locale.ROOT,"%.17e",value));
+        }
+    }
+}